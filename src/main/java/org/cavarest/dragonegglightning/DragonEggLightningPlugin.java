@@ -1,31 +1,73 @@
 package org.cavarest.dragonegglightning;
 
 import org.cavarest.dragonegglightning.ability.AbilityManager;
+import org.cavarest.dragonegglightning.ability.ActiveCastIndex;
+import org.cavarest.dragonegglightning.ability.DragonEggHolderIndex;
+import org.cavarest.dragonegglightning.ability.LivingEntityIndex;
+import org.cavarest.dragonegglightning.ability.StrikeEngine;
+import org.cavarest.dragonegglightning.api.AbilityService;
 import org.cavarest.dragonegglightning.command.AbilityCommand;
 import org.cavarest.dragonegglightning.command.AdminCommand;
+import org.cavarest.dragonegglightning.cooldown.CooldownJournal;
+import org.cavarest.dragonegglightning.cooldown.CooldownSync;
+import org.cavarest.dragonegglightning.cooldown.FileCooldownSyncBackend;
+import org.cavarest.dragonegglightning.cooldown.FsyncPolicy;
+import org.cavarest.dragonegglightning.effect.EffectQualityGovernor;
 import org.cavarest.dragonegglightning.hud.HudManager;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 import org.bukkit.entity.Player;
+import org.bukkit.plugin.ServicePriority;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
 
 /**
  * Main plugin class for Dragon Egg Lightning ability.
  */
 public class DragonEggLightningPlugin extends JavaPlugin {
 
+  private DragonEggHolderIndex holderIndex;
+  private LivingEntityIndex entityIndex;
+  private ActiveCastIndex castIndex;
+  private StrikeEngine strikeEngine;
+  private EffectQualityGovernor effectGovernor;
   private AbilityManager abilityManager;
   private HudManager hudManager;
+  private CooldownJournal cooldownJournal;
+  private CooldownSync cooldownSync;
 
   @Override
   public void onEnable() {
+    saveDefaultConfig();
+
+    this.holderIndex = new DragonEggHolderIndex(this);
+    this.entityIndex = new LivingEntityIndex(this);
+    this.castIndex = new ActiveCastIndex(this);
+    this.strikeEngine = new StrikeEngine(this);
+    this.effectGovernor = EffectQualityGovernor.fromConfig(this, getConfig());
     this.abilityManager = new AbilityManager(this);
+    openCooldownJournal();
+    openCooldownSync();
     this.hudManager = new HudManager(this, abilityManager);
+    holderIndex.start();
+    entityIndex.start();
+    castIndex.start();
+    strikeEngine.start();
+    effectGovernor.start();
 
     registerCommands();
     registerListeners();
+    getServer().getServicesManager().register(
+      AbilityService.class,
+      abilityManager,
+      this,
+      ServicePriority.Normal
+    );
 
     getLogger().info("DragonEggLightning plugin enabled!");
     getLogger().info("Plugin version: " + getDescription().getVersion());
@@ -33,12 +75,107 @@ public class DragonEggLightningPlugin extends JavaPlugin {
 
   @Override
   public void onDisable() {
+    getServer().getServicesManager().unregisterAll(this);
     if (hudManager != null) {
       hudManager.shutdown();
     }
+    if (abilityManager != null) {
+      abilityManager.shutdown();
+    }
+    if (holderIndex != null) {
+      holderIndex.stop();
+    }
+    if (entityIndex != null) {
+      entityIndex.stop();
+    }
+    if (strikeEngine != null) {
+      strikeEngine.stop();
+    }
+    if (effectGovernor != null) {
+      effectGovernor.stop();
+    }
+    if (castIndex != null) {
+      castIndex.stop();
+    }
+    if (cooldownSync != null) {
+      cooldownSync.close();
+      cooldownSync = null;
+    }
+    if (cooldownJournal != null) {
+      cooldownJournal.close();
+      cooldownJournal = null;
+    }
     getLogger().info("DragonEggLightning plugin disabled!");
   }
 
+  /**
+   * Restore cooldowns from the on-disk journal and keep recording them,
+   * unless persistence is disabled in the config.
+   */
+  private void openCooldownJournal() {
+    if (!getConfig().getBoolean("persistence.enabled", true)) {
+      return;
+    }
+
+    CooldownJournal journal = new CooldownJournal(
+      new File(getDataFolder(), "cooldowns.journal").toPath(),
+      FsyncPolicy.parse(getConfig().getString("persistence.fsync"), FsyncPolicy.INTERVAL),
+      getConfig().getLong("persistence.fsync-interval-ms", 1000L),
+      getLogger()
+    );
+    try {
+      long start = System.nanoTime();
+      int restored = abilityManager.restoreCooldowns(
+        journal,
+        new File(getDataFolder(), "cooldown-slots.properties").toPath()
+      );
+      journal.start(TimeUnit.MINUTES.toMillis(
+        getConfig().getLong("persistence.compaction-interval-minutes", 10L)
+      ));
+      cooldownJournal = journal;
+      getLogger().info("Restored " + restored + " cooldowns in "
+        + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+    } catch (IOException e) {
+      getLogger().log(Level.WARNING, "Could not open cooldown journal, cooldowns will not persist", e);
+      journal.close();
+    }
+  }
+
+  /**
+   * Share cooldowns with the other servers of a proxy network through a
+   * shared directory, if enabled in the config.
+   */
+  private void openCooldownSync() {
+    if (!getConfig().getBoolean("sync.enabled", false)) {
+      return;
+    }
+
+    String directory = getConfig().getString("sync.directory", "");
+    if (directory == null || directory.isBlank()) {
+      getLogger().warning("Cooldown sync is enabled but sync.directory is not set");
+      return;
+    }
+    String serverId = getConfig().getString("sync.server-id", "");
+    if (serverId == null || serverId.isBlank()) {
+      serverId = "server-" + getServer().getPort();
+    }
+
+    try {
+      CooldownSync sync = new CooldownSync(
+        new FileCooldownSyncBackend(new File(directory).toPath(), serverId),
+        getConfig().getLong("sync.interval-ms", 250L),
+        TimeUnit.MINUTES.toMillis(getConfig().getLong("sync.compaction-interval-minutes", 10L)),
+        getLogger()
+      );
+      abilityManager.attachSync(sync);
+      sync.start();
+      cooldownSync = sync;
+      getLogger().info("Sharing cooldowns as " + serverId + " through " + directory);
+    } catch (IOException e) {
+      getLogger().log(Level.WARNING, "Could not open cooldown sync directory, cooldowns stay local", e);
+    }
+  }
+
   /**
    * Register plugin commands.
    */
@@ -67,6 +204,26 @@ public class DragonEggLightningPlugin extends JavaPlugin {
     return hudManager;
   }
 
+  public DragonEggHolderIndex getHolderIndex() {
+    return holderIndex;
+  }
+
+  public LivingEntityIndex getEntityIndex() {
+    return entityIndex;
+  }
+
+  public ActiveCastIndex getCastIndex() {
+    return castIndex;
+  }
+
+  public StrikeEngine getStrikeEngine() {
+    return strikeEngine;
+  }
+
+  public EffectQualityGovernor getEffectGovernor() {
+    return effectGovernor;
+  }
+
   /**
    * Send plugin info to player
    */
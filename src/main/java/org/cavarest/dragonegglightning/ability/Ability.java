@@ -1,9 +1,14 @@
 package org.cavarest.dragonegglightning.ability;
 
+import org.bukkit.Material;
 import org.bukkit.entity.Player;
 
+import java.util.Collection;
+import java.util.List;
+
 /**
- * Interface for all abilities.
+ * Interface for all abilities. Other plugins can implement it and register
+ * their abilities through {@link org.cavarest.dragonegglightning.api.AbilityService}.
  */
 public interface Ability {
 
@@ -15,6 +20,19 @@ public interface Ability {
    */
   boolean execute(Player player);
 
+  /**
+   * Run the ability for a cast admitted by
+   * {@link AbilityManager#tryCast(Player, Ability)}, which has already
+   * checked the required item and the cooldown. Abilities that can tell
+   * why they did not run should override this to report it.
+   *
+   * @param player The player using the ability
+   * @return {@link CastResult#OK} if the ability ran, otherwise why not
+   */
+  default CastResult perform(Player player) {
+    return execute(player) ? CastResult.OK : CastResult.FAILED;
+  }
+
   /**
    * Check if the player has the required item for this ability.
    *
@@ -23,6 +41,31 @@ public interface Ability {
    */
   boolean hasRequiredItem(Player player);
 
+  /**
+   * Check if the HUD should show this ability to the player. Unlike
+   * {@link #hasRequiredItem}, which decides casts, this may answer from
+   * an index that lags behind the inventory, and indexed abilities must
+   * not read the inventory here. Defaults to {@link #hasRequiredItem}.
+   *
+   * @param player The player
+   * @return true if the player is shown as having the required item
+   */
+  default boolean isRequiredItemShown(Player player) {
+    return hasRequiredItem(player);
+  }
+
+  /**
+   * Check whether {@link #isRequiredItemShown} is answered from the
+   * {@link DragonEggHolderIndex} rather than the player's inventory. The
+   * HUD only runs for indexed holders while every registered ability is
+   * indexed.
+   *
+   * @return true if the required item is the indexed Dragon Egg
+   */
+  default boolean isRequiredItemIndexed() {
+    return false;
+  }
+
   /**
    * Get the cooldown time in milliseconds.
    *
@@ -36,4 +79,44 @@ public interface Ability {
    * @return The ability name
    */
   String getName();
+
+  /**
+   * Get the short label shown for this ability in the HUD.
+   *
+   * @return The HUD label
+   */
+  default String getHudLabel() {
+    return getName();
+  }
+
+  /**
+   * Get the item whose client-side cooldown overlay shows this ability's
+   * cooldown in the item-cooldown HUD.
+   *
+   * @return The item, or null to leave the ability out of that HUD
+   */
+  default Material getCooldownItem() {
+    return null;
+  }
+
+  /**
+   * Get the message shown when a player tries to use this ability without
+   * the required item.
+   *
+   * @return The message
+   */
+  default String getMissingItemMessage() {
+    return "You do not have the required item to use " + getName() + "!";
+  }
+
+  /**
+   * Get the shared cooldown groups this ability belongs to. Using the
+   * ability puts every group on cooldown, and the ability stays unusable
+   * while any of its groups is cooling down.
+   *
+   * @return The group names, empty if the ability only has its own cooldown
+   */
+  default Collection<String> getCooldownGroups() {
+    return List.of();
+  }
 }
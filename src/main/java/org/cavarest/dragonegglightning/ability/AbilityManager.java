@@ -1,46 +1,183 @@
 package org.cavarest.dragonegglightning.ability;
 
 import org.cavarest.dragonegglightning.DragonEggLightningPlugin;
+import org.cavarest.dragonegglightning.api.AbilityService;
+import org.cavarest.dragonegglightning.cooldown.CooldownClock;
+import org.cavarest.dragonegglightning.cooldown.CooldownDelta;
+import org.cavarest.dragonegglightning.cooldown.CooldownJournal;
+import org.cavarest.dragonegglightning.cooldown.CooldownSlotNames;
+import org.cavarest.dragonegglightning.cooldown.CooldownStore;
+import org.cavarest.dragonegglightning.cooldown.CooldownSync;
+import org.cavarest.dragonegglightning.cooldown.CooldownWheel;
+import org.cavarest.dragonegglightning.cooldown.PrimitiveCooldownStore;
+import org.cavarest.dragonegglightning.cooldown.ServerTickClock;
+import org.cavarest.dragonegglightning.cooldown.StripedCooldownStore;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import org.bukkit.event.entity.PlayerDeathEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerRespawnEvent;
+import org.bukkit.event.server.PluginDisableEvent;
+import org.bukkit.plugin.Plugin;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.logging.Level;
 
 /**
- * Manages player abilities and cooldowns.
+ * Manages player abilities and cooldowns. Also serves as the
+ * {@link AbilityService} other plugins use to contribute abilities.
+ *
+ * Cooldown queries and updates are safe from any region thread on Folia:
+ * the store is lock-striped and the expiry wheel has its own lock. The
+ * wheel is advanced by the global region scheduler, which is the main
+ * thread on plain Paper. Abilities are registered during startup only.
+ *
+ * Cooldowns are measured in ticks of a {@link CooldownClock}; only the
+ * journal and the cross-server sync see wall-clock time, converted when
+ * changes leave or enter the manager. Cooldown checks always read the
+ * local store; changes from other servers are applied once per tick.
+ * Both identify a cooldown slot by its key rather than its number, since
+ * numbers follow registration order. With a sync attached, the manager
+ * also remembers when each cooldown last changed, and a change from
+ * another server only applies if it is newer.
  */
-public class AbilityManager implements Listener {
+public class AbilityManager implements Listener, AbilityService {
+
+  /**
+   * Returned by {@link #getReadyInTicks} when the player lacks the
+   * required item.
+   */
+  public static final long MISSING_ITEM_TICKS = -1L;
 
   private static final int DEFAULT_COOLDOWN_SECONDS = 60;
+  private static final int MAX_UNMATCHED_REMOTE = 4096;
 
   private final DragonEggLightningPlugin plugin;
-  private final Map<UUID, Ability> abilities;
-  private final Map<UUID, Long> cooldowns;
+  private final AbilityRegistry registry;
+  private final Map<Integer, Plugin> abilityOwners = new HashMap<>();
+  private final CooldownClock clock;
+  private final ServerTickClock serverClock;
+  private final CooldownStore cooldowns;
+  private final CooldownStore changeTimes = new StripedCooldownStore();
+  private final CooldownStore clearedUntil = new StripedCooldownStore();
+  private final CooldownWheel cooldownWheel;
+  private final CooldownWheel.ExpiryHandler expiryHandler = this::onCooldownExpired;
+  private final Consumer<CooldownDelta> remoteHandler = this::applyRemoteCooldown;
+  private final List<AbilityReadyListener> readyListeners = new CopyOnWriteArrayList<>();
+  private final List<CooldownDelta> unmatchedRemote = new ArrayList<>();
+  private int unmatchedConfigVersion;
+  private Path slotNamesFile;
+  private Map<String, Integer> savedSlotKeys = Map.of();
+  private ScheduledTask expiryTask;
+  private volatile CooldownJournal journal;
+  private volatile CooldownSync sync;
+  private long expiryNowTick;
   private int globalCooldownSeconds = DEFAULT_COOLDOWN_SECONDS;
+  private volatile int cooldownConfigVersion;
 
   public AbilityManager(DragonEggLightningPlugin plugin) {
+    this(plugin, new ServerTickClock());
+  }
+
+  /**
+   * Create a manager driven by the given clock. A {@link ServerTickClock}
+   * is started and stopped with the manager; other clocks are advanced by
+   * the caller.
+   *
+   * @param plugin The plugin, or null in tests
+   * @param clock The cooldown clock
+   */
+  public AbilityManager(DragonEggLightningPlugin plugin, CooldownClock clock) {
     this.plugin = plugin;
-    this.abilities = new HashMap<>();
-    this.cooldowns = new HashMap<>();
+    this.clock = clock;
+    this.serverClock = clock instanceof ServerTickClock tickClock ? tickClock : null;
+    this.registry = new AbilityRegistry();
+    this.cooldowns = new StripedCooldownStore();
+    this.cooldownWheel = new CooldownWheel(clock.currentTick());
 
     registerAbilities();
     registerEventListeners();
+    startExpiryTask();
   }
 
   /**
    * Register available abilities.
    */
   private void registerAbilities() {
-    abilities.put(
-      UUID.fromString("00000000-0000-0000-0000-000000000001"),
-      new LightningAbility(plugin)
-    );
+    registry.register(new LightningAbility(plugin));
+  }
+
+  /**
+   * Register an ability contributed by another plugin. It shares the
+   * cooldown store, the HUD loop and the {@code /ability} command with the
+   * built-in abilities.
+   *
+   * @param owner The plugin contributing the ability
+   * @param ability The ability
+   * @return The ability id
+   */
+  @Override
+  public int registerAbility(Plugin owner, Ability ability) {
+    if (owner == null || ability == null) {
+      throw new IllegalArgumentException("Owner and ability must not be null");
+    }
+    int id = registry.register(ability);
+    abilityOwners.put(id, owner);
+    cooldownConfigVersion++;
+    saveSlotNames();
+    if (plugin != null) {
+      plugin.getLogger().info("Registered ability " + id + " (" + ability.getName()
+        + ") from " + owner.getName());
+    }
+    return id;
+  }
+
+  /**
+   * Unregister every ability contributed by a plugin. Running cooldowns
+   * are kept, so they still apply if the plugin registers the abilities
+   * again.
+   *
+   * @param owner The plugin
+   * @return The number of abilities removed
+   */
+  @Override
+  public int unregisterAbilities(Plugin owner) {
+    int removed = 0;
+    for (int id = 1; id <= registry.getMaxId(); id++) {
+      if (abilityOwners.get(id) == owner && registry.unregister(id) != null) {
+        abilityOwners.remove(id);
+        removed++;
+      }
+    }
+    if (removed > 0) {
+      cooldownConfigVersion++;
+    }
+    return removed;
+  }
+
+  /**
+   * Drop the abilities of a plugin that is being disabled, so the
+   * registry never calls into unloaded classes.
+   *
+   * @param event The plugin disable event
+   */
+  @EventHandler
+  public void onPluginDisable(PluginDisableEvent event) {
+    if (event.getPlugin() != plugin) {
+      unregisterAbilities(event.getPlugin());
+    }
   }
 
   /**
@@ -53,66 +190,679 @@ public class AbilityManager implements Listener {
     }
   }
 
+  /**
+   * Advance the cooldown wheel once per server tick.
+   * Only scheduled if plugin is not null (handles testing scenarios).
+   */
+  private void startExpiryTask() {
+    if (plugin != null && plugin.getServer() != null) {
+      if (serverClock != null) {
+        // Scheduled first, so the clock moves before expiry runs each tick
+        serverClock.start(plugin);
+      }
+      expiryTask = plugin.getServer().getGlobalRegionScheduler().runAtFixedRate(
+        plugin,
+        task -> {
+          applyRemoteCooldowns();
+          processExpiredCooldowns();
+        },
+        1L,
+        1L
+      );
+    }
+  }
+
+  /**
+   * Stop the cooldown expiry task.
+   */
+  public void shutdown() {
+    if (expiryTask != null) {
+      expiryTask.cancel();
+      expiryTask = null;
+    }
+    if (serverClock != null) {
+      serverClock.stop();
+    }
+  }
+
+  /**
+   * Restore cooldowns saved in a journal and record every later change to
+   * it, so cooldowns survive restarts and reloads. Slots are taken as
+   * they are, as in journals written before slots were named.
+   *
+   * @param journal The journal to replay and append to
+   * @return The number of cooldowns restored
+   * @throws IOException If the journal cannot be read
+   */
+  public int restoreCooldowns(CooldownJournal journal) throws IOException {
+    return restoreCooldowns(journal, null);
+  }
+
+  /**
+   * Restore cooldowns saved in a journal and record every later change to
+   * it. The slot names file says which ability or group each journaled
+   * slot belonged to: restored cooldowns move to that key's current slot,
+   * and slots of abilities that have not registered yet are reserved for
+   * them. The file is rewritten whenever slots change.
+   *
+   * @param journal The journal to replay and append to
+   * @param slotNamesFile The file naming each slot, or null to take slots as they are
+   * @return The number of cooldowns restored
+   * @throws IOException If the journal cannot be read
+   */
+  public int restoreCooldowns(CooldownJournal journal, Path slotNamesFile) throws IOException {
+    String[] savedKeys = new String[AbilityRegistry.MAX_COOLDOWN_SLOTS];
+    boolean named = false;
+    if (slotNamesFile != null) {
+      for (Map.Entry<String, Integer> entry : CooldownSlotNames.load(slotNamesFile).entrySet()) {
+        int slot = entry.getValue();
+        if (slot >= 0 && slot < AbilityRegistry.MAX_COOLDOWN_SLOTS) {
+          savedKeys[slot] = entry.getKey();
+          named = true;
+        }
+      }
+    }
+
+    // Abilities from other plugins register after this runs, so their
+    // slots are reserved by key; reservations nobody claims simply expire
+    boolean translate = named;
+    int[] currentSlots = new int[AbilityRegistry.MAX_COOLDOWN_SLOTS];
+    Arrays.fill(currentSlots, Integer.MIN_VALUE);
+    long nowMillis = System.currentTimeMillis();
+    long nowTick = clock.currentTick();
+    int restored = journal.replay(nowMillis, (msb, lsb, savedSlot, expiryMillis) -> {
+      if (savedSlot < 0 || savedSlot >= AbilityRegistry.MAX_COOLDOWN_SLOTS) {
+        return;
+      }
+      int slot = savedSlot;
+      if (translate) {
+        if (currentSlots[savedSlot] == Integer.MIN_VALUE) {
+          String key = savedKeys[savedSlot];
+          currentSlots[savedSlot] = key == null ? -1 : registry.reserveSlot(key, savedSlot);
+        }
+        slot = currentSlots[savedSlot];
+        if (slot < 0) {
+          return;
+        }
+      }
+      long cooldownEnd = nowTick + CooldownClock.millisToTicks(expiryMillis - nowMillis);
+      cooldowns.put(msb, lsb, slot, cooldownEnd);
+      scheduleExpiry(msb, lsb, slot, cooldownEnd);
+    });
+    this.journal = journal;
+    this.slotNamesFile = slotNamesFile;
+    saveSlotNames();
+    return restored;
+  }
+
+  /**
+   * Write the key of every slot next to the journal if it changed.
+   */
+  private void saveSlotNames() {
+    if (slotNamesFile == null) {
+      return;
+    }
+    Map<String, Integer> slotKeys = registry.getSlotKeys();
+    if (slotKeys.equals(savedSlotKeys)) {
+      return;
+    }
+    try {
+      CooldownSlotNames.save(slotNamesFile, slotKeys);
+      savedSlotKeys = slotKeys;
+    } catch (IOException e) {
+      if (plugin != null) {
+        plugin.getLogger().log(Level.WARNING, "Could not save cooldown slot names to " + slotNamesFile, e);
+      }
+    }
+  }
+
+  /**
+   * Share cooldowns with other servers through a sync. Every later local
+   * change is published to it, and changes it receives are applied by
+   * {@link #applyRemoteCooldowns()}.
+   *
+   * @param sync The cooldown sync
+   */
+  public void attachSync(CooldownSync sync) {
+    this.sync = sync;
+  }
+
+  /**
+   * Apply the cooldown changes received from other servers. Runs every
+   * tick; public for testing.
+   *
+   * @return The number of changes received
+   */
+  public int applyRemoteCooldowns() {
+    CooldownSync currentSync = sync;
+    if (currentSync == null) {
+      return 0;
+    }
+    if (!unmatchedRemote.isEmpty() && unmatchedConfigVersion != cooldownConfigVersion) {
+      // Abilities registered since; their slots may match now
+      List<CooldownDelta> retry = new ArrayList<>(unmatchedRemote);
+      unmatchedRemote.clear();
+      retry.forEach(remoteHandler);
+    }
+    unmatchedConfigVersion = cooldownConfigVersion;
+    return currentSync.drainRemote(remoteHandler);
+  }
+
+  /**
+   * Apply one change from another server if it is newer than the last
+   * change applied to the same cooldown, so changes replayed after a
+   * restart never undo a later one. A clear, or a cooldown that has
+   * already ended, is remembered until its expiry so older cooldowns
+   * still in flight stay cleared. Applied changes are journaled but not
+   * published again. Changes for a slot key this server does not know
+   * yet are kept until more abilities register.
+   */
+  private void applyRemoteCooldown(CooldownDelta delta) {
+    long nowMillis = System.currentTimeMillis();
+    int slot = registry.getSlotByKeyHash(delta.slotKey());
+    if (slot < 0) {
+      // Changes that have ended can no longer outrank anything
+      if (delta.expiryMillis() > nowMillis && unmatchedRemote.size() < MAX_UNMATCHED_REMOTE) {
+        unmatchedRemote.add(delta);
+      }
+      return;
+    }
+    long msb = delta.mostSigBits();
+    long lsb = delta.leastSigBits();
+    if (delta.changedMillis() <= changeTimes.get(msb, lsb, slot)) {
+      return;
+    }
+    changeTimes.put(msb, lsb, slot, delta.changedMillis());
+
+    CooldownJournal currentJournal = journal;
+    long remainingMillis = Math.max(0L, delta.expiryMillis() - nowMillis);
+    long cooldownEnd = clock.currentTick() + CooldownClock.millisToTicks(remainingMillis);
+    if (delta.isClear() || remainingMillis == 0) {
+      clearedUntil.put(msb, lsb, slot, cooldownEnd);
+      scheduleExpiry(msb, lsb, slot, cooldownEnd);
+      if (cooldowns.remove(msb, lsb, slot) && currentJournal != null) {
+        currentJournal.appendClear(msb, lsb, slot);
+      }
+      return;
+    }
+
+    clearedUntil.remove(msb, lsb, slot);
+    cooldowns.put(msb, lsb, slot, cooldownEnd);
+    scheduleExpiry(msb, lsb, slot, cooldownEnd);
+    if (currentJournal != null) {
+      currentJournal.append(msb, lsb, slot, delta.expiryMillis());
+    }
+  }
+
+  /**
+   * Register a listener notified when an ability's cooldown expires.
+   *
+   * @param listener The listener
+   */
+  public void addReadyListener(AbilityReadyListener listener) {
+    readyListeners.add(listener);
+  }
+
+  /**
+   * Evict every cooldown that has expired by the clock's current tick and
+   * notify ready listeners. Runs every tick; public for testing.
+   */
+  public void processExpiredCooldowns() {
+    synchronized (cooldownWheel) {
+      expiryNowTick = clock.currentTick();
+      cooldownWheel.advance(expiryNowTick, expiryHandler);
+    }
+  }
+
+  /**
+   * Get the clock cooldowns are measured with.
+   *
+   * @return The cooldown clock
+   */
+  public CooldownClock getClock() {
+    return clock;
+  }
+
+  /**
+   * Get the number of stored cooldown entries.
+   *
+   * @return The number of (player, cooldown slot) entries stored
+   */
+  public int getTrackedCooldownCount() {
+    return cooldowns.size();
+  }
+
+  /**
+   * Get the registry of abilities and their cooldown slots.
+   *
+   * @return The ability registry
+   */
+  public AbilityRegistry getRegistry() {
+    return registry;
+  }
+
+  /**
+   * Handle a wheel entry reaching its deadline. Entries superseded by a
+   * later cooldown or cleared in the meantime are ignored; the entry is
+   * only removed if it still holds the expiry read here, so a recast on
+   * another region thread in between keeps its new cooldown. Listeners hear
+   * about every ability that uses the slot and has no other cooldown still
+   * running.
+   */
+  private void onCooldownExpired(long msb, long lsb, int slot, long deadlineTick) {
+    long cooldownEnd = cooldowns.get(msb, lsb, slot);
+    if (cooldownEnd > expiryNowTick) {
+      return;
+    }
+    if (cooldownEnd == CooldownStore.NONE) {
+      forgetChange(msb, lsb, slot);
+      return;
+    }
+
+    if (!cooldowns.removeIfEquals(msb, lsb, slot, cooldownEnd)) {
+      return;
+    }
+    forgetChange(msb, lsb, slot);
+    if (readyListeners.isEmpty()) {
+      return;
+    }
+    long slotBit = 1L << slot;
+    UUID playerId = null;
+    for (int id = 1; id <= registry.getMaxId(); id++) {
+      long mask = registry.getCooldownMask(id);
+      if ((mask & slotBit) == 0 || cooldownEnd(msb, lsb, mask) > expiryNowTick) {
+        continue;
+      }
+      if (playerId == null) {
+        playerId = new UUID(msb, lsb);
+      }
+      Ability ability = registry.get(id);
+      for (AbilityReadyListener listener : readyListeners) {
+        listener.onAbilityReady(playerId, ability);
+      }
+    }
+  }
+
+  /**
+   * Drop the change time of a cooldown that has ended, unless a clear
+   * must still be remembered. Expiry thread only.
+   */
+  private void forgetChange(long msb, long lsb, int slot) {
+    long keepUntil = clearedUntil.get(msb, lsb, slot);
+    if (keepUntil > expiryNowTick) {
+      return;
+    }
+    if (keepUntil != CooldownStore.NONE) {
+      clearedUntil.removeIfEquals(msb, lsb, slot, keepUntil);
+    }
+    long changed = changeTimes.get(msb, lsb, slot);
+    if (changed != CooldownStore.NONE) {
+      changeTimes.removeIfEquals(msb, lsb, slot, changed);
+    }
+  }
+
+  /**
+   * Get the time to record for a local change of a cooldown: now, but
+   * always after the change it replaces.
+   */
+  private long nextChangeMillis(long msb, long lsb, int slot) {
+    return Math.max(System.currentTimeMillis(), changeTimes.get(msb, lsb, slot) + 1);
+  }
+
+  /**
+   * Get the cooldown mask for an ability. Abilities that were never
+   * registered are gated by every slot.
+   */
+  private long cooldownMask(Ability ability) {
+    int id = registry.getId(ability);
+    return id == 0 ? registry.getAllSlotsMask() : registry.getCooldownMask(id);
+  }
+
+  /**
+   * Get the latest expiry across the slots of a mask.
+   */
+  private long cooldownEnd(long msb, long lsb, long mask) {
+    long end = CooldownStore.NONE;
+    for (long bits = mask; bits != 0; bits &= bits - 1) {
+      end = Math.max(end, cooldowns.get(msb, lsb, Long.numberOfTrailingZeros(bits)));
+    }
+    return end;
+  }
+
+  /**
+   * Store a cooldown of the given length in every slot of a mask and
+   * schedule its expiry.
+   */
+  private void startCooldown(UUID playerId, long mask, long durationTicks) {
+    startCooldown(
+      playerId.getMostSignificantBits(),
+      playerId.getLeastSignificantBits(),
+      mask,
+      durationTicks
+    );
+  }
+
+  private void startCooldown(long msb, long lsb, long mask, long durationTicks) {
+    long cooldownEnd = clock.currentTick() + durationTicks;
+    CooldownJournal currentJournal = journal;
+    CooldownSync currentSync = sync;
+    long expiryMillis = currentJournal == null && currentSync == null ? 0L
+      : System.currentTimeMillis() + durationTicks * CooldownClock.MILLIS_PER_TICK;
+    for (long bits = mask; bits != 0; bits &= bits - 1) {
+      int slot = Long.numberOfTrailingZeros(bits);
+      cooldowns.put(msb, lsb, slot, cooldownEnd);
+      scheduleExpiry(msb, lsb, slot, cooldownEnd);
+      if (currentJournal != null) {
+        currentJournal.append(msb, lsb, slot, expiryMillis);
+      }
+      if (currentSync != null) {
+        long changedMillis = nextChangeMillis(msb, lsb, slot);
+        changeTimes.put(msb, lsb, slot, changedMillis);
+        clearedUntil.remove(msb, lsb, slot);
+        currentSync.publish(msb, lsb, registry.getSlotKeyHash(slot), expiryMillis, changedMillis);
+      }
+    }
+  }
+
+  /**
+   * Remove the stored cooldowns in every slot of a mask.
+   */
+  private void removeCooldown(UUID playerId, long mask) {
+    long msb = playerId.getMostSignificantBits();
+    long lsb = playerId.getLeastSignificantBits();
+    for (long bits = mask; bits != 0; bits &= bits - 1) {
+      removeEntry(msb, lsb, Long.numberOfTrailingZeros(bits));
+    }
+  }
+
+  /**
+   * Remove one stored cooldown and record the change.
+   */
+  private boolean removeEntry(long msb, long lsb, int slot) {
+    long cooldownEnd = cooldowns.get(msb, lsb, slot);
+    if (cooldownEnd == CooldownStore.NONE || !cooldowns.removeIfEquals(msb, lsb, slot, cooldownEnd)) {
+      return false;
+    }
+    CooldownJournal currentJournal = journal;
+    if (currentJournal != null) {
+      currentJournal.appendClear(msb, lsb, slot);
+    }
+    CooldownSync currentSync = sync;
+    if (currentSync != null) {
+      // Remembered until the cooldown would have ended; its wheel entry
+      // is still scheduled then
+      long changedMillis = nextChangeMillis(msb, lsb, slot);
+      changeTimes.put(msb, lsb, slot, changedMillis);
+      clearedUntil.put(msb, lsb, slot, cooldownEnd);
+      long remainingTicks = Math.max(0L, cooldownEnd - clock.currentTick());
+      long keepUntilMillis = System.currentTimeMillis() + remainingTicks * CooldownClock.MILLIS_PER_TICK;
+      currentSync.publishClear(msb, lsb, registry.getSlotKeyHash(slot), keepUntilMillis, changedMillis);
+    }
+    return true;
+  }
+
+  /**
+   * Build a membership set of players, keyed like the cooldown store so
+   * entries can be matched without allocating a UUID each.
+   */
+  private static CooldownStore playerSet(Collection<UUID> playerIds) {
+    CooldownStore set = new PrimitiveCooldownStore(playerIds.size());
+    for (UUID playerId : playerIds) {
+      set.put(playerId, 0, 1L);
+    }
+    return set;
+  }
+
+  /**
+   * Collect the keys of stored entries, optionally only those of the given
+   * players. Keys are collected first because the store cannot be
+   * modified while it is visited.
+   */
+  private long[] collectEntries(CooldownStore players) {
+    KeyCollector collector = new KeyCollector(players);
+    cooldowns.forEach(collector);
+    return Arrays.copyOf(collector.keys, collector.size);
+  }
+
+  /**
+   * Packs visited entry keys as (msb, lsb, slot) triples.
+   */
+  private static final class KeyCollector implements CooldownStore.EntryVisitor {
+
+    private final CooldownStore players;
+    private long[] keys = new long[3 * 64];
+    private int size;
+
+    KeyCollector(CooldownStore players) {
+      this.players = players;
+    }
+
+    @Override
+    public void visit(long msb, long lsb, int slot, long expiry) {
+      if (players != null && players.get(msb, lsb, 0) == CooldownStore.NONE) {
+        return;
+      }
+      if (size + 3 > keys.length) {
+        keys = Arrays.copyOf(keys, keys.length * 2);
+      }
+      keys[size++] = msb;
+      keys[size++] = lsb;
+      keys[size++] = slot;
+    }
+  }
+
+  /**
+   * Clear every cooldown of many players in one pass over the store.
+   *
+   * @param playerIds The players, or null for every stored entry
+   * @return The number of cooldown entries cleared
+   */
+  public int clearCooldowns(Collection<UUID> playerIds) {
+    long[] keys = collectEntries(playerIds == null ? null : playerSet(playerIds));
+    int cleared = 0;
+    for (int i = 0; i < keys.length; i += 3) {
+      if (removeEntry(keys[i], keys[i + 1], (int) keys[i + 2])) {
+        cleared++;
+      }
+    }
+    return cleared;
+  }
+
+  /**
+   * Set the cooldown of every ability for many players.
+   *
+   * @param playerIds The players, or null for every player with a stored entry
+   * @param cooldownSeconds Cooldown in seconds
+   * @return The number of players updated
+   */
+  public int setCooldowns(Collection<UUID> playerIds, int cooldownSeconds) {
+    long mask = registry.getAllSlotsMask();
+    long durationTicks = CooldownClock.secondsToTicks(cooldownSeconds);
+    if (playerIds != null) {
+      for (UUID playerId : playerIds) {
+        startCooldown(playerId, mask, durationTicks);
+      }
+      return playerIds.size();
+    }
+
+    // Every stored player, each once however many slots they use
+    long[] keys = collectEntries(null);
+    CooldownStore seen = new PrimitiveCooldownStore();
+    int updated = 0;
+    for (int i = 0; i < keys.length; i += 3) {
+      if (seen.get(keys[i], keys[i + 1], 0) == CooldownStore.NONE) {
+        seen.put(keys[i], keys[i + 1], 0, 1L);
+        startCooldown(keys[i], keys[i + 1], mask, durationTicks);
+        updated++;
+      }
+    }
+    return updated;
+  }
+
+  /**
+   * Count players with a running cooldown in one pass over the store.
+   *
+   * @param playerIds The players, or null for every stored player
+   * @return The number of distinct players with at least one running cooldown
+   */
+  public int countPlayersOnCooldown(Collection<UUID> playerIds) {
+    CooldownStore players = playerIds == null ? null : playerSet(playerIds);
+    CooldownStore counted = new PrimitiveCooldownStore();
+    long now = clock.currentTick();
+    cooldowns.forEach((msb, lsb, slot, expiry) -> {
+      if (expiry > now && (players == null || players.get(msb, lsb, 0) != CooldownStore.NONE)) {
+        counted.put(msb, lsb, 0, 1L);
+      }
+    });
+    return counted.size();
+  }
+
+  private void scheduleExpiry(long msb, long lsb, int slot, long cooldownEnd) {
+    synchronized (cooldownWheel) {
+      cooldownWheel.schedule(msb, lsb, slot, cooldownEnd);
+    }
+  }
+
+  private int toSeconds(long cooldownEnd) {
+    // Expired entries are evicted by the cooldown wheel
+    long remaining = cooldownEnd - clock.currentTick();
+    if (remaining <= 0) {
+      return 0;
+    }
+    return CooldownClock.ticksToSeconds(remaining);
+  }
+
   /**
    * Get ability by ID.
    *
    * @param abilityId The ability ID (1, 2, etc.)
    * @return The ability or null if not found
    */
+  @Override
   public Ability getAbility(int abilityId) {
-    UUID abilityUuid = UUID.fromString(
-      String.format("00000000-0000-0000-0000-%012d", abilityId)
-    );
-    return abilities.get(abilityUuid);
+    return registry.get(abilityId);
   }
 
   /**
-   * Check if player can use an ability.
+   * Check whether a player could cast an ability right now, without
+   * running it. Reads the required item once and each cooldown slot once.
    *
    * @param player The player
    * @param ability The ability
-   * @return true if the ability can be used
+   * @return {@link CastResult#OK}, or why the cast would be refused
    */
-  public boolean canUseAbility(Player player, Ability ability) {
+  public CastResult checkCast(Player player, Ability ability) {
     if (player == null || ability == null) {
-      return false;
+      return CastResult.FAILED;
     }
     if (!ability.hasRequiredItem(player)) {
-      return false;
+      return CastResult.MISSING_ITEM;
     }
+    UUID playerId = player.getUniqueId();
+    long remaining = cooldownEnd(
+      playerId.getMostSignificantBits(),
+      playerId.getLeastSignificantBits(),
+      cooldownMask(ability)
+    ) - clock.currentTick();
+    return remaining > 0 ? CastResult.onCooldown(remaining) : CastResult.OK;
+  }
 
-    Long cooldownEnd = cooldowns.get(player.getUniqueId());
-    if (cooldownEnd == null) {
-      return true;
+  /**
+   * Allocation-free form of {@link #checkCast} for code that runs every
+   * tick, such as the HUD. Takes the ability id, so no registry scan is
+   * needed either. The item is checked with
+   * {@link Ability#isRequiredItemShown}, so the answer may lag a cast
+   * check by a moment.
+   *
+   * @param player The player
+   * @param abilityId The ability id
+   * @return {@link #MISSING_ITEM_TICKS} if the player is not shown the
+   *     required item or the id is unknown, 0 when ready, otherwise ticks
+   *     until ready
+   */
+  public long getReadyInTicks(Player player, int abilityId) {
+    Ability ability = registry.get(abilityId);
+    if (player == null || ability == null || !ability.isRequiredItemShown(player)) {
+      return MISSING_ITEM_TICKS;
     }
+    UUID playerId = player.getUniqueId();
+    long remaining = cooldownEnd(
+      playerId.getMostSignificantBits(),
+      playerId.getLeastSignificantBits(),
+      registry.getCooldownMask(abilityId)
+    ) - clock.currentTick();
+    return Math.max(0L, remaining);
+  }
 
-    return System.currentTimeMillis() >= cooldownEnd;
+  /**
+   * Get a counter that changes whenever abilities are registered or
+   * unregistered or the global cooldown changes, so caches derived from
+   * the cooldown configuration know when to rebuild.
+   *
+   * @return The configuration version
+   */
+  public int getCooldownConfigVersion() {
+    return cooldownConfigVersion;
   }
 
   /**
-   * Use an ability.
+   * Cast an ability: check the required item and cooldown, run the
+   * ability and start its cooldown if it ran. Each check is made once, and
+   * the ability itself does not repeat them.
    *
    * @param player The player
    * @param ability The ability
-   * @return true if the ability was successfully used
+   * @return {@link CastResult#OK} if the ability ran, otherwise why not
    */
-  public boolean useAbility(Player player, Ability ability) {
-    if (!canUseAbility(player, ability)) {
-      return false;
+  public CastResult tryCast(Player player, Ability ability) {
+    if (player == null || ability == null) {
+      return CastResult.FAILED;
+    }
+    if (!ability.hasRequiredItem(player)) {
+      return CastResult.MISSING_ITEM;
+    }
+    UUID playerId = player.getUniqueId();
+    long mask = cooldownMask(ability);
+    long remaining = cooldownEnd(
+      playerId.getMostSignificantBits(),
+      playerId.getLeastSignificantBits(),
+      mask
+    ) - clock.currentTick();
+    if (remaining > 0) {
+      return CastResult.onCooldown(remaining);
     }
 
-    boolean success = ability.execute(player);
-    if (success) {
-      long cooldownEnd = System.currentTimeMillis() +
-        ability.getCooldownMillis();
-      cooldowns.put(player.getUniqueId(), cooldownEnd);
+    CastResult result = ability.perform(player);
+    if (result.isSuccess()) {
+      startCooldown(playerId, mask, CooldownClock.millisToTicks(ability.getCooldownMillis()));
     }
+    return result;
+  }
 
-    return success;
+  /**
+   * Check if player can use an ability.
+   *
+   * @param player The player
+   * @param ability The ability
+   * @return true if the ability can be used
+   */
+  public boolean canUseAbility(Player player, Ability ability) {
+    return checkCast(player, ability).isSuccess();
   }
 
   /**
-   * Get remaining cooldown in seconds.
+   * Use an ability.
+   *
+   * @param player The player
+   * @param ability The ability
+   * @return true if the ability was successfully used
+   */
+  public boolean useAbility(Player player, Ability ability) {
+    return tryCast(player, ability).isSuccess();
+  }
+
+  /**
+   * Get the longest remaining cooldown across all abilities, in seconds.
    *
    * @param player The player
    * @return Remaining cooldown in seconds, or 0 if no cooldown
@@ -121,22 +871,37 @@ public class AbilityManager implements Listener {
     if (player == null) {
       return 0;
     }
-    Long cooldownEnd = cooldowns.get(player.getUniqueId());
-    if (cooldownEnd == null) {
-      return 0;
-    }
+    UUID playerId = player.getUniqueId();
+    return toSeconds(cooldownEnd(
+      playerId.getMostSignificantBits(),
+      playerId.getLeastSignificantBits(),
+      registry.getAllSlotsMask()
+    ));
+  }
 
-    long remaining = cooldownEnd - System.currentTimeMillis();
-    if (remaining <= 0) {
-      cooldowns.remove(player.getUniqueId());
+  /**
+   * Get the remaining cooldown of one ability in seconds, including any
+   * shared cooldown group it belongs to.
+   *
+   * @param player The player
+   * @param ability The ability
+   * @return Remaining cooldown in seconds, or 0 if no cooldown
+   */
+  @Override
+  public int getRemainingCooldown(Player player, Ability ability) {
+    if (player == null || ability == null) {
       return 0;
     }
-
-    return (int) Math.ceil(remaining / 1000.0);
+    UUID playerId = player.getUniqueId();
+    return toSeconds(cooldownEnd(
+      playerId.getMostSignificantBits(),
+      playerId.getLeastSignificantBits(),
+      cooldownMask(ability)
+    ));
   }
 
   /**
-   * Check if player is on cooldown.
+   * Check if player has any ability on cooldown.
    *
    * @param player The player
    * @return true if on cooldown
@@ -149,26 +914,71 @@ public class AbilityManager implements Listener {
   }
 
   /**
-   * Clear cooldown for a player (for testing or special cases).
+   * Check if one ability is on cooldown for a player.
+   *
+   * @param player The player
+   * @param ability The ability
+   * @return true if on cooldown
+   */
+  public boolean isOnCooldown(Player player, Ability ability) {
+    return getRemainingCooldown(player, ability) > 0;
+  }
+
+  /**
+   * Clear every cooldown for a player (for testing or special cases).
    *
    * @param player The player
    */
   public void clearCooldown(Player player) {
     if (player != null) {
-      cooldowns.remove(player.getUniqueId());
+      removeCooldown(player.getUniqueId(), registry.getAllSlotsMask());
+    }
+  }
+
+  /**
+   * Clear the cooldown of one ability, including its shared groups.
+   *
+   * @param player The player
+   * @param ability The ability
+   */
+  @Override
+  public void clearCooldown(Player player, Ability ability) {
+    if (player != null && ability != null) {
+      removeCooldown(player.getUniqueId(), cooldownMask(ability));
     }
   }
 
   /**
-   * Set cooldown for a player (used for testing).
+   * Set the cooldown of every ability for a player (used for testing).
    *
    * @param player The player
    * @param cooldownSeconds Cooldown in seconds
    */
   public void setCooldown(Player player, int cooldownSeconds) {
     if (player != null) {
-      long cooldownEnd = System.currentTimeMillis() + (cooldownSeconds * 1000L);
-      cooldowns.put(player.getUniqueId(), cooldownEnd);
+      startCooldown(
+        player.getUniqueId(),
+        registry.getAllSlotsMask(),
+        CooldownClock.secondsToTicks(cooldownSeconds)
+      );
+    }
+  }
+
+  /**
+   * Set the cooldown of one ability, including its shared groups.
+   *
+   * @param player The player
+   * @param ability The ability
+   * @param cooldownSeconds Cooldown in seconds
+   */
+  @Override
+  public void setCooldown(Player player, Ability ability, int cooldownSeconds) {
+    if (player != null && ability != null) {
+      startCooldown(
+        player.getUniqueId(),
+        cooldownMask(ability),
+        CooldownClock.secondsToTicks(cooldownSeconds)
+      );
     }
   }
 
@@ -189,6 +999,7 @@ public class AbilityManager implements Listener {
    */
   public void setGlobalCooldownDuration(int seconds) {
     this.globalCooldownSeconds = Math.max(0, seconds);
+    cooldownConfigVersion++;
   }
 
   /**
@@ -201,7 +1012,7 @@ public class AbilityManager implements Listener {
     Player player = event.getEntity();
     if (player != null) {
       // Clear cooldown on death - this allows the respawn to restart the cooldown
-      cooldowns.remove(player.getUniqueId());
+      removeCooldown(player.getUniqueId(), registry.getAllSlotsMask());
     }
   }
 
@@ -215,13 +1026,21 @@ public class AbilityManager implements Listener {
   public void onPlayerJoin(PlayerJoinEvent event) {
     Player player = event.getPlayer();
     if (player != null) {
-      // Check if player has remaining cooldown
-      Long cooldownEnd = cooldowns.get(player.getUniqueId());
-      if (cooldownEnd != null) {
-        long remaining = cooldownEnd - System.currentTimeMillis();
-        if (remaining <= 0) {
-          // Cooldown has expired while offline, remove it
-          cooldowns.remove(player.getUniqueId());
+      // Check each cooldown slot for a remaining cooldown
+      UUID playerId = player.getUniqueId();
+      long now = clock.currentTick();
+      for (long bits = registry.getAllSlotsMask(); bits != 0; bits &= bits - 1) {
+        int slot = Long.numberOfTrailingZeros(bits);
+        long cooldownEnd = cooldowns.get(playerId, slot);
+        if (cooldownEnd != CooldownStore.NONE && cooldownEnd <= now) {
+          // Cooldown has expired while offline, remove it unless it was
+          // replaced in the meantime
+          cooldowns.removeIfEquals(
+            playerId.getMostSignificantBits(),
+            playerId.getLeastSignificantBits(),
+            slot,
+            cooldownEnd
+          );
         }
         // If remaining > 0, cooldown persists (which is what we want)
       }
@@ -0,0 +1,21 @@
+package org.cavarest.dragonegglightning.ability;
+
+import java.util.UUID;
+
+/**
+ * Callback fired when a player's ability cooldown expires.
+ */
+@FunctionalInterface
+public interface AbilityReadyListener {
+
+  /**
+   * Called on the tick an ability's last running cooldown expires. The
+   * player may be offline. Runs on the global region thread (the main
+   * thread on plain Paper), so on Folia hop to the player's scheduler
+   * before touching the player.
+   *
+   * @param playerId The UUID of the player whose cooldown expired
+   * @param ability The ability that is ready again
+   */
+  void onAbilityReady(UUID playerId, Ability ability);
+}
@@ -0,0 +1,274 @@
+package org.cavarest.dragonegglightning.ability;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Array-indexed registry of abilities and their cooldown slots.
+ *
+ * Abilities get dense ids starting at 1 in registration order, so lookup
+ * by id is a bounds check and an array read. Every ability also owns one
+ * cooldown slot, and every shared cooldown group named by
+ * {@link Ability#getCooldownGroups()} gets one slot the first time it is
+ * seen. An ability's cooldown mask has a bit set for its own slot and for
+ * each of its groups: using the ability starts a cooldown in every slot of
+ * the mask, and the ability is ready once all of them have expired.
+ *
+ * Ids and own slots are remembered by ability name, so an ability that is
+ * unregistered and registered again (for example when its plugin reloads)
+ * gets the same id and slot back. Every slot also has a key naming what it
+ * belongs to ({@code ability:<name>} or {@code group:<name>}); the
+ * journal and the cross-server sync store slots by key, and
+ * {@link #reserveSlot} keeps a slot for a key whose ability has not been
+ * registered yet, so a cooldown never lands on another ability after a
+ * restart or on a server that registers abilities in another order. Not
+ * thread-safe; main thread only.
+ */
+public class AbilityRegistry {
+
+  /**
+   * Maximum number of cooldown slots, one bit each in a {@code long} mask.
+   */
+  public static final int MAX_COOLDOWN_SLOTS = Long.SIZE;
+
+  private static final int INITIAL_CAPACITY = 4;
+
+  private static final String ABILITY_KEY_PREFIX = "ability:";
+  private static final String GROUP_KEY_PREFIX = "group:";
+
+  private final Map<String, Integer> slotsByKey = new HashMap<>();
+  private final Map<String, Integer> idsByName = new HashMap<>();
+  private final String[] slotKeys = new String[MAX_COOLDOWN_SLOTS];
+  private final int[] slotKeyHashes = new int[MAX_COOLDOWN_SLOTS];
+  private Ability[] abilities = new Ability[INITIAL_CAPACITY];
+  private long[] cooldownMasks = new long[INITIAL_CAPACITY];
+  private int[] ownSlots = new int[INITIAL_CAPACITY];
+  private int maxId;
+  private long allocatedSlots;
+  private long reservedSlots;
+
+  /**
+   * Register an ability and allocate its cooldown slots.
+   *
+   * @param ability The ability to register
+   * @return The ability id, starting at 1
+   * @throws IllegalArgumentException If an ability with the same name is registered
+   * @throws IllegalStateException If all cooldown slots are in use
+   */
+  public int register(Ability ability) {
+    String name = ability.getName();
+    Integer previousId = idsByName.get(name);
+    if (previousId != null && abilities[previousId] != null) {
+      throw new IllegalArgumentException("Ability " + name + " is already registered");
+    }
+
+    int id;
+    if (previousId != null) {
+      id = previousId;
+    } else {
+      int slot = allocateSlot(ABILITY_KEY_PREFIX + name);
+      id = maxId + 1;
+      if (id == abilities.length) {
+        abilities = Arrays.copyOf(abilities, abilities.length * 2);
+        cooldownMasks = Arrays.copyOf(cooldownMasks, cooldownMasks.length * 2);
+        ownSlots = Arrays.copyOf(ownSlots, ownSlots.length * 2);
+      }
+      ownSlots[id] = slot;
+      idsByName.put(name, id);
+      maxId = id;
+    }
+
+    long mask = 1L << ownSlots[id];
+    for (String group : ability.getCooldownGroups()) {
+      Integer slot = slotsByKey.get(GROUP_KEY_PREFIX + group);
+      mask |= 1L << (slot != null && (allocatedSlots & 1L << slot) != 0
+        ? slot
+        : allocateSlot(GROUP_KEY_PREFIX + group));
+    }
+
+    abilities[id] = ability;
+    cooldownMasks[id] = mask;
+    return id;
+  }
+
+  /**
+   * Unregister an ability. Its id and own slot stay reserved for an
+   * ability of the same name.
+   *
+   * @param id The ability id
+   * @return The removed ability, or null if none was registered
+   */
+  public Ability unregister(int id) {
+    Ability ability = get(id);
+    if (ability != null) {
+      abilities[id] = null;
+      cooldownMasks[id] = 0L;
+    }
+    return ability;
+  }
+
+  /**
+   * Get an ability by id.
+   *
+   * @param id The ability id
+   * @return The ability, or null if no ability has that id
+   */
+  public Ability get(int id) {
+    return id > 0 && id <= maxId ? abilities[id] : null;
+  }
+
+  /**
+   * Get the id of a registered ability. Abilities are compared by identity;
+   * the scan is linear, which is cheaper than hashing for the handful of
+   * abilities a server registers.
+   *
+   * @param ability The ability
+   * @return The ability id, or 0 if it is not registered
+   */
+  public int getId(Ability ability) {
+    for (int id = 1; id <= maxId; id++) {
+      if (abilities[id] == ability) {
+        return id;
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Get the cooldown mask of an ability.
+   *
+   * @param id The ability id
+   * @return One bit per cooldown slot the ability uses, or 0 for unknown ids
+   */
+  public long getCooldownMask(int id) {
+    return id > 0 && id <= maxId ? cooldownMasks[id] : 0L;
+  }
+
+  /**
+   * Get a mask covering every allocated cooldown slot.
+   *
+   * @return One bit per allocated slot
+   */
+  public long getAllSlotsMask() {
+    return allocatedSlots;
+  }
+
+  /**
+   * Keep a slot for a key until an ability claims it, so cooldowns
+   * restored for an ability that registers later wait in the right slot.
+   * The preferred slot is used if it is free; a key that already has a
+   * slot keeps it.
+   *
+   * @param key The slot key, as returned by {@link #getSlotKey}
+   * @param preferredSlot The slot the key had before
+   * @return The key's slot, or -1 if every slot is in use
+   */
+  public int reserveSlot(String key, int preferredSlot) {
+    Integer slot = slotsByKey.get(key);
+    if (slot != null) {
+      return slot;
+    }
+    long free = ~(allocatedSlots | reservedSlots);
+    if (free == 0) {
+      return -1;
+    }
+    int chosen = preferredSlot >= 0 && preferredSlot < MAX_COOLDOWN_SLOTS && (free & 1L << preferredSlot) != 0
+      ? preferredSlot
+      : Long.numberOfTrailingZeros(free);
+    bindSlot(key, chosen);
+    reservedSlots |= 1L << chosen;
+    return chosen;
+  }
+
+  /**
+   * Get the key of a slot.
+   *
+   * @param slot The cooldown slot
+   * @return The key, or null if the slot is neither allocated nor reserved
+   */
+  public String getSlotKey(int slot) {
+    return slot >= 0 && slot < MAX_COOLDOWN_SLOTS ? slotKeys[slot] : null;
+  }
+
+  /**
+   * Get the compact form of a slot's key exchanged with other servers: the
+   * key's {@link String#hashCode()}, which every JVM computes alike.
+   *
+   * @param slot The cooldown slot
+   * @return The key hash, or 0 if the slot has no key
+   */
+  public int getSlotKeyHash(int slot) {
+    return getSlotKey(slot) != null ? slotKeyHashes[slot] : 0;
+  }
+
+  /**
+   * Find the slot, allocated or reserved, whose key has the given hash.
+   *
+   * @param keyHash The key hash from {@link #getSlotKeyHash}
+   * @return The slot, or -1 if no slot has that key
+   */
+  public int getSlotByKeyHash(int keyHash) {
+    for (long bits = allocatedSlots | reservedSlots; bits != 0; bits &= bits - 1) {
+      int slot = Long.numberOfTrailingZeros(bits);
+      if (slotKeyHashes[slot] == keyHash) {
+        return slot;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Get every key with a slot, allocated or reserved, for saving next to
+   * the journal.
+   *
+   * @return The slot of each key, sorted by key
+   */
+  public Map<String, Integer> getSlotKeys() {
+    return new TreeMap<>(slotsByKey);
+  }
+
+  /**
+   * Get the highest id handed out. Ids from 1 to this value may be looked
+   * up; unregistered ones return null.
+   *
+   * @return The highest ability id, or 0 if none was registered
+   */
+  public int getMaxId() {
+    return maxId;
+  }
+
+  /**
+   * Allocate the slot reserved for a key, or else the lowest slot that is
+   * neither allocated nor reserved.
+   */
+  private int allocateSlot(String key) {
+    Integer reserved = slotsByKey.get(key);
+    int slot;
+    if (reserved != null && (reservedSlots & 1L << reserved) != 0) {
+      slot = reserved;
+      reservedSlots &= ~(1L << slot);
+    } else {
+      long free = ~(allocatedSlots | reservedSlots);
+      if (free == 0) {
+        throw new IllegalStateException("All " + MAX_COOLDOWN_SLOTS + " cooldown slots are in use");
+      }
+      slot = Long.numberOfTrailingZeros(free);
+      bindSlot(key, slot);
+    }
+    allocatedSlots |= 1L << slot;
+    return slot;
+  }
+
+  private void bindSlot(String key, int slot) {
+    int hash = key.hashCode();
+    int clash = getSlotByKeyHash(hash);
+    if (clash >= 0) {
+      throw new IllegalArgumentException("Cooldown slot key " + key + " has the same hash as " + slotKeys[clash]);
+    }
+    slotsByKey.put(key, slot);
+    slotKeys[slot] = key;
+    slotKeyHashes[slot] = hash;
+  }
+}
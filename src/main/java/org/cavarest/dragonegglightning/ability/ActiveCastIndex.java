@@ -0,0 +1,132 @@
+package org.cavarest.dragonegglightning.ability;
+
+import com.destroystokyo.paper.event.entity.EntityRemoveFromWorldEvent;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityDeathEvent;
+import org.bukkit.plugin.Plugin;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index of the casts in flight by the entity they are aimed at, so a
+ * cast learns that its target died or left the world from the event
+ * itself instead of polling the target before every strike.
+ *
+ * Deaths ({@link EntityDeathEvent}, players included) and removals from
+ * the world ({@link EntityRemoveFromWorldEvent}, which also covers chunk
+ * unloads and despawns) notify every cast aimed at the entity once and
+ * forget them; a cast that picks a new target watches it again. Events
+ * arrive on the thread that owns the target, so casts must hand the
+ * notification over to their caster's thread themselves.
+ */
+public class ActiveCastIndex implements Listener {
+
+  /**
+   * A cast aimed at one entity.
+   */
+  @FunctionalInterface
+  public interface Cast {
+
+    /**
+     * Called once when the watched target dies or leaves the world.
+     *
+     * @param target The target that was lost
+     */
+    void targetLost(LivingEntity target);
+  }
+
+  private final Plugin plugin;
+  private final Map<UUID, Set<Cast>> castsByTarget = new ConcurrentHashMap<>();
+
+  /**
+   * Create an index. No events are received until {@link #start()}.
+   *
+   * @param plugin The plugin, or null in tests
+   */
+  public ActiveCastIndex(Plugin plugin) {
+    this.plugin = plugin;
+  }
+
+  /**
+   * Register the event listeners.
+   */
+  public void start() {
+    if (plugin == null || plugin.getServer() == null) {
+      return;
+    }
+    plugin.getServer().getPluginManager().registerEvents(this, plugin);
+  }
+
+  /**
+   * Forget every cast.
+   */
+  public void stop() {
+    castsByTarget.clear();
+  }
+
+  /**
+   * Notify a cast when its target is lost.
+   *
+   * @param target The target
+   * @param cast The cast aimed at it
+   */
+  public void watch(LivingEntity target, Cast cast) {
+    castsByTarget.computeIfAbsent(target.getUniqueId(), id -> ConcurrentHashMap.newKeySet()).add(cast);
+  }
+
+  /**
+   * Stop notifying a cast about a target, for example when the cast ends.
+   *
+   * @param target The target
+   * @param cast The cast aimed at it
+   */
+  public void unwatch(LivingEntity target, Cast cast) {
+    castsByTarget.computeIfPresent(target.getUniqueId(), (id, casts) -> {
+      casts.remove(cast);
+      return casts.isEmpty() ? null : casts;
+    });
+  }
+
+  /**
+   * Get the number of entities that casts are aimed at.
+   *
+   * @return The number of watched targets
+   */
+  public int size() {
+    return castsByTarget.size();
+  }
+
+  /**
+   * Notify and forget every cast aimed at an entity.
+   *
+   * @param entity The entity that died or left the world
+   */
+  public void targetLost(Entity entity) {
+    if (!(entity instanceof LivingEntity target)) {
+      return;
+    }
+    Set<Cast> casts = castsByTarget.remove(target.getUniqueId());
+    if (casts != null) {
+      for (Cast cast : casts) {
+        cast.targetLost(target);
+      }
+    }
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void onEntityDeath(EntityDeathEvent event) {
+    targetLost(event.getEntity());
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR)
+  public void onEntityRemoveFromWorld(EntityRemoveFromWorldEvent event) {
+    targetLost(event.getEntity());
+  }
+}
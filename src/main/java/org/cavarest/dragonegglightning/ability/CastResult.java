@@ -0,0 +1,64 @@
+package org.cavarest.dragonegglightning.ability;
+
+import org.cavarest.dragonegglightning.cooldown.CooldownClock;
+
+/**
+ * Outcome of asking {@link AbilityManager} to cast an ability.
+ *
+ * Every outcome except {@link Status#ON_COOLDOWN} is a shared constant, so
+ * admission checks allocate nothing unless the player has to wait.
+ *
+ * @param status Why the cast was admitted or refused
+ * @param remainingTicks Ticks until the ability is ready, 0 unless on cooldown
+ */
+public record CastResult(Status status, long remainingTicks) {
+
+  /**
+   * Why a cast was admitted or refused.
+   */
+  public enum Status {
+    /** The ability ran, or would run. */
+    OK,
+    /** The player does not hold the required item. */
+    MISSING_ITEM,
+    /** The ability or one of its cooldown groups is cooling down. */
+    ON_COOLDOWN,
+    /** The ability found nothing to act on. */
+    NO_TARGET,
+    /** The ability refused to run for another reason. */
+    FAILED
+  }
+
+  public static final CastResult OK = new CastResult(Status.OK, 0L);
+  public static final CastResult MISSING_ITEM = new CastResult(Status.MISSING_ITEM, 0L);
+  public static final CastResult NO_TARGET = new CastResult(Status.NO_TARGET, 0L);
+  public static final CastResult FAILED = new CastResult(Status.FAILED, 0L);
+
+  /**
+   * Create a result for an ability that is still cooling down.
+   *
+   * @param remainingTicks Ticks until the ability is ready
+   * @return The result
+   */
+  public static CastResult onCooldown(long remainingTicks) {
+    return new CastResult(Status.ON_COOLDOWN, remainingTicks);
+  }
+
+  /**
+   * Check whether the cast was admitted.
+   *
+   * @return true if the status is {@link Status#OK}
+   */
+  public boolean isSuccess() {
+    return status == Status.OK;
+  }
+
+  /**
+   * Get the remaining cooldown rounded up to whole seconds.
+   *
+   * @return Seconds until the ability is ready, 0 unless on cooldown
+   */
+  public int remainingSeconds() {
+    return remainingTicks > 0 ? CooldownClock.ticksToSeconds(remainingTicks) : 0;
+  }
+}
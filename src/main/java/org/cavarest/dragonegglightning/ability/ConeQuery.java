@@ -0,0 +1,288 @@
+package org.cavarest.dragonegglightning.ability;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.LivingEntity;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Finds the nearest living entities inside a viewing cone.
+ *
+ * The cone has its apex at the origin, opens around the look direction
+ * by the angle whose cosine is {@code minDot}, and is capped at
+ * {@code range}. Candidates come from a {@link LivingEntityIndex} query
+ * over the cone's own bounding box, which is much smaller than the cube
+ * around the origin unless the player looks along an axis. Each candidate
+ * is tested with primitive arithmetic on squared distances: no vector,
+ * location copy or square root per candidate. A query can keep the
+ * nearest few entities ranked by distance, so a cast can fall back to the
+ * next one without searching again. One query object serves one search
+ * on one thread.
+ */
+public final class ConeQuery implements LivingEntityIndex.Visitor {
+
+  private final double originX;
+  private final double originY;
+  private final double originZ;
+  private final double directionX;
+  private final double directionY;
+  private final double directionZ;
+  private final double minDotSquared;
+  private final double rangeSquared;
+  private final Entity caster;
+  private final Set<? extends Entity> excluded;
+  private final double[] box = new double[6];
+  private final LivingEntity[] ranked;
+  private final double[] rankedDistancesSquared;
+  private int rankedCount;
+  private Location scratch;
+
+  /**
+   * Create a query.
+   *
+   * @param originX The apex X coordinate
+   * @param originY The apex Y coordinate
+   * @param originZ The apex Z coordinate
+   * @param directionX The look direction's X component
+   * @param directionY The look direction's Y component
+   * @param directionZ The look direction's Z component
+   * @param range The largest distance from the apex, exclusive
+   * @param minDot The cosine of the cone's half-angle, between 0 and 1
+   * @param caster The entity casting, never a result
+   * @param excluded Entities that may not be returned
+   */
+  public ConeQuery(
+    double originX,
+    double originY,
+    double originZ,
+    double directionX,
+    double directionY,
+    double directionZ,
+    double range,
+    double minDot,
+    Entity caster,
+    Set<? extends Entity> excluded
+  ) {
+    this(originX, originY, originZ, directionX, directionY, directionZ, range, minDot, caster, excluded, 1);
+  }
+
+  /**
+   * Create a query that ranks several candidates.
+   *
+   * @param originX The apex X coordinate
+   * @param originY The apex Y coordinate
+   * @param originZ The apex Z coordinate
+   * @param directionX The look direction's X component
+   * @param directionY The look direction's Y component
+   * @param directionZ The look direction's Z component
+   * @param range The largest distance from the apex, exclusive
+   * @param minDot The cosine of the cone's half-angle, between 0 and 1
+   * @param caster The entity casting, never a result
+   * @param excluded Entities that may not be returned
+   * @param maxCandidates How many of the nearest entities to keep, at least 1
+   */
+  public ConeQuery(
+    double originX,
+    double originY,
+    double originZ,
+    double directionX,
+    double directionY,
+    double directionZ,
+    double range,
+    double minDot,
+    Entity caster,
+    Set<? extends Entity> excluded,
+    int maxCandidates
+  ) {
+    double length = Math.sqrt(directionX * directionX + directionY * directionY + directionZ * directionZ);
+    this.originX = originX;
+    this.originY = originY;
+    this.originZ = originZ;
+    this.directionX = directionX / length;
+    this.directionY = directionY / length;
+    this.directionZ = directionZ / length;
+    this.minDotSquared = minDot * minDot;
+    this.caster = caster;
+    this.excluded = excluded;
+    this.rangeSquared = range * range;
+    this.ranked = new LivingEntity[Math.max(1, maxCandidates)];
+    this.rankedDistancesSquared = new double[ranked.length];
+
+    // Bounding box of the cone capped by the range sphere: along each axis
+    // it reaches as far as the direction within the cone closest to it
+    double halfAngle = Math.acos(minDot);
+    double[] origin = {originX, originY, originZ};
+    double[] direction = {this.directionX, this.directionY, this.directionZ};
+    for (int axis = 0; axis < 3; axis++) {
+      double angle = Math.acos(Math.max(-1.0, Math.min(1.0, direction[axis])));
+      double high = angle <= halfAngle ? 1.0 : Math.cos(angle - halfAngle);
+      double low = Math.PI - angle <= halfAngle ? -1.0 : -Math.cos(Math.PI - angle - halfAngle);
+      box[axis] = origin[axis] + range * Math.min(0.0, low);
+      box[axis + 3] = origin[axis] + range * Math.max(0.0, high);
+    }
+  }
+
+  /**
+   * Run the query against an entity index.
+   *
+   * @param index The index
+   * @param world The world the apex is in
+   * @return The nearest entity in the cone, or null
+   */
+  public LivingEntity search(LivingEntityIndex index, World world) {
+    index.forEachInBox(world, box[0], box[1], box[2], box[3], box[4], box[5], this);
+    return nearest();
+  }
+
+  /**
+   * Run the query against the entities around the cone, read from the
+   * world without an index.
+   *
+   * @param world The world the apex is in
+   * @return The nearest entity in the cone, or null
+   */
+  public LivingEntity search(World world) {
+    double halfX = (box[3] - box[0]) / 2.0;
+    double halfY = (box[4] - box[1]) / 2.0;
+    double halfZ = (box[5] - box[2]) / 2.0;
+    Location center = new Location(world, box[0] + halfX, box[1] + halfY, box[2] + halfZ);
+    return search(world.getNearbyEntities(center, halfX, halfY, halfZ));
+  }
+
+  /**
+   * Run the query against a collection of candidates.
+   *
+   * @param candidates The candidates; entities that are not living are skipped
+   * @return The nearest entity in the cone, or null
+   */
+  public LivingEntity search(Collection<? extends Entity> candidates) {
+    for (Entity entity : candidates) {
+      if (entity instanceof LivingEntity living) {
+        Location location = living.getLocation(scratch(living));
+        visit(living, location.getX(), location.getY(), location.getZ());
+      }
+    }
+    return nearest();
+  }
+
+  /**
+   * Check whether an entity, where it is now, would be a result of this
+   * query: alive, valid, not excluded and inside the cone.
+   *
+   * @param entity The entity
+   * @return true if the entity is a valid target
+   */
+  public boolean accepts(LivingEntity entity) {
+    if (entity == null || !entity.isValid()) {
+      return false;
+    }
+    Location location = entity.getLocation(scratch(entity));
+    return inCone(location.getX(), location.getY(), location.getZ(), rangeSquared) >= 0.0
+      && isEligible(entity);
+  }
+
+  /**
+   * Get the smallest corner of the cone's bounding box.
+   *
+   * @param axis 0 for X, 1 for Y, 2 for Z
+   * @return The smallest coordinate along the axis
+   */
+  public double boxMin(int axis) {
+    return box[axis];
+  }
+
+  /**
+   * Get the largest corner of the cone's bounding box.
+   *
+   * @param axis 0 for X, 1 for Y, 2 for Z
+   * @return The largest coordinate along the axis
+   */
+  public double boxMax(int axis) {
+    return box[axis + 3];
+  }
+
+  /**
+   * Get the nearest entity found so far.
+   *
+   * @return The nearest entity in the cone, or null
+   */
+  public LivingEntity nearest() {
+    return rankedCount > 0 ? ranked[0] : null;
+  }
+
+  /**
+   * Get the number of ranked candidates found so far.
+   *
+   * @return The candidate count, at most the requested maximum
+   */
+  public int candidateCount() {
+    return rankedCount;
+  }
+
+  /**
+   * Get a ranked candidate.
+   *
+   * @param rank The rank, 0 for the nearest
+   * @return The candidate
+   */
+  public LivingEntity candidate(int rank) {
+    return ranked[rank];
+  }
+
+  @Override
+  public void visit(LivingEntity entity, double x, double y, double z) {
+    double limit = rankedCount == ranked.length ? rankedDistancesSquared[rankedCount - 1] : rangeSquared;
+    double distanceSquared = inCone(x, y, z, limit);
+    if (distanceSquared < 0.0 || !isEligible(entity)) {
+      return;
+    }
+    // Insert by distance, dropping the farthest once full
+    int position = Math.min(rankedCount, ranked.length - 1);
+    while (position > 0 && rankedDistancesSquared[position - 1] > distanceSquared) {
+      ranked[position] = ranked[position - 1];
+      rankedDistancesSquared[position] = rankedDistancesSquared[position - 1];
+      position--;
+    }
+    ranked[position] = entity;
+    rankedDistancesSquared[position] = distanceSquared;
+    if (rankedCount < ranked.length) {
+      rankedCount++;
+    }
+  }
+
+  /**
+   * Test a point against the cone.
+   *
+   * @return The squared distance from the apex, or -1 if the point is
+   *     outside the cone or not closer than the limit
+   */
+  private double inCone(double x, double y, double z, double limitSquared) {
+    double toX = x - originX;
+    double toY = y - originY;
+    double toZ = z - originZ;
+    double distanceSquared = toX * toX + toY * toY + toZ * toZ;
+    if (distanceSquared >= limitSquared) {
+      return -1.0;
+    }
+    // dot / |to| >= minDot, squared to avoid the root
+    double dot = toX * directionX + toY * directionY + toZ * directionZ;
+    if (dot <= 0.0 || dot * dot < minDotSquared * distanceSquared) {
+      return -1.0;
+    }
+    return distanceSquared;
+  }
+
+  private boolean isEligible(LivingEntity entity) {
+    return entity != caster && !entity.isDead() && !excluded.contains(entity);
+  }
+
+  private Location scratch(Entity entity) {
+    if (scratch == null) {
+      scratch = new Location(entity.getWorld(), 0, 0, 0);
+    }
+    return scratch;
+  }
+}
@@ -0,0 +1,253 @@
+package org.cavarest.dragonegglightning.ability;
+
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.entity.EntityPickupItemEvent;
+import org.bukkit.event.entity.PlayerDeathEvent;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
+import org.bukkit.event.player.PlayerDropItemEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerRespawnEvent;
+import org.bukkit.event.player.PlayerSwapHandItemsEvent;
+import org.bukkit.inventory.EquipmentSlot;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.plugin.Plugin;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Index of the players holding a Dragon Egg in their offhand, kept up to
+ * date from inventory events instead of reading inventories every tick.
+ *
+ * Swapping hands is applied at once from the event. For clicks, drags,
+ * pickups, drops, blocks placed from the offhand, death and respawn the
+ * event fires before the inventory changes, so the player's offhand is
+ * re-read on their own scheduler one tick later. A reconciliation pass
+ * re-reads every online player's offhand every
+ * {@link #RECONCILE_INTERVAL_TICKS} to catch changes no event reported,
+ * such as items moved by other plugins.
+ *
+ * The index may therefore lag behind the inventory by a moment; it is
+ * meant for the HUD, while casts read the offhand itself.
+ */
+public class DragonEggHolderIndex implements Listener {
+
+  /**
+   * Ticks between reconciliation passes over all online players.
+   */
+  public static final long RECONCILE_INTERVAL_TICKS = 100L;
+
+  /**
+   * Notified when a player starts or stops holding a Dragon Egg, on the
+   * thread that owns the player.
+   */
+  @FunctionalInterface
+  public interface HolderListener {
+
+    /**
+     * Handle a change in a player's holder state.
+     *
+     * @param player The player
+     * @param holding Whether the player now holds a Dragon Egg
+     */
+    void onHolderChanged(Player player, boolean holding);
+  }
+
+  private final Plugin plugin;
+  private final Set<UUID> holders = ConcurrentHashMap.newKeySet();
+  private final List<HolderListener> listeners = new CopyOnWriteArrayList<>();
+  private ScheduledTask reconcileTask;
+
+  /**
+   * Create an index. Nothing is tracked until {@link #start()}.
+   *
+   * @param plugin The plugin, or null in tests
+   */
+  public DragonEggHolderIndex(Plugin plugin) {
+    this.plugin = plugin;
+  }
+
+  /**
+   * Register the event listeners, index the players already online and
+   * start the reconciliation pass.
+   */
+  public void start() {
+    if (plugin == null || plugin.getServer() == null) {
+      return;
+    }
+    plugin.getServer().getPluginManager().registerEvents(this, plugin);
+    reconcile();
+    reconcileTask = plugin.getServer().getGlobalRegionScheduler().runAtFixedRate(
+      plugin,
+      task -> reconcile(),
+      RECONCILE_INTERVAL_TICKS,
+      RECONCILE_INTERVAL_TICKS
+    );
+  }
+
+  /**
+   * Stop the reconciliation pass and forget every holder.
+   */
+  public void stop() {
+    if (reconcileTask != null) {
+      reconcileTask.cancel();
+      reconcileTask = null;
+    }
+    holders.clear();
+  }
+
+  /**
+   * Register a listener notified when a player starts or stops holding a
+   * Dragon Egg.
+   *
+   * @param listener The listener
+   */
+  public void addListener(HolderListener listener) {
+    listeners.add(listener);
+  }
+
+  /**
+   * Check whether a player holds a Dragon Egg in their offhand.
+   *
+   * @param player The player
+   * @return true if the player is indexed as a holder
+   */
+  public boolean isHolding(Player player) {
+    return player != null && holders.contains(player.getUniqueId());
+  }
+
+  /**
+   * Get the number of indexed holders.
+   *
+   * @return The holder count
+   */
+  public int size() {
+    return holders.size();
+  }
+
+  /**
+   * Re-read a player's offhand and update the index. Must run on the
+   * thread that owns the player.
+   *
+   * @param player The player
+   */
+  public void refresh(Player player) {
+    ItemStack offhand = player.getInventory().getItemInOffHand();
+    update(player, isDragonEgg(offhand));
+  }
+
+  /**
+   * Re-read the offhand of every online player. Players owned by another
+   * region are refreshed on their own scheduler.
+   */
+  public void reconcile() {
+    for (Player player : Bukkit.getOnlinePlayers()) {
+      if (Bukkit.isOwnedByCurrentRegion(player)) {
+        refresh(player);
+      } else {
+        refreshLater(player);
+      }
+    }
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void onSwapHandItems(PlayerSwapHandItemsEvent event) {
+    // The event already carries the item that ends up in the offhand
+    update(event.getPlayer(), isDragonEgg(event.getOffHandItem()));
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void onInventoryClick(InventoryClickEvent event) {
+    if (event.getWhoClicked() instanceof Player player) {
+      refreshLater(player);
+    }
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void onInventoryDrag(InventoryDragEvent event) {
+    if (event.getWhoClicked() instanceof Player player) {
+      refreshLater(player);
+    }
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void onEntityPickupItem(EntityPickupItemEvent event) {
+    if (event.getEntity() instanceof Player player) {
+      refreshLater(player);
+    }
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void onPlayerDropItem(PlayerDropItemEvent event) {
+    refreshLater(event.getPlayer());
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void onBlockPlace(BlockPlaceEvent event) {
+    // Placing the egg itself from the offhand empties it
+    if (event.getHand() == EquipmentSlot.OFF_HAND) {
+      refreshLater(event.getPlayer());
+    }
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR)
+  public void onPlayerDeath(PlayerDeathEvent event) {
+    refreshLater(event.getEntity());
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR)
+  public void onPlayerRespawn(PlayerRespawnEvent event) {
+    refreshLater(event.getPlayer());
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR)
+  public void onPlayerJoin(PlayerJoinEvent event) {
+    refresh(event.getPlayer());
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR)
+  public void onPlayerQuit(PlayerQuitEvent event) {
+    holders.remove(event.getPlayer().getUniqueId());
+  }
+
+  /**
+   * Re-read a player's offhand on their own scheduler once the current
+   * inventory change has been applied.
+   */
+  private void refreshLater(Player player) {
+    if (player == null) {
+      return;
+    }
+    if (plugin == null) {
+      refresh(player);
+      return;
+    }
+    player.getScheduler().run(plugin, task -> refresh(player), null);
+  }
+
+  private void update(Player player, boolean holding) {
+    UUID playerId = player.getUniqueId();
+    boolean changed = holding ? holders.add(playerId) : holders.remove(playerId);
+    if (changed) {
+      for (HolderListener listener : listeners) {
+        listener.onHolderChanged(player, holding);
+      }
+    }
+  }
+
+  private static boolean isDragonEgg(ItemStack item) {
+    return item != null && item.getType() == Material.DRAGON_EGG;
+  }
+}
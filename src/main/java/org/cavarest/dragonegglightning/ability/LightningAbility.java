@@ -1,23 +1,25 @@
 package org.cavarest.dragonegglightning.ability;
 
 import org.cavarest.dragonegglightning.DragonEggLightningPlugin;
+import org.cavarest.dragonegglightning.effect.EffectDetail;
+import org.cavarest.dragonegglightning.effect.EffectQualityGovernor;
+import org.cavarest.dragonegglightning.effect.LightningEffect;
+import org.cavarest.dragonegglightning.effect.LightningMode;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
-import org.bukkit.Color;
+import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.Material;
-import org.bukkit.Particle;
-import org.bukkit.Sound;
 import org.bukkit.entity.*;
 import org.bukkit.inventory.ItemStack;
-import org.bukkit.scheduler.BukkitRunnable;
 import org.bukkit.util.RayTraceResult;
 import org.bukkit.util.Vector;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.Set;
+import java.util.UUID;
 
 /**
  * Lightning ability that strikes targets with purple lightning.
@@ -30,12 +32,28 @@ public class LightningAbility implements Ability {
   private static final double DAMAGE_PER_STRIKE = 4.0; // 2.0 hearts (bypasses armor)
   private static final long COOLDOWN_MILLIS = 60000L; // 60 seconds
   private static final double MAX_RANGE = 50.0;
+  private static final double CONE_MIN_DOT = 0.9; // Roughly 25 degree cone
+  private static final int RANKED_TARGETS = 8; // Fallback targets kept per cast
   private static final String ABILITY_NAME = "Lightning Strike";
 
   private final DragonEggLightningPlugin plugin;
+  private final DragonEggHolderIndex holderIndex;
+  private final LivingEntityIndex entityIndex;
+  private final ActiveCastIndex castIndex;
+  private final StrikeEngine strikeEngine;
+  private final LightningEffect effect;
+  private final LightningMode lightningMode;
+  private final EffectQualityGovernor effectGovernor;
 
   public LightningAbility(DragonEggLightningPlugin plugin) {
     this.plugin = plugin;
+    this.holderIndex = plugin != null ? plugin.getHolderIndex() : null;
+    this.entityIndex = plugin != null ? plugin.getEntityIndex() : null;
+    this.castIndex = plugin != null ? plugin.getCastIndex() : null;
+    this.strikeEngine = plugin != null ? plugin.getStrikeEngine() : null;
+    this.effect = LightningEffect.fromConfig(plugin != null ? plugin.getConfig() : null);
+    this.effectGovernor = plugin != null ? plugin.getEffectGovernor() : null;
+    this.lightningMode = LightningMode.fromConfig(plugin != null ? plugin.getConfig() : null);
   }
 
   @Override
@@ -44,16 +62,6 @@ public class LightningAbility implements Ability {
       return false;
     }
 
-    // Find initial target entity
-    LivingEntity target = findTargetEntity(player);
-
-    if (target == null) {
-      player.sendMessage(
-        Component.text("No valid target found!", NamedTextColor.RED)
-      );
-      return false;
-    }
-
     // Check if player still has dragon egg in offhand
     if (!hasRequiredItem(player)) {
       player.sendMessage(
@@ -65,14 +73,36 @@ public class LightningAbility implements Ability {
       return false;
     }
 
+    CastResult result = perform(player);
+    if (result.status() == CastResult.Status.NO_TARGET) {
+      player.sendMessage(
+        Component.text("No valid target found!", NamedTextColor.RED)
+      );
+    }
+    return result.isSuccess();
+  }
+
+  @Override
+  public CastResult perform(Player player) {
+    // Rank the targets in the viewing cone once; retargets walk this list
+    Location eyeLocation = player.getEyeLocation();
+    Vector direction = eyeLocation.getDirection();
+    ConeQuery candidates = searchCone(player, eyeLocation, direction, Set.of(), RANKED_TARGETS);
+
+    // Find initial target entity
+    LivingEntity target = findTargetEntity(player, eyeLocation, direction, candidates);
+    if (target == null) {
+      return CastResult.NO_TARGET;
+    }
+
     // Execute lightning strikes with intelligent target switching
-    executeLightningStrikes(player, target);
+    executeLightningStrikes(player, target, candidates);
 
     player.sendMessage(
       Component.text("Lightning ability activated!", NamedTextColor.LIGHT_PURPLE)
     );
 
-    return true;
+    return CastResult.OK;
   }
 
   @Override
@@ -84,6 +114,19 @@ public class LightningAbility implements Ability {
     return offhand != null && offhand.getType() == Material.DRAGON_EGG;
   }
 
+  @Override
+  public boolean isRequiredItemShown(Player player) {
+    if (holderIndex != null) {
+      return holderIndex.isHolding(player);
+    }
+    return hasRequiredItem(player);
+  }
+
+  @Override
+  public boolean isRequiredItemIndexed() {
+    return holderIndex != null;
+  }
+
   @Override
   public long getCooldownMillis() {
     return COOLDOWN_MILLIS;
@@ -94,6 +137,21 @@ public class LightningAbility implements Ability {
     return ABILITY_NAME;
   }
 
+  @Override
+  public String getHudLabel() {
+    return "Lightning";
+  }
+
+  @Override
+  public Material getCooldownItem() {
+    return Material.DRAGON_EGG;
+  }
+
+  @Override
+  public String getMissingItemMessage() {
+    return "You must hold a Dragon Egg in your offhand to use this ability!";
+  }
+
   /**
    * Get a descriptive name for the target entity.
    *
@@ -118,15 +176,17 @@ public class LightningAbility implements Ability {
    * Find the closest living entity in the direction the player is facing.
    *
    * @param player The player
+   * @param eyeLocation The player's eye location
+   * @param direction The player's look direction
+   * @param candidates The ranked cone search for this cast
    * @return The target entity or null if none found
    */
-  private LivingEntity findTargetEntity(Player player) {
-    if (player == null) {
-      return null;
-    }
-    Location eyeLocation = player.getEyeLocation();
-    Vector direction = eyeLocation.getDirection();
-
+  private LivingEntity findTargetEntity(
+    Player player,
+    Location eyeLocation,
+    Vector direction,
+    ConeQuery candidates
+  ) {
     // Use ray tracing to find entities
     RayTraceResult result = player.getWorld().rayTraceEntities(
       eyeLocation,
@@ -141,55 +201,8 @@ public class LightningAbility implements Ability {
       return (LivingEntity) result.getHitEntity();
     }
 
-    // Fallback: find nearest entity in viewing cone
-    return findNearestEntityInCone(player, eyeLocation, direction);
-  }
-
-  /**
-   * Find nearest entity within a viewing cone.
-   *
-   * @param player The player
-   * @param eyeLocation The player's eye location
-   * @param direction The player's look direction
-   * @return The nearest entity or null
-   */
-  private LivingEntity findNearestEntityInCone(
-    Player player,
-    Location eyeLocation,
-    Vector direction
-  ) {
-    LivingEntity nearest = null;
-    double nearestDistance = MAX_RANGE;
-    double minDotProduct = 0.9; // Roughly 25 degree cone
-
-    for (Entity entity : player.getWorld().getNearbyEntities(
-      eyeLocation,
-      MAX_RANGE,
-      MAX_RANGE,
-      MAX_RANGE
-    )) {
-      if (!(entity instanceof LivingEntity) ||
-          entity == player ||
-          entity.isDead()) {
-        continue;
-      }
-
-      Vector toEntity = entity.getLocation()
-        .subtract(eyeLocation)
-        .toVector()
-        .normalize();
-      double dot = direction.dot(toEntity);
-
-      if (dot >= minDotProduct) {
-        double distance = eyeLocation.distance(entity.getLocation());
-        if (distance < nearestDistance) {
-          nearest = (LivingEntity) entity;
-          nearestDistance = distance;
-        }
-      }
-    }
-
-    return nearest;
+    // Fallback: nearest entity in viewing cone
+    return candidates.nearest();
   }
 
   /**
@@ -205,111 +218,249 @@ public class LightningAbility implements Ability {
     }
 
     Location eyeLocation = player.getEyeLocation();
-    Vector direction = eyeLocation.getDirection();
-    LivingEntity nextTarget = null;
-    double nearestDistance = MAX_RANGE;
-    double minDotProduct = 0.9; // Roughly 25 degree cone
-
-    for (Entity entity : player.getWorld().getNearbyEntities(
-      eyeLocation,
-      MAX_RANGE,
-      MAX_RANGE,
-      MAX_RANGE
-    )) {
-      if (!(entity instanceof LivingEntity) ||
-          entity == player ||
-          entity == currentTarget || // Exclude current target
-          entity.isDead()) {
-        continue;
-      }
+    return searchCone(player, eyeLocation, eyeLocation.getDirection(), Set.of(currentTarget), 1).nearest();
+  }
 
-      Vector toEntity = entity.getLocation()
-        .subtract(eyeLocation)
-        .toVector()
-        .normalize();
-      double dot = direction.dot(toEntity);
-
-      if (dot >= minDotProduct) {
-        double distance = eyeLocation.distance(entity.getLocation());
-        if (distance < nearestDistance) {
-          nextTarget = (LivingEntity) entity;
-          nearestDistance = distance;
-        }
-      }
+  /**
+   * Search the player's viewing cone, from the {@link LivingEntityIndex}
+   * when the plugin runs one.
+   *
+   * @param player The player
+   * @param eyeLocation The player's eye location
+   * @param direction The player's look direction
+   * @param excluded Entities that may not be chosen
+   * @param maxCandidates How many of the nearest entities to rank
+   * @return The finished query
+   */
+  private ConeQuery searchCone(
+    Player player,
+    Location eyeLocation,
+    Vector direction,
+    Set<? extends Entity> excluded,
+    int maxCandidates
+  ) {
+    ConeQuery query = coneFrom(player, eyeLocation, direction, excluded, maxCandidates);
+    if (entityIndex != null) {
+      query.search(entityIndex, player.getWorld());
+    } else {
+      query.search(player.getWorld());
     }
+    return query;
+  }
 
-    return nextTarget;
+  private ConeQuery coneFrom(
+    Player player,
+    Location eyeLocation,
+    Vector direction,
+    Set<? extends Entity> excluded,
+    int maxCandidates
+  ) {
+    return new ConeQuery(
+      eyeLocation.getX(),
+      eyeLocation.getY(),
+      eyeLocation.getZ(),
+      direction.getX(),
+      direction.getY(),
+      direction.getZ(),
+      MAX_RANGE,
+      CONE_MIN_DOT,
+      player,
+      excluded,
+      maxCandidates
+    );
   }
 
   /**
    * Execute sequential lightning strikes with intelligent target switching.
+   * Every strike, the first included, is driven by the plugin's
+   * {@link StrikeEngine} on the caster's thread, so the first lands on the
+   * next tick after the activation message, and the sequence stops if the
+   * caster leaves. A target that dies or leaves the world is replaced as
+   * soon as the {@link ActiveCastIndex} reports it, before the next strike
+   * is due.
    *
    * @param player The player casting the ability
    * @param initialTarget The initial target entity
+   * @param candidates The targets ranked at cast time
    */
-  private void executeLightningStrikes(Player player, LivingEntity initialTarget) {
-    // Use AtomicReference to make variables effectively final for inner class
-    final AtomicReference<LivingEntity> currentTargetRef = new AtomicReference<>(initialTarget);
-    final AtomicReference<String> currentTargetNameRef = new AtomicReference<>(getTargetName(initialTarget));
-    final AtomicReference<Integer> totalStrikesRef = new AtomicReference<>(0);
-    final AtomicReference<Integer> strikesOnCurrentTargetRef = new AtomicReference<>(0);
-    final Player finalPlayer = player;
-
-    new BukkitRunnable() {
-      @Override
-      public void run() {
-        // Check if player still has dragon egg (can be switched mid-cast)
-        if (!hasRequiredItem(finalPlayer)) {
-          finalPlayer.sendMessage(
-            Component.text(
-              "Ability cancelled! Dragon Egg removed from offhand.",
-              NamedTextColor.RED
-            )
-          );
-          cancel();
-          return;
-        }
+  private void executeLightningStrikes(Player player, LivingEntity initialTarget, ConeQuery candidates) {
+    StrikeSequence sequence = new StrikeSequence(player, initialTarget, candidates);
+    if (strikeEngine != null) {
+      strikeEngine.schedule(player, sequence, 0L, STRIKE_INTERVAL_TICKS);
+    }
+  }
+
+  /**
+   * State of one cast's strike sequence. Only touched from the caster's
+   * thread, except for the finished flag the engine reads. The caster is
+   * kept by UUID, so a sequence never holds on to a player who quit.
+   */
+  private final class StrikeSequence implements ActiveCastIndex.Cast, StrikeEngine.Cast {
+
+    private final UUID casterId;
+    private final ConeQuery candidates;
+    private int nextCandidate;
+    private LivingEntity currentTarget;
+    private String currentTargetName;
+    private int totalStrikes;
+    private boolean striking;
+    private volatile boolean finished;
+
+    StrikeSequence(Player player, LivingEntity initialTarget, ConeQuery candidates) {
+      this.casterId = player.getUniqueId();
+      this.candidates = candidates;
+      this.currentTarget = initialTarget;
+      this.currentTargetName = getTargetName(initialTarget);
+      if (castIndex != null) {
+        castIndex.watch(initialTarget, this);
+      }
+    }
+
+    @Override
+    public void targetLost(LivingEntity target) {
+      // Arrives on the target's thread. If that is also the caster's, retarget
+      // now, unless this is our own strike killing it; otherwise on the
+      // caster's thread, and strike() checks the target itself until then
+      Player player = plugin.getServer().getPlayer(casterId);
+      if (player == null) {
+        return;
+      }
+      if (Bukkit.isOwnedByCurrentRegion(player) && !striking) {
+        retarget(player, target);
+      } else {
+        player.getScheduler().run(plugin, task -> retarget(player, target), null);
+      }
+    }
+
+    @Override
+    public boolean isFinished() {
+      return finished;
+    }
+
+    @Override
+    public void cancel() {
+      finish();
+    }
+
+    /**
+     * Replace the current target after it was lost. Clears the target if
+     * no other is left, which ends the sequence at the next strike.
+     *
+     * @param player The casting player
+     * @param lost The target that was lost
+     */
+    private void retarget(Player player, LivingEntity lost) {
+      if (finished || lost != currentTarget) {
+        return;
+      }
+      LivingEntity newTarget = nextTarget(player);
+      currentTarget = newTarget;
+      if (newTarget == null) {
+        return;
+      }
+      // Switched to new target
+      currentTargetName = getTargetName(newTarget);
+      if (castIndex != null) {
+        castIndex.watch(newTarget, this);
+      }
+      player.sendMessage(
+        Component.text("Lightning shifts to " + currentTargetName + "!", NamedTextColor.GOLD)
+      );
+    }
+
+    /**
+     * End the sequence and stop watching its target.
+     */
+    private void finish() {
+      finished = true;
+      LivingEntity target = currentTarget;
+      if (castIndex != null && target != null) {
+        castIndex.unwatch(target, this);
+      }
+    }
 
-        LivingEntity currentTarget = currentTargetRef.get();
-
-        // If no valid target, try to find a new one
-        if (currentTarget == null || currentTarget.isDead() || !currentTarget.isValid()) {
-          LivingEntity newTarget = findNextTarget(finalPlayer, currentTarget);
-          if (newTarget == null) {
-            finalPlayer.sendMessage(
-              Component.text("No more valid targets found!", NamedTextColor.RED)
-            );
-            cancel();
-            return;
-          } else {
-            // Switched to new target
-            currentTargetRef.set(newTarget);
-            currentTargetNameRef.set(getTargetName(newTarget));
-            strikesOnCurrentTargetRef.set(0);
-            finalPlayer.sendMessage(
-              Component.text("Lightning shifts to " + currentTargetNameRef.get() + "!", NamedTextColor.GOLD)
-            );
+    /**
+     * Take the next ranked candidate that is still a valid target from
+     * where the player stands and looks now, and only search the area
+     * again once the ranked list is used up.
+     *
+     * @param player The casting player
+     * @return The new target, or null if none is left
+     */
+    private LivingEntity nextTarget(Player player) {
+      if (nextCandidate < candidates.candidateCount()) {
+        Location eyeLocation = player.getEyeLocation();
+        ConeQuery cone = coneFrom(player, eyeLocation, eyeLocation.getDirection(), Set.of(currentTarget), 1);
+        while (nextCandidate < candidates.candidateCount()) {
+          LivingEntity candidate = candidates.candidate(nextCandidate++);
+          if (cone.accepts(candidate)) {
+            return candidate;
           }
         }
+      }
+      return findNextTarget(player, currentTarget);
+    }
 
-        // Strike the current target
-        strikeLightning(currentTargetRef.get(), finalPlayer, currentTargetNameRef.get());
-        totalStrikesRef.set(totalStrikesRef.get() + 1);
-        strikesOnCurrentTargetRef.set(strikesOnCurrentTargetRef.get() + 1);
+    @Override
+    public boolean strike(Player player) {
+      if (finished) {
+        return false;
+      }
 
-        // Send strike message with target information
-        finalPlayer.sendMessage(
-          Component.text("Lightning strike " + totalStrikesRef.get() + "/" + STRIKE_COUNT +
-                        " hit " + currentTargetNameRef.get() + "!",
-                        NamedTextColor.LIGHT_PURPLE)
+      // Check if player still has dragon egg (can be switched mid-cast)
+      if (!hasRequiredItem(player)) {
+        player.sendMessage(
+          Component.text(
+            "Ability cancelled! Dragon Egg removed from offhand.",
+            NamedTextColor.RED
+          )
         );
+        finish();
+        return false;
+      }
 
-        // Check if all strikes are done
-        if (totalStrikesRef.get() >= STRIKE_COUNT) {
-          cancel();
+      // A lost target may not have been reported yet, or not at all
+      // without the cast index, so check it before striking
+      if (currentTarget != null && (currentTarget.isDead() || !currentTarget.isValid())) {
+        retarget(player, currentTarget);
+      }
+      if (currentTarget == null) {
+        player.sendMessage(
+          Component.text("No more valid targets found!", NamedTextColor.RED)
+        );
+        finish();
+        return false;
+      }
+
+      // Strike the current target on the thread that owns it
+      LivingEntity target = currentTarget;
+      String targetName = currentTargetName;
+      if (Bukkit.isOwnedByCurrentRegion(target)) {
+        striking = true;
+        try {
+          strikeLightning(target, player, targetName);
+        } finally {
+          striking = false;
         }
+      } else {
+        target.getScheduler().run(plugin, task -> strikeLightning(target, player, targetName), null);
+      }
+      totalStrikes++;
+
+      // Send strike message with target information
+      player.sendMessage(
+        Component.text("Lightning strike " + totalStrikes + "/" + STRIKE_COUNT +
+                      " hit " + targetName + "!",
+                      NamedTextColor.LIGHT_PURPLE)
+      );
+
+      // Check if all strikes are done
+      if (totalStrikes < STRIKE_COUNT) {
+        return true;
       }
-    }.runTaskTimer(plugin, 0L, STRIKE_INTERVAL_TICKS);
+      finish();
+      return false;
+    }
   }
 
   /**
@@ -322,31 +473,17 @@ public class LightningAbility implements Ability {
   private void strikeLightning(LivingEntity target, Player player, String targetName) {
     Location targetLocation = target.getLocation();
 
-    // Create actual lightning strike (use correct entity type)
-    LightningStrike lightning = (LightningStrike) target.getWorld()
-      .spawnEntity(targetLocation, EntityType.LIGHTNING_BOLT);
+    // Land a real, visual-only or no vanilla bolt, as configured
+    lightningMode.strike(target.getWorld(), targetLocation);
 
-    // Make it visually purple with particles
-    createPurpleLightningEffect(targetLocation);
+    // Make it visually purple with particles, thunder and an impact
+    // blast, sent to each nearby player at their distance's detail and
+    // capped by the quality the server can afford right now
+    EffectDetail quality = effectGovernor != null ? effectGovernor.getTier() : EffectDetail.FULL;
+    effect.play(target.getWorld(), targetLocation, quality);
 
     // Deal armor-bypassing damage directly to health
     dealDirectDamage(target, DAMAGE_PER_STRIKE);
-
-    // Play proper thunder sound
-    target.getWorld().playSound(
-      targetLocation,
-      Sound.ENTITY_LIGHTNING_BOLT_THUNDER,
-      3.0f,
-      1.0f
-    );
-
-    // Play explosion sound for impact
-    target.getWorld().playSound(
-      targetLocation,
-      Sound.ENTITY_DRAGON_FIREBALL_EXPLODE,
-      2.0f,
-      1.0f
-    );
   }
 
   /**
@@ -365,64 +502,4 @@ public class LightningAbility implements Ability {
     double newHealth = Math.max(0, currentHealth - damage);
     target.setHealth(newHealth);
   }
-
-  /**
-   * Create purple lightning visual effect.
-   *
-   * @param location The location to spawn the effect
-   */
-  private void createPurpleLightningEffect(Location location) {
-    Location topLocation = location.clone().add(0, 10, 0);
-
-    // Create vertical purple particle beam
-    for (double y = 0; y <= 10; y += 0.3) {
-      Location particleLocation = location.clone().add(0, y, 0);
-
-      // Main purple beam
-      particleLocation.getWorld().spawnParticle(
-        Particle.DUST,
-        particleLocation,
-        5,
-        0.1,
-        0.1,
-        0.1,
-        0,
-        new Particle.DustOptions(Color.fromRGB(128, 0, 128), 2.0f)
-      );
-
-      // Electric effect
-      particleLocation.getWorld().spawnParticle(
-        Particle.ELECTRIC_SPARK,
-        particleLocation,
-        3,
-        0.2,
-        0.2,
-        0.2,
-        0.05
-      );
-    }
-
-    // Add explosion effect at impact
-    location.getWorld().spawnParticle(
-      Particle.DUST,
-      location,
-      50,
-      0.5,
-      0.5,
-      0.5,
-      0,
-      new Particle.DustOptions(Color.fromRGB(255, 0, 255), 1.5f)
-    );
-
-    // Add flash effect
-    location.getWorld().spawnParticle(
-      Particle.FLASH,
-      location,
-      1,
-      0,
-      0,
-      0,
-      0
-    );
-  }
 }
@@ -0,0 +1,407 @@
+package org.cavarest.dragonegglightning.ability;
+
+import com.destroystokyo.paper.event.entity.EntityAddToWorldEvent;
+import com.destroystokyo.paper.event.entity.EntityRemoveFromWorldEvent;
+import io.papermc.paper.event.entity.EntityMoveEvent;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
+import org.bukkit.event.world.EntitiesLoadEvent;
+import org.bukkit.event.world.EntitiesUnloadEvent;
+import org.bukkit.plugin.Plugin;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index of the living entities in each world, bucketed by chunk section
+ * (16x16x16 blocks), so target searches only touch the sections around
+ * the caster instead of every entity in a 100-block cube.
+ *
+ * Entities enter and leave the index with the world ({@link
+ * EntityAddToWorldEvent}, {@link EntityRemoveFromWorldEvent}, which also
+ * cover chunk loads and unloads) and change bucket when a move event
+ * carries them into another section. Paper fires a move event for every
+ * moving entity every tick once anyone listens, so a move is first
+ * checked by comparing the section keys of its two ends, and only moves
+ * that cross a section boundary touch the maps. Queries read only loaded
+ * entities and never load chunks.
+ *
+ * Entities that were already loaded before the index started are picked
+ * up lazily: a section counts as covered once its chunk's entities were
+ * loaded while the index was listening, or once a query scanned it. A
+ * query over sections that are not covered scans them with
+ * {@link World#getNearbyEntities} first, and only marks the sections the
+ * current thread owns, so on Folia a region never vouches for another's.
+ */
+public class LivingEntityIndex implements Listener {
+
+  /**
+   * Receives the entities found by a query, with their position.
+   */
+  @FunctionalInterface
+  public interface Visitor {
+
+    /**
+     * Visit one living entity inside the queried box.
+     *
+     * @param entity The entity
+     * @param x The entity's X coordinate
+     * @param y The entity's Y coordinate
+     * @param z The entity's Z coordinate
+     */
+    void visit(LivingEntity entity, double x, double y, double z);
+  }
+
+  /**
+   * Per-world buckets. Each entity is only moved by the thread that owns
+   * it, so updates to one entity never race; buckets are shared between
+   * regions and updated atomically per section. An entity's section is
+   * only written when it enters the index or crosses into another section.
+   */
+  private static final class WorldIndex {
+    private final Map<Long, Set<LivingEntity>> sections = new ConcurrentHashMap<>();
+    private final Map<UUID, Long> entitySections = new ConcurrentHashMap<>();
+    private final Set<Long> coveredSections = ConcurrentHashMap.newKeySet();
+  }
+
+  private final Plugin plugin;
+  private final Map<UUID, WorldIndex> worlds = new ConcurrentHashMap<>();
+
+  /**
+   * Create an index. Nothing is tracked until {@link #start()}.
+   *
+   * @param plugin The plugin, or null in tests
+   */
+  public LivingEntityIndex(Plugin plugin) {
+    this.plugin = plugin;
+  }
+
+  /**
+   * Register the event listeners. Entities already loaded are indexed on
+   * first query.
+   */
+  public void start() {
+    if (plugin == null || plugin.getServer() == null) {
+      return;
+    }
+    plugin.getServer().getPluginManager().registerEvents(this, plugin);
+  }
+
+  /**
+   * Forget every entity.
+   */
+  public void stop() {
+    worlds.clear();
+  }
+
+  /**
+   * Pack chunk section coordinates into one key, in the same layout as
+   * Minecraft's section positions.
+   *
+   * @param sectionX The section X coordinate (block X >> 4)
+   * @param sectionY The section Y coordinate (block Y >> 4)
+   * @param sectionZ The section Z coordinate (block Z >> 4)
+   * @return The section key
+   */
+  public static long sectionKey(int sectionX, int sectionY, int sectionZ) {
+    return ((long) (sectionX & 0x3FFFFF) << 42)
+      | ((long) (sectionZ & 0x3FFFFF) << 20)
+      | (sectionY & 0xFFFFF);
+  }
+
+  private static int section(double coordinate) {
+    return (int) Math.floor(coordinate) >> 4;
+  }
+
+  private static long sectionKey(double x, double y, double z) {
+    return sectionKey(section(x), section(y), section(z));
+  }
+
+  /**
+   * Add or move an entity to the bucket of its current location.
+   *
+   * @param entity The entity
+   */
+  public void track(LivingEntity entity) {
+    Location location = entity.getLocation();
+    moveTo(index(entity.getWorld()), entity, location.getX(), location.getY(), location.getZ());
+  }
+
+  /**
+   * Remove an entity from the index.
+   *
+   * @param entity The entity
+   */
+  public void untrack(LivingEntity entity) {
+    WorldIndex index = worlds.get(entity.getWorld().getUID());
+    if (index != null) {
+      remove(index, entity);
+    } else {
+      // The entity is leaving a world we never indexed, or changed worlds
+      for (WorldIndex other : worlds.values()) {
+        remove(other, entity);
+      }
+    }
+  }
+
+  /**
+   * Get the number of entities in a world's index.
+   *
+   * @param world The world
+   * @return The indexed entity count
+   */
+  public int size(World world) {
+    WorldIndex index = worlds.get(world.getUID());
+    return index != null ? index.entitySections.size() : 0;
+  }
+
+  /**
+   * Mark every section of a chunk as covered, because its entities are
+   * being loaded while the index listens.
+   *
+   * @param world The world
+   * @param chunkX The chunk X coordinate
+   * @param chunkZ The chunk Z coordinate
+   */
+  public void coverChunk(World world, int chunkX, int chunkZ) {
+    WorldIndex index = index(world);
+    for (int sy = world.getMinHeight() >> 4; sy <= (world.getMaxHeight() - 1) >> 4; sy++) {
+      index.coveredSections.add(sectionKey(chunkX, sy, chunkZ));
+    }
+  }
+
+  /**
+   * Forget that a chunk is covered after it unloaded.
+   *
+   * @param world The world
+   * @param chunkX The chunk X coordinate
+   * @param chunkZ The chunk Z coordinate
+   */
+  public void uncoverChunk(World world, int chunkX, int chunkZ) {
+    WorldIndex index = worlds.get(world.getUID());
+    if (index == null) {
+      return;
+    }
+    for (int sy = world.getMinHeight() >> 4; sy <= (world.getMaxHeight() - 1) >> 4; sy++) {
+      index.coveredSections.remove(sectionKey(chunkX, sy, chunkZ));
+    }
+  }
+
+  /**
+   * Visit every living entity inside a box, touching only the sections it
+   * overlaps. Sections not covered yet are scanned once first.
+   *
+   * @param world The world
+   * @param minX The smallest X in the box
+   * @param minY The smallest Y in the box
+   * @param minZ The smallest Z in the box
+   * @param maxX The largest X in the box
+   * @param maxY The largest Y in the box
+   * @param maxZ The largest Z in the box
+   * @param visitor Receives each entity inside the box
+   */
+  public void forEachInBox(
+    World world,
+    double minX,
+    double minY,
+    double minZ,
+    double maxX,
+    double maxY,
+    double maxZ,
+    Visitor visitor
+  ) {
+    WorldIndex index = index(world);
+    int minSx = section(minX);
+    int minSy = section(minY);
+    int minSz = section(minZ);
+    int maxSx = section(maxX);
+    int maxSy = section(maxY);
+    int maxSz = section(maxZ);
+    ensureCovered(world, index, minSx, minSy, minSz, maxSx, maxSy, maxSz);
+
+    Location scratch = new Location(world, 0, 0, 0);
+    for (int sx = minSx; sx <= maxSx; sx++) {
+      for (int sz = minSz; sz <= maxSz; sz++) {
+        for (int sy = minSy; sy <= maxSy; sy++) {
+          Set<LivingEntity> bucket = index.sections.get(sectionKey(sx, sy, sz));
+          if (bucket == null) {
+            continue;
+          }
+          for (LivingEntity entity : bucket) {
+            Location location = entity.getLocation(scratch);
+            double x = location.getX();
+            double y = location.getY();
+            double z = location.getZ();
+            if (x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ) {
+              visitor.visit(entity, x, y, z);
+            }
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Scan the sections of a box that are not covered yet and index what
+   * they contain.
+   */
+  private void ensureCovered(
+    World world,
+    WorldIndex index,
+    int minSx,
+    int minSy,
+    int minSz,
+    int maxSx,
+    int maxSy,
+    int maxSz
+  ) {
+    boolean covered = true;
+    for (int sx = minSx; sx <= maxSx && covered; sx++) {
+      for (int sz = minSz; sz <= maxSz && covered; sz++) {
+        for (int sy = minSy; sy <= maxSy; sy++) {
+          if (!index.coveredSections.contains(sectionKey(sx, sy, sz))) {
+            covered = false;
+            break;
+          }
+        }
+      }
+    }
+    if (covered) {
+      return;
+    }
+
+    double halfX = (maxSx - minSx + 1) * 8.0;
+    double halfY = (maxSy - minSy + 1) * 8.0;
+    double halfZ = (maxSz - minSz + 1) * 8.0;
+    Location center = new Location(world, minSx * 16.0 + halfX, minSy * 16.0 + halfY, minSz * 16.0 + halfZ);
+    for (Entity entity : world.getNearbyEntities(center, halfX, halfY, halfZ)) {
+      if (entity instanceof LivingEntity living && !living.isDead()) {
+        track(living);
+      }
+    }
+    for (int sx = minSx; sx <= maxSx; sx++) {
+      for (int sz = minSz; sz <= maxSz; sz++) {
+        if (!Bukkit.isOwnedByCurrentRegion(world, sx, sz)) {
+          continue;
+        }
+        for (int sy = minSy; sy <= maxSy; sy++) {
+          index.coveredSections.add(sectionKey(sx, sy, sz));
+        }
+      }
+    }
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR)
+  public void onEntityAddToWorld(EntityAddToWorldEvent event) {
+    if (event.getEntity() instanceof LivingEntity living) {
+      Location location = living.getLocation();
+      moveTo(index(event.getWorld()), living, location.getX(), location.getY(), location.getZ());
+    }
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR)
+  public void onEntityRemoveFromWorld(EntityRemoveFromWorldEvent event) {
+    if (event.getEntity() instanceof LivingEntity living) {
+      WorldIndex index = worlds.get(event.getWorld().getUID());
+      if (index != null) {
+        remove(index, living);
+      }
+    }
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR)
+  public void onEntitiesLoad(EntitiesLoadEvent event) {
+    Chunk chunk = event.getChunk();
+    coverChunk(event.getWorld(), chunk.getX(), chunk.getZ());
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR)
+  public void onEntitiesUnload(EntitiesUnloadEvent event) {
+    Chunk chunk = event.getChunk();
+    uncoverChunk(event.getWorld(), chunk.getX(), chunk.getZ());
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void onEntityMove(EntityMoveEvent event) {
+    if (event.hasChangedBlock()) {
+      moved(event.getEntity(), event.getFrom(), event.getTo());
+    }
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void onPlayerMove(PlayerMoveEvent event) {
+    moved(event.getPlayer(), event.getFrom(), event.getTo());
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void onPlayerTeleport(PlayerTeleportEvent event) {
+    moved(event.getPlayer(), event.getFrom(), event.getTo());
+  }
+
+  /**
+   * Move an entity to the bucket of its new location if the move crossed
+   * into another section. Changes of world are left to the add and remove
+   * events.
+   */
+  private void moved(LivingEntity entity, Location from, Location to) {
+    if (to == null || from.getWorld() != to.getWorld()) {
+      return;
+    }
+    long key = sectionKey(to.getX(), to.getY(), to.getZ());
+    if (key == sectionKey(from.getX(), from.getY(), from.getZ())) {
+      return;
+    }
+    WorldIndex index = worlds.get(to.getWorld().getUID());
+    if (index != null) {
+      moveTo(index, entity, key);
+    }
+  }
+
+  private void moveTo(WorldIndex index, LivingEntity entity, double x, double y, double z) {
+    moveTo(index, entity, sectionKey(x, y, z));
+  }
+
+  private void moveTo(WorldIndex index, LivingEntity entity, long key) {
+    Long previous = index.entitySections.put(entity.getUniqueId(), key);
+    if (previous != null && previous == key) {
+      return;
+    }
+    if (previous != null) {
+      removeFromBucket(index, previous, entity);
+    }
+    index.sections.compute(key, (k, bucket) -> {
+      Set<LivingEntity> target = bucket != null ? bucket : ConcurrentHashMap.newKeySet();
+      target.add(entity);
+      return target;
+    });
+  }
+
+  private void remove(WorldIndex index, LivingEntity entity) {
+    Long previous = index.entitySections.remove(entity.getUniqueId());
+    if (previous != null) {
+      removeFromBucket(index, previous, entity);
+    }
+  }
+
+  private static void removeFromBucket(WorldIndex index, long key, LivingEntity entity) {
+    index.sections.computeIfPresent(key, (k, bucket) -> {
+      bucket.remove(entity);
+      return bucket.isEmpty() ? null : bucket;
+    });
+  }
+
+  private WorldIndex index(World world) {
+    return worlds.computeIfAbsent(world.getUID(), id -> new WorldIndex());
+  }
+}
@@ -0,0 +1,218 @@
+package org.cavarest.dragonegglightning.ability;
+
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Drives every strike sequence in flight from a single task.
+ *
+ * Casts live in parallel arrays: the cast, its caster's UUID, the tick
+ * its next strike is due and its interval. A task on the global region
+ * scheduler advances the engine once per server tick and strikes the due
+ * casts in one pass, so the scheduler carries one task however many casts
+ * are running. Casters are looked up by UUID when a strike is due; a cast
+ * whose caster has quit is cancelled and dropped.
+ *
+ * On plain Paper the global scheduler runs on the main thread and due
+ * strikes run inline. On Folia each due strike is handed to its caster's
+ * entity scheduler, and the cast is dropped once it reports itself
+ * finished. New casts are queued from any thread and join at the next
+ * tick; the arrays are only touched by the engine's task.
+ */
+public class StrikeEngine {
+
+  /**
+   * One strike sequence driven by the engine.
+   */
+  public interface Cast {
+
+    /**
+     * Deliver the next strike, on the thread that owns the caster.
+     *
+     * @param caster The casting player
+     * @return true if more strikes should follow
+     */
+    boolean strike(Player caster);
+
+    /**
+     * Check whether the cast has ended on its own.
+     *
+     * @return true once no more strikes will follow
+     */
+    boolean isFinished();
+
+    /**
+     * End the cast early because its caster is gone.
+     */
+    void cancel();
+  }
+
+  private record Pending(UUID casterId, Cast cast, long delayTicks, long intervalTicks) {
+  }
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private final Plugin plugin;
+  private final Queue<Pending> pending = new ConcurrentLinkedQueue<>();
+  private Cast[] casts = new Cast[INITIAL_CAPACITY];
+  private UUID[] casterIds = new UUID[INITIAL_CAPACITY];
+  private long[] dueTicks = new long[INITIAL_CAPACITY];
+  private long[] intervals = new long[INITIAL_CAPACITY];
+  private int count;
+  private long tick;
+  private volatile int activeCasts;
+  private ScheduledTask task;
+
+  /**
+   * Create an engine. Nothing is advanced until {@link #start()}.
+   *
+   * @param plugin The plugin that owns the engine's task
+   */
+  public StrikeEngine(Plugin plugin) {
+    this.plugin = plugin;
+  }
+
+  /**
+   * Start advancing casts once per tick.
+   */
+  public void start() {
+    if (plugin == null || plugin.getServer() == null) {
+      return;
+    }
+    task = plugin.getServer().getGlobalRegionScheduler().runAtFixedRate(
+      plugin,
+      scheduled -> tick(),
+      1L,
+      1L
+    );
+  }
+
+  /**
+   * Stop the engine and cancel every cast in flight.
+   */
+  public void stop() {
+    if (task != null) {
+      task.cancel();
+      task = null;
+    }
+    drainPending();
+    for (int i = 0; i < count; i++) {
+      casts[i].cancel();
+    }
+    Arrays.fill(casts, 0, count, null);
+    Arrays.fill(casterIds, 0, count, null);
+    count = 0;
+    activeCasts = 0;
+  }
+
+  /**
+   * Add a cast whose first strike has already landed. Its next strike is
+   * due one interval from now.
+   *
+   * @param caster The casting player
+   * @param cast The cast
+   * @param intervalTicks Ticks between strikes
+   */
+  public void schedule(Player caster, Cast cast, long intervalTicks) {
+    schedule(caster, cast, intervalTicks, intervalTicks);
+  }
+
+  /**
+   * Add a cast whose first strike is due after a delay. A delay of 0
+   * strikes at the engine's next tick, like a delay of 1.
+   *
+   * @param caster The casting player
+   * @param cast The cast
+   * @param delayTicks Ticks until the first strike
+   * @param intervalTicks Ticks between strikes
+   */
+  public void schedule(Player caster, Cast cast, long delayTicks, long intervalTicks) {
+    pending.add(new Pending(caster.getUniqueId(), cast, delayTicks, intervalTicks));
+  }
+
+  /**
+   * Get the number of casts the engine was driving at the end of its last
+   * tick.
+   *
+   * @return The active cast count
+   */
+  public int getActiveCasts() {
+    return activeCasts;
+  }
+
+  /**
+   * Advance the engine by one tick: add new casts, strike the due ones
+   * and drop those that ended. Called by the engine's task.
+   */
+  public void tick() {
+    tick++;
+    drainPending();
+
+    // Strike and compact in one pass
+    int live = 0;
+    for (int i = 0; i < count; i++) {
+      Cast cast = casts[i];
+      boolean keep = !cast.isFinished();
+      if (keep && dueTicks[i] <= tick) {
+        keep = advance(cast, casterIds[i]);
+        dueTicks[i] += intervals[i];
+      }
+      if (keep) {
+        casts[live] = cast;
+        casterIds[live] = casterIds[i];
+        dueTicks[live] = dueTicks[i];
+        intervals[live] = intervals[i];
+        live++;
+      }
+    }
+    Arrays.fill(casts, live, count, null);
+    Arrays.fill(casterIds, live, count, null);
+    count = live;
+    activeCasts = live;
+  }
+
+  /**
+   * Deliver a due strike.
+   *
+   * @return false if the cast is over
+   */
+  private boolean advance(Cast cast, UUID casterId) {
+    Player caster = plugin.getServer().getPlayer(casterId);
+    if (caster == null) {
+      cast.cancel();
+      return false;
+    }
+    if (Bukkit.isOwnedByCurrentRegion(caster)) {
+      return cast.strike(caster);
+    }
+    caster.getScheduler().run(plugin, scheduled -> cast.strike(caster), cast::cancel);
+    return true;
+  }
+
+  private void drainPending() {
+    Pending next;
+    while ((next = pending.poll()) != null) {
+      if (count == casts.length) {
+        int capacity = count * 2;
+        casts = Arrays.copyOf(casts, capacity);
+        casterIds = Arrays.copyOf(casterIds, capacity);
+        dueTicks = Arrays.copyOf(dueTicks, capacity);
+        intervals = Arrays.copyOf(intervals, capacity);
+      }
+      // Joins at the tick after it was scheduled, so a delay from now is
+      // delay - 1 ticks from here
+      casts[count] = next.cast();
+      casterIds[count] = next.casterId();
+      dueTicks[count] = tick + Math.max(0L, next.delayTicks() - 1);
+      intervals[count] = next.intervalTicks();
+      count++;
+    }
+  }
+}
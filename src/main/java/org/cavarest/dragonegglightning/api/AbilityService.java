@@ -0,0 +1,75 @@
+package org.cavarest.dragonegglightning.api;
+
+import org.cavarest.dragonegglightning.ability.Ability;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * Public entry point for plugins that contribute abilities.
+ *
+ * Registered with Bukkit's ServicesManager while DragonEggLightning is
+ * enabled; look it up with
+ * {@code getServer().getServicesManager().load(AbilityService.class)}
+ * after declaring {@code depend: [DragonEggLightning]}. Registered
+ * abilities share the plugin's cooldown store, HUD loop and
+ * {@code /ability <number>} command, so they add no per-tick tasks of
+ * their own. All methods must be called on the main thread.
+ */
+public interface AbilityService {
+
+  /**
+   * Register an ability. Abilities are matched by name, so an ability
+   * registered again after its plugin reloads gets back the same id and
+   * cooldown slot, and players keep their running cooldowns.
+   *
+   * @param owner The plugin contributing the ability
+   * @param ability The ability
+   * @return The ability id, usable as {@code /ability <id>}
+   * @throws IllegalArgumentException If an ability with that name is already registered
+   * @throws IllegalStateException If all cooldown slots are in use
+   */
+  int registerAbility(Plugin owner, Ability ability);
+
+  /**
+   * Unregister every ability contributed by a plugin. Called automatically
+   * when the plugin is disabled.
+   *
+   * @param owner The plugin
+   * @return The number of abilities removed
+   */
+  int unregisterAbilities(Plugin owner);
+
+  /**
+   * Get an ability by id.
+   *
+   * @param abilityId The ability id
+   * @return The ability, or null if not found
+   */
+  Ability getAbility(int abilityId);
+
+  /**
+   * Get the remaining cooldown of an ability, including its shared groups.
+   *
+   * @param player The player
+   * @param ability The ability
+   * @return Remaining cooldown in seconds, or 0 if no cooldown
+   */
+  int getRemainingCooldown(Player player, Ability ability);
+
+  /**
+   * Set the cooldown of an ability, including its shared groups.
+   *
+   * @param player The player
+   * @param ability The ability
+   * @param cooldownSeconds Cooldown in seconds
+   */
+  void setCooldown(Player player, Ability ability, int cooldownSeconds);
+
+  /**
+   * Clear the cooldown of an ability, including its shared groups.
+   *
+   * @param player The player
+   * @param ability The ability
+   */
+  void clearCooldown(Player player, Ability ability);
+}
@@ -3,6 +3,10 @@ package org.cavarest.dragonegglightning.command;
 import org.cavarest.dragonegglightning.DragonEggLightningPlugin;
 import org.cavarest.dragonegglightning.ability.Ability;
 import org.cavarest.dragonegglightning.ability.AbilityManager;
+import org.cavarest.dragonegglightning.ability.AbilityRegistry;
+import org.cavarest.dragonegglightning.ability.CastResult;
+import org.cavarest.dragonegglightning.hud.HudBackendType;
+import org.cavarest.dragonegglightning.hud.HudManager;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 import org.bukkit.command.Command;
@@ -79,6 +83,10 @@ public class AbilityCommand implements CommandExecutor, TabCompleter {
       player.sendMessage(
         Component.text("6. 60 second cooldown between uses", NamedTextColor.GRAY)
       );
+      player.sendMessage(
+        Component.text("Use /ability hud <action-bar|boss-bar|item-cooldown> to change how cooldowns are shown", NamedTextColor.GRAY)
+      );
+      sendOtherAbilities(player);
       return true;
     }
 
@@ -88,10 +96,16 @@ public class AbilityCommand implements CommandExecutor, TabCompleter {
       return true;
     }
 
+    // Handle HUD style command
+    if (args.length >= 1 && args.length <= 2 && args[0].equalsIgnoreCase("hud")) {
+      handleHudCommand(player, args.length == 2 ? args[1] : null);
+      return true;
+    }
+
     // Check arguments for ability use
     if (args.length != 1) {
       player.sendMessage(
-        Component.text("Usage: /ability <number> | /ability version | /ability help", NamedTextColor.RED)
+        Component.text("Usage: /ability <number> | /ability hud [style] | /ability version | /ability help", NamedTextColor.RED)
       );
       return true;
     }
@@ -116,41 +130,94 @@ public class AbilityCommand implements CommandExecutor, TabCompleter {
       return true;
     }
 
-    // Check if player has required item
-    if (!ability.hasRequiredItem(player)) {
+    // Check the item and cooldown, then cast
+    CastResult result = abilityManager.tryCast(player, ability);
+    switch (result.status()) {
+      case OK:
+        break;
+      case MISSING_ITEM:
+        player.sendMessage(
+          Component.text(ability.getMissingItemMessage(), NamedTextColor.RED)
+        );
+        break;
+      case ON_COOLDOWN:
+        player.sendMessage(
+          Component.text(
+            "Ability on cooldown! " + result.remainingSeconds() + " seconds remaining.",
+            NamedTextColor.RED
+          )
+        );
+        break;
+      case NO_TARGET:
+        player.sendMessage(
+          Component.text("No valid target found!", NamedTextColor.RED)
+        );
+        break;
+      default:
+        player.sendMessage(
+          Component.text(
+            "Failed to use ability!",
+            NamedTextColor.RED
+          )
+        );
+        break;
+    }
+
+    return true;
+  }
+
+  /**
+   * Show or change the player's HUD style.
+   *
+   * @param player The player
+   * @param style The style to switch to, or null to show the current one
+   */
+  private void handleHudCommand(Player player, String style) {
+    HudManager hudManager = plugin.getHudManager();
+    if (hudManager == null) {
+      player.sendMessage(Component.text("The HUD is not available.", NamedTextColor.RED));
+      return;
+    }
+    if (style == null) {
       player.sendMessage(
-        Component.text(
-          "You must hold a Dragon Egg in your offhand to use this ability!",
-          NamedTextColor.RED
-        )
+        Component.text("HUD style: " + hudManager.getBackend(player).configName(), NamedTextColor.GREEN)
       );
-      return true;
+      return;
     }
-
-    // Check cooldown
-    if (abilityManager.isOnCooldown(player)) {
-      int remaining = abilityManager.getRemainingCooldown(player);
+    HudBackendType type = HudBackendType.parse(style, null);
+    if (type == null) {
       player.sendMessage(
-        Component.text(
-          "Ability on cooldown! " + remaining + " seconds remaining.",
-          NamedTextColor.RED
-        )
+        Component.text("Unknown HUD style! Use action-bar, boss-bar or item-cooldown.", NamedTextColor.RED)
       );
-      return true;
+      return;
     }
+    hudManager.setBackend(player, type);
+    player.sendMessage(
+      Component.text("HUD style set to " + type.configName() + ".", NamedTextColor.GREEN)
+    );
+  }
 
-    // Use ability
-    boolean success = abilityManager.useAbility(player, ability);
-    if (!success) {
+  /**
+   * List abilities contributed by other plugins, if any.
+   *
+   * @param player The player asking for help
+   */
+  private void sendOtherAbilities(Player player) {
+    AbilityRegistry registry = abilityManager.getRegistry();
+    boolean header = false;
+    for (int id = 2; id <= registry.getMaxId(); id++) {
+      Ability ability = registry.get(id);
+      if (ability == null) {
+        continue;
+      }
+      if (!header) {
+        player.sendMessage(Component.text("Other abilities:", NamedTextColor.WHITE));
+        header = true;
+      }
       player.sendMessage(
-        Component.text(
-          "Failed to use ability!",
-          NamedTextColor.RED
-        )
+        Component.text("/ability " + id + " - " + ability.getName(), NamedTextColor.GRAY)
       );
     }
-
-    return true;
   }
 
   @Override
@@ -164,13 +231,25 @@ public class AbilityCommand implements CommandExecutor, TabCompleter {
 
     if (args.length == 1) {
       // Only show supported commands
-      completions.add("1");      // Lightning ability
+      AbilityRegistry registry = abilityManager.getRegistry();
+      for (int id = 1; id <= registry.getMaxId(); id++) {
+        if (registry.get(id) != null) {
+          completions.add(Integer.toString(id)); // Registered abilities
+        }
+      }
+      completions.add("hud");     // HUD style
       completions.add("version"); // Version info
       completions.add("help");    // Help text
 
       // Filter completions based on what the player has typed
       String partial = args[0].toLowerCase();
       completions.removeIf(comp -> !comp.toLowerCase().startsWith(partial));
+    } else if (args.length == 2 && args[0].equalsIgnoreCase("hud")) {
+      for (HudBackendType type : HudBackendType.values()) {
+        completions.add(type.configName());
+      }
+      String partial = args[1].toLowerCase();
+      completions.removeIf(comp -> !comp.startsWith(partial));
     }
 
     return completions;
@@ -2,6 +2,9 @@ package org.cavarest.dragonegglightning.command;
 
 import org.cavarest.dragonegglightning.DragonEggLightningPlugin;
 import org.cavarest.dragonegglightning.ability.AbilityManager;
+import org.cavarest.dragonegglightning.ability.StrikeEngine;
+import org.cavarest.dragonegglightning.effect.EffectDetail;
+import org.cavarest.dragonegglightning.effect.EffectQualityGovernor;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 import org.bukkit.Bukkit;
@@ -9,25 +12,47 @@ import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.TabCompleter;
+import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.UUID;
 
 /**
  * Admin command for DragonEgg Lightning plugin.
  * Usage: /dragonlightning <subcommand> [args]
  *
  * Subcommands:
- *   setcooldown <player> <seconds>  - Set cooldown for a player
- *   clearcooldown <player>          - Clear cooldown for a player
- *   getcooldown <player>            - Get remaining cooldown for a player
+ *   setcooldown <targets> <seconds> - Set cooldown for players
+ *   clearcooldown <targets>         - Clear cooldown for players
+ *   getcooldown <targets>           - Get remaining cooldown for players
  *   setglobalcooldown <seconds>     - Set global cooldown duration
  *   getglobalcooldown               - Get current global cooldown setting
+ *   strikes                         - Show how many lightning casts are in flight
+ *   quality [tier|auto]             - Show or pin the lightning effect quality tier
+ *
+ * Targets are a player name, an entity selector such as
+ * {@code @a[distance=..50]}, {@code perm:<permission>},
+ * {@code group:<group>} (players with the {@code group.<group>}
+ * permission most permission plugins grant), or {@code *} for every
+ * stored cooldown including offline players. Bulk targets are applied in
+ * one pass over the cooldown store and answered with counts.
  */
 public class AdminCommand implements CommandExecutor, TabCompleter {
 
+    private static final String ALL_STORED = "*";
+    private static final String PERMISSION_PREFIX = "perm:";
+    private static final String GROUP_PREFIX = "group:";
+
+    /**
+     * Players matched by a bulk target. A null id list means every stored
+     * cooldown entry.
+     */
+    private record Targets(String description, List<UUID> playerIds) {
+    }
+
     private final DragonEggLightningPlugin plugin;
     private final AbilityManager abilityManager;
 
@@ -62,6 +87,10 @@ public class AdminCommand implements CommandExecutor, TabCompleter {
                 return handleSetGlobalCooldown(sender, args);
             case "getglobalcooldown":
                 return handleGetGlobalCooldown(sender);
+            case "strikes":
+                return handleStrikes(sender);
+            case "quality":
+                return handleQuality(sender, args);
             case "help":
             default:
                 showHelp(sender);
@@ -71,10 +100,14 @@ public class AdminCommand implements CommandExecutor, TabCompleter {
 
     private boolean handleSetCooldown(CommandSender sender, String[] args) {
         if (args.length < 3) {
-            sender.sendMessage(Component.text("Usage: /dragonlightning setcooldown <player> <seconds>", NamedTextColor.RED));
+            sender.sendMessage(Component.text("Usage: /dragonlightning setcooldown <targets> <seconds>", NamedTextColor.RED));
             return true;
         }
 
+        if (isBulkTarget(args[1])) {
+            return handleBulkSetCooldown(sender, args[1], args[2]);
+        }
+
         Player target = Bukkit.getPlayer(args[1]);
         if (target == null) {
             sender.sendMessage(Component.text("Player '" + args[1] + "' not found!", NamedTextColor.RED));
@@ -93,7 +126,16 @@ public class AdminCommand implements CommandExecutor, TabCompleter {
 
     private boolean handleClearCooldown(CommandSender sender, String[] args) {
         if (args.length < 2) {
-            sender.sendMessage(Component.text("Usage: /dragonlightning clearcooldown <player>", NamedTextColor.RED));
+            sender.sendMessage(Component.text("Usage: /dragonlightning clearcooldown <targets>", NamedTextColor.RED));
+            return true;
+        }
+
+        if (isBulkTarget(args[1])) {
+            Targets targets = resolveTargets(sender, args[1]);
+            if (targets != null) {
+                int cleared = abilityManager.clearCooldowns(targets.playerIds());
+                sender.sendMessage(Component.text("Cleared " + cleared + " cooldowns for " + targets.description() + ".", NamedTextColor.GREEN));
+            }
             return true;
         }
 
@@ -110,7 +152,16 @@ public class AdminCommand implements CommandExecutor, TabCompleter {
 
     private boolean handleGetCooldown(CommandSender sender, String[] args) {
         if (args.length < 2) {
-            sender.sendMessage(Component.text("Usage: /dragonlightning getcooldown <player>", NamedTextColor.RED));
+            sender.sendMessage(Component.text("Usage: /dragonlightning getcooldown <targets>", NamedTextColor.RED));
+            return true;
+        }
+
+        if (isBulkTarget(args[1])) {
+            Targets targets = resolveTargets(sender, args[1]);
+            if (targets != null) {
+                int onCooldown = abilityManager.countPlayersOnCooldown(targets.playerIds());
+                sender.sendMessage(Component.text(onCooldown + " players on cooldown among " + targets.description() + ".", NamedTextColor.AQUA));
+            }
             return true;
         }
 
@@ -129,6 +180,70 @@ public class AdminCommand implements CommandExecutor, TabCompleter {
         return true;
     }
 
+    private boolean handleBulkSetCooldown(CommandSender sender, String target, String secondsArg) {
+        int seconds;
+        try {
+            seconds = Integer.parseInt(secondsArg);
+        } catch (NumberFormatException e) {
+            sender.sendMessage(Component.text("Invalid number: " + secondsArg, NamedTextColor.RED));
+            return true;
+        }
+
+        Targets targets = resolveTargets(sender, target);
+        if (targets != null) {
+            int updated = abilityManager.setCooldowns(targets.playerIds(), seconds);
+            sender.sendMessage(Component.text("Set cooldown for " + updated + " players (" + targets.description() + ") to " + seconds + " seconds.", NamedTextColor.GREEN));
+        }
+        return true;
+    }
+
+    private boolean isBulkTarget(String target) {
+        return target.equals(ALL_STORED)
+            || target.startsWith("@")
+            || target.startsWith(PERMISSION_PREFIX)
+            || target.startsWith(GROUP_PREFIX);
+    }
+
+    /**
+     * Resolve a bulk target to player ids, reporting bad selectors to the
+     * sender.
+     *
+     * @param sender The command sender
+     * @param target The target argument
+     * @return The matched players, or null if the target is invalid
+     */
+    private Targets resolveTargets(CommandSender sender, String target) {
+        if (target.equals(ALL_STORED)) {
+            return new Targets("all stored players", null);
+        }
+
+        List<UUID> playerIds = new ArrayList<>();
+        if (target.startsWith(PERMISSION_PREFIX) || target.startsWith(GROUP_PREFIX)) {
+            String permission = target.startsWith(PERMISSION_PREFIX)
+                ? target.substring(PERMISSION_PREFIX.length())
+                : "group." + target.substring(GROUP_PREFIX.length());
+            for (Player player : Bukkit.getOnlinePlayers()) {
+                if (player.hasPermission(permission)) {
+                    playerIds.add(player.getUniqueId());
+                }
+            }
+        } else {
+            List<Entity> entities;
+            try {
+                entities = Bukkit.selectEntities(sender, target);
+            } catch (IllegalArgumentException e) {
+                sender.sendMessage(Component.text("Invalid selector: " + target, NamedTextColor.RED));
+                return null;
+            }
+            for (Entity entity : entities) {
+                if (entity instanceof Player player) {
+                    playerIds.add(player.getUniqueId());
+                }
+            }
+        }
+        return new Targets(playerIds.size() + " matched players", playerIds);
+    }
+
     private boolean handleSetGlobalCooldown(CommandSender sender, String[] args) {
         if (args.length < 2) {
             sender.sendMessage(Component.text("Usage: /dragonlightning setglobalcooldown <seconds>", NamedTextColor.RED));
@@ -151,18 +266,72 @@ public class AdminCommand implements CommandExecutor, TabCompleter {
         return true;
     }
 
+    private boolean handleStrikes(CommandSender sender) {
+        StrikeEngine engine = plugin.getStrikeEngine();
+        int active = engine != null ? engine.getActiveCasts() : 0;
+        sender.sendMessage(Component.text("Active lightning casts: " + active, NamedTextColor.AQUA));
+        return true;
+    }
+
+    private boolean handleQuality(CommandSender sender, String[] args) {
+        EffectQualityGovernor governor = plugin.getEffectGovernor();
+        if (governor == null) {
+            sender.sendMessage(Component.text("Effect quality is not available.", NamedTextColor.RED));
+            return true;
+        }
+
+        if (args.length >= 2) {
+            if (args[1].equalsIgnoreCase("auto")) {
+                governor.pin(null);
+                sender.sendMessage(Component.text("Effect quality follows the server load again.", NamedTextColor.GREEN));
+                return true;
+            }
+            EffectDetail tier = EffectDetail.parse(args[1], null);
+            if (tier == null) {
+                sender.sendMessage(Component.text("Unknown tier: " + args[1] + " (use " + qualityNames() + " or auto)", NamedTextColor.RED));
+                return true;
+            }
+            governor.pin(tier);
+            sender.sendMessage(Component.text("Effect quality pinned to " + tier.configName() + ".", NamedTextColor.GREEN));
+            return true;
+        }
+
+        EffectDetail pinned = governor.getPinnedTier();
+        String mode = pinned != null ? "pinned" : governor.isAdaptive() ? "adaptive" : "fixed";
+        sender.sendMessage(Component.text("Effect quality is " + governor.getTier().configName() + " (" + mode + ")"
+            + String.format(", server at %.1f MSPT.", governor.getLastMspt()), NamedTextColor.AQUA));
+        if (pinned != null) {
+            sender.sendMessage(Component.text("Load would pick " + governor.getAdaptiveTier().configName()
+                + "; /dragonlightning quality auto to unpin.", NamedTextColor.GRAY));
+        }
+        return true;
+    }
+
+    private static String qualityNames() {
+        List<String> names = new ArrayList<>();
+        for (EffectDetail tier : EffectDetail.values()) {
+            names.add(tier.configName());
+        }
+        return String.join(", ", names);
+    }
+
     private void showHelp(CommandSender sender) {
         sender.sendMessage(Component.text("=== DragonEgg Lightning Admin Commands ===", NamedTextColor.GOLD));
-        sender.sendMessage(Component.text("/dragonlightning setcooldown <player> <seconds>", NamedTextColor.YELLOW)
+        sender.sendMessage(Component.text("/dragonlightning setcooldown <targets> <seconds>", NamedTextColor.YELLOW)
             .append(Component.text(" - Set player cooldown", NamedTextColor.GRAY)));
-        sender.sendMessage(Component.text("/dragonlightning clearcooldown <player>", NamedTextColor.YELLOW)
+        sender.sendMessage(Component.text("/dragonlightning clearcooldown <targets>", NamedTextColor.YELLOW)
             .append(Component.text(" - Clear player cooldown", NamedTextColor.GRAY)));
-        sender.sendMessage(Component.text("/dragonlightning getcooldown <player>", NamedTextColor.YELLOW)
+        sender.sendMessage(Component.text("/dragonlightning getcooldown <targets>", NamedTextColor.YELLOW)
             .append(Component.text(" - Get player cooldown", NamedTextColor.GRAY)));
+        sender.sendMessage(Component.text("Targets: <player>, @a[...], perm:<node>, group:<name> or * for all stored", NamedTextColor.GRAY));
         sender.sendMessage(Component.text("/dragonlightning setglobalcooldown <seconds>", NamedTextColor.YELLOW)
             .append(Component.text(" - Set global cooldown", NamedTextColor.GRAY)));
         sender.sendMessage(Component.text("/dragonlightning getglobalcooldown", NamedTextColor.YELLOW)
             .append(Component.text(" - Get global cooldown", NamedTextColor.GRAY)));
+        sender.sendMessage(Component.text("/dragonlightning strikes", NamedTextColor.YELLOW)
+            .append(Component.text(" - Show active lightning casts", NamedTextColor.GRAY)));
+        sender.sendMessage(Component.text("/dragonlightning quality [tier|auto]", NamedTextColor.YELLOW)
+            .append(Component.text(" - Show or pin lightning effect quality", NamedTextColor.GRAY)));
     }
 
     @Override
@@ -176,21 +345,29 @@ public class AdminCommand implements CommandExecutor, TabCompleter {
         if (args.length == 1) {
             completions.addAll(Arrays.asList(
                 "setcooldown", "clearcooldown", "getcooldown",
-                "setglobalcooldown", "getglobalcooldown", "help"
+                "setglobalcooldown", "getglobalcooldown", "strikes", "quality", "help"
             ));
             String partial = args[0].toLowerCase();
             completions.removeIf(c -> !c.toLowerCase().startsWith(partial));
         } else if (args.length == 2) {
             String sub = args[0].toLowerCase();
             if (sub.equals("setcooldown") || sub.equals("clearcooldown") || sub.equals("getcooldown")) {
-                // Complete with online player names
+                // Complete with online player names and bulk targets
                 for (Player p : Bukkit.getOnlinePlayers()) {
                     completions.add(p.getName());
                 }
+                completions.addAll(Arrays.asList("@a", "@a[distance=..50]", PERMISSION_PREFIX, GROUP_PREFIX, ALL_STORED));
                 String partial = args[1].toLowerCase();
                 completions.removeIf(c -> !c.toLowerCase().startsWith(partial));
             } else if (sub.equals("setglobalcooldown")) {
                 completions.addAll(Arrays.asList("5", "10", "30", "60", "120"));
+            } else if (sub.equals("quality")) {
+                for (EffectDetail tier : EffectDetail.values()) {
+                    completions.add(tier.configName());
+                }
+                completions.add("auto");
+                String partial = args[1].toLowerCase();
+                completions.removeIf(c -> !c.startsWith(partial));
             }
         } else if (args.length == 3) {
             if (args[0].equalsIgnoreCase("setcooldown")) {
@@ -0,0 +1,59 @@
+package org.cavarest.dragonegglightning.cooldown;
+
+/**
+ * Source of the current time for cooldowns, in server ticks.
+ *
+ * Cooldown expiry is stored as a tick number, so checking a cooldown is a
+ * single read of the clock and a comparison. Wall-clock time is only used
+ * where cooldowns leave the server, such as the on-disk journal.
+ */
+public interface CooldownClock {
+
+  /**
+   * Ticks per second at the normal server tick rate.
+   */
+  int TICKS_PER_SECOND = 20;
+
+  /**
+   * Milliseconds per tick at the normal server tick rate.
+   */
+  long MILLIS_PER_TICK = 50L;
+
+  /**
+   * Get the current tick.
+   *
+   * @return The current tick number
+   */
+  long currentTick();
+
+  /**
+   * Convert seconds to ticks.
+   *
+   * @param seconds The duration in seconds
+   * @return The duration in ticks
+   */
+  static long secondsToTicks(long seconds) {
+    return seconds * TICKS_PER_SECOND;
+  }
+
+  /**
+   * Convert milliseconds to ticks, rounding up so a cooldown never ends
+   * early.
+   *
+   * @param millis The duration in milliseconds
+   * @return The duration in ticks
+   */
+  static long millisToTicks(long millis) {
+    return Math.ceilDiv(millis, MILLIS_PER_TICK);
+  }
+
+  /**
+   * Convert ticks to whole seconds, rounding up, as shown to players.
+   *
+   * @param ticks The duration in ticks
+   * @return The duration in seconds
+   */
+  static int ticksToSeconds(long ticks) {
+    return (int) Math.ceilDiv(ticks, TICKS_PER_SECOND);
+  }
+}
@@ -0,0 +1,70 @@
+package org.cavarest.dragonegglightning.cooldown;
+
+/**
+ * One cooldown change exchanged between servers.
+ *
+ * Times are wall-clock epoch milliseconds, since tick counters are local
+ * to each server; servers are expected to keep their clocks in sync. The
+ * cooldown slot is identified by the hash of its key rather than its
+ * number, since servers may number their slots differently.
+ *
+ * Every change carries the time it was made, and a server applies a
+ * change only if it is newer than the last one it applied to the same
+ * slot, so changes replayed out of order, for example after a restart,
+ * never undo a later one. A clear keeps the time its cooldown would have
+ * ended as its expiry: until then it can still outrank an older cooldown
+ * another server has not let go of yet.
+ *
+ * @param mostSigBits The most significant bits of the player UUID
+ * @param leastSigBits The least significant bits of the player UUID
+ * @param slotKey The hash of the cooldown slot's key
+ * @param expiryMillis When the cooldown ends, or for a clear, until when it must be kept
+ * @param changedMillis When the change was made
+ * @param cleared Whether the change clears the cooldown
+ */
+public record CooldownDelta(
+  long mostSigBits,
+  long leastSigBits,
+  int slotKey,
+  long expiryMillis,
+  long changedMillis,
+  boolean cleared
+) {
+
+  /**
+   * Create a change that starts or replaces a cooldown.
+   *
+   * @param msb The most significant bits of the player UUID
+   * @param lsb The least significant bits of the player UUID
+   * @param slotKey The hash of the cooldown slot's key
+   * @param expiryMillis When the cooldown ends
+   * @param changedMillis When the change was made
+   * @return The change
+   */
+  public static CooldownDelta put(long msb, long lsb, int slotKey, long expiryMillis, long changedMillis) {
+    return new CooldownDelta(msb, lsb, slotKey, expiryMillis, changedMillis, false);
+  }
+
+  /**
+   * Create a change that clears a cooldown.
+   *
+   * @param msb The most significant bits of the player UUID
+   * @param lsb The least significant bits of the player UUID
+   * @param slotKey The hash of the cooldown slot's key
+   * @param keepUntilMillis When the cleared cooldown would have ended
+   * @param changedMillis When the change was made
+   * @return The change
+   */
+  public static CooldownDelta clear(long msb, long lsb, int slotKey, long keepUntilMillis, long changedMillis) {
+    return new CooldownDelta(msb, lsb, slotKey, keepUntilMillis, changedMillis, true);
+  }
+
+  /**
+   * Check whether this delta clears the cooldown.
+   *
+   * @return true for a clear
+   */
+  public boolean isClear() {
+    return cleared;
+  }
+}
@@ -0,0 +1,451 @@
+package org.cavarest.dragonegglightning.cooldown;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Append-only, memory-mapped journal of cooldown changes.
+ *
+ * Callers only enqueue records; a single background thread writes them
+ * into the mapped file, applies the {@link FsyncPolicy} and periodically
+ * compacts the file down to the cooldowns that have not expired yet.
+ * Expiry times are wall-clock epoch milliseconds so they stay meaningful
+ * across restarts.
+ *
+ * File layout: a 16 byte header (magic, version, reserved) followed by
+ * 32 byte records (kind, cooldown slot, checksum, UUID high bits, UUID
+ * low bits, expiry). Journals written before cooldown slots existed have
+ * zero in the slot field and replay as slot 0, the lightning slot. Replay stops at the first zeroed or corrupt record, so a
+ * write torn by a crash only loses that record.
+ */
+public class CooldownJournal implements AutoCloseable {
+
+  private static final int MAGIC = 0x44454C4A; // "DELJ"
+  private static final int VERSION = 1;
+  private static final int HEADER_BYTES = 16;
+  private static final int RECORD_BYTES = 32;
+  private static final int RECORD_WORDS = RECORD_BYTES / Long.BYTES;
+  private static final short KIND_PUT = 1;
+  private static final short KIND_CLEAR = 2;
+  private static final int INITIAL_MAP_BYTES = 1 << 20;
+  private static final long DRAIN_INTERVAL_MILLIS = 50L;
+
+  /**
+   * Receives live cooldowns during {@link #replay}.
+   */
+  @FunctionalInterface
+  public interface ReplayHandler {
+
+    /**
+     * Restore one cooldown.
+     *
+     * @param mostSigBits The most significant bits of the player UUID
+     * @param leastSigBits The least significant bits of the player UUID
+     * @param slot The cooldown slot
+     * @param expiryMillis The expiry as epoch milliseconds
+     */
+    void restore(long mostSigBits, long leastSigBits, int slot, long expiryMillis);
+  }
+
+  private record Change(short kind, long msb, long lsb, int slot, long expiryMillis) {
+  }
+
+  private final Path path;
+  private final FsyncPolicy fsyncPolicy;
+  private final long fsyncIntervalMillis;
+  private final Logger logger;
+  private final Queue<Change> pending = new ConcurrentLinkedQueue<>();
+  private CooldownStore live = new PrimitiveCooldownStore();
+  private ScheduledExecutorService writer;
+  private FileChannel channel;
+  private MappedByteBuffer buffer;
+  private int writePosition;
+  private long lastForceMillis;
+  private boolean dirty;
+  private volatile boolean closed;
+
+  /**
+   * Create a journal backed by the given file. Nothing is opened until
+   * {@link #replay} is called.
+   *
+   * @param path The journal file
+   * @param fsyncPolicy When to force writes to disk
+   * @param fsyncIntervalMillis Minimum time between forces for {@link FsyncPolicy#INTERVAL}
+   * @param logger Logger for I/O failures on the journal thread
+   */
+  public CooldownJournal(Path path, FsyncPolicy fsyncPolicy, long fsyncIntervalMillis, Logger logger) {
+    this.path = path;
+    this.fsyncPolicy = fsyncPolicy;
+    this.fsyncIntervalMillis = Math.max(0L, fsyncIntervalMillis);
+    this.logger = logger;
+  }
+
+  /**
+   * Open the journal, replay its records and hand every cooldown that is
+   * still running at {@code nowMillis} to the handler. Must be called once,
+   * before {@link #start}.
+   *
+   * @param nowMillis The current epoch time in milliseconds
+   * @param handler Receives each live cooldown
+   * @return The number of cooldowns restored
+   * @throws IOException If the journal cannot be read or created
+   */
+  public int replay(long nowMillis, ReplayHandler handler) throws IOException {
+    Files.createDirectories(path.toAbsolutePath().getParent());
+    channel = FileChannel.open(
+      path,
+      StandardOpenOption.CREATE,
+      StandardOpenOption.READ,
+      StandardOpenOption.WRITE
+    );
+
+    long fileSize = channel.size();
+    buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(fileSize, INITIAL_MAP_BYTES));
+    if (fileSize < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+      if (fileSize > 0) {
+        logger.warning("Cooldown journal " + path + " is not readable, starting a new one");
+      }
+      writeHeader(buffer);
+      writePosition = HEADER_BYTES;
+    } else {
+      int limit = (int) Math.min(fileSize, Integer.MAX_VALUE);
+      live = new PrimitiveCooldownStore((limit - HEADER_BYTES) / RECORD_BYTES);
+      writePosition = readRecords(buffer, limit, live);
+    }
+
+    int[] restored = new int[1];
+    live.forEach((msb, lsb, slot, expiry) -> {
+      if (expiry > nowMillis) {
+        handler.restore(msb, lsb, slot, expiry);
+        restored[0]++;
+      }
+    });
+    return restored[0];
+  }
+
+  /**
+   * Start the background thread that writes, forces and compacts.
+   *
+   * @param compactionIntervalMillis Time between compactions
+   */
+  public void start(long compactionIntervalMillis) {
+    writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "DragonEggLightning-CooldownJournal");
+      thread.setDaemon(true);
+      return thread;
+    });
+    writer.scheduleWithFixedDelay(
+      this::drainSafely,
+      DRAIN_INTERVAL_MILLIS,
+      DRAIN_INTERVAL_MILLIS,
+      TimeUnit.MILLISECONDS
+    );
+    if (compactionIntervalMillis > 0) {
+      writer.scheduleWithFixedDelay(
+        () -> compactSafely(System.currentTimeMillis()),
+        compactionIntervalMillis,
+        compactionIntervalMillis,
+        TimeUnit.MILLISECONDS
+      );
+    }
+  }
+
+  /**
+   * Record a cooldown. Never blocks; the write happens on the journal
+   * thread.
+   *
+   * @param msb The most significant bits of the player UUID
+   * @param lsb The least significant bits of the player UUID
+   * @param slot The cooldown slot
+   * @param expiryMillis The expiry as epoch milliseconds
+   */
+  public void append(long msb, long lsb, int slot, long expiryMillis) {
+    if (!closed) {
+      pending.offer(new Change(KIND_PUT, msb, lsb, slot, expiryMillis));
+    }
+  }
+
+  /**
+   * Record that a cooldown was cleared. Never blocks.
+   *
+   * @param msb The most significant bits of the player UUID
+   * @param lsb The least significant bits of the player UUID
+   * @param slot The cooldown slot
+   */
+  public void appendClear(long msb, long lsb, int slot) {
+    if (!closed) {
+      pending.offer(new Change(KIND_CLEAR, msb, lsb, slot, CooldownStore.NONE));
+    }
+  }
+
+  /**
+   * Write all queued records and wait for them to reach the mapped file.
+   * Blocks; intended for shutdown and tests.
+   */
+  public void flush() {
+    runOnWriter(this::drainSafely);
+  }
+
+  /**
+   * Rewrite the journal with only the cooldowns still running at
+   * {@code nowMillis} and wait for it to finish. Blocks; the periodic
+   * compaction runs on the journal thread.
+   *
+   * @param nowMillis The current epoch time in milliseconds
+   */
+  public void compact(long nowMillis) {
+    runOnWriter(() -> compactSafely(nowMillis));
+  }
+
+  /**
+   * Get the size of the journal contents in bytes, header included.
+   *
+   * @return The number of bytes written
+   */
+  public int getWrittenBytes() {
+    return writePosition;
+  }
+
+  /**
+   * Flush pending records, force them to disk and release the file.
+   */
+  @Override
+  public void close() {
+    if (closed) {
+      return;
+    }
+    flush();
+    closed = true;
+    if (writer != null) {
+      writer.shutdown();
+      try {
+        writer.awaitTermination(5, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    try {
+      if (buffer != null) {
+        buffer.force();
+      }
+      if (channel != null) {
+        channel.close();
+      }
+    } catch (IOException e) {
+      logger.log(Level.WARNING, "Failed to close cooldown journal " + path, e);
+    }
+  }
+
+  private void runOnWriter(Runnable task) {
+    if (writer == null || writer.isShutdown()) {
+      if (channel != null && channel.isOpen()) {
+        task.run();
+      }
+      return;
+    }
+    try {
+      writer.submit(task).get();
+    } catch (ExecutionException e) {
+      logger.log(Level.WARNING, "Cooldown journal task failed", e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void drainSafely() {
+    try {
+      drain();
+    } catch (IOException | RuntimeException e) {
+      logger.log(Level.WARNING, "Failed to write cooldown journal " + path, e);
+    }
+  }
+
+  private void compactSafely(long nowMillis) {
+    try {
+      drain();
+      compactNow(nowMillis);
+    } catch (IOException | RuntimeException e) {
+      logger.log(Level.WARNING, "Failed to compact cooldown journal " + path, e);
+    }
+  }
+
+  /**
+   * Write queued records into the mapping and apply the fsync policy.
+   * Journal thread only.
+   */
+  private void drain() throws IOException {
+    Change change;
+    while ((change = pending.poll()) != null) {
+      ensureCapacity(writePosition + RECORD_BYTES);
+      writeRecord(
+        buffer,
+        writePosition,
+        change.kind(),
+        change.slot(),
+        change.msb(),
+        change.lsb(),
+        change.expiryMillis()
+      );
+      writePosition += RECORD_BYTES;
+      if (change.kind() == KIND_PUT) {
+        live.put(change.msb(), change.lsb(), change.slot(), change.expiryMillis());
+      } else {
+        live.remove(change.msb(), change.lsb(), change.slot());
+      }
+      dirty = true;
+    }
+
+    if (!dirty) {
+      return;
+    }
+    long now = System.currentTimeMillis();
+    if (fsyncPolicy == FsyncPolicy.ALWAYS ||
+        (fsyncPolicy == FsyncPolicy.INTERVAL && now - lastForceMillis >= fsyncIntervalMillis)) {
+      buffer.force();
+      lastForceMillis = now;
+      dirty = false;
+    }
+  }
+
+  /**
+   * Write the live cooldowns to a fresh file and swap it in atomically.
+   * Journal thread only.
+   */
+  private void compactNow(long nowMillis) throws IOException {
+    CooldownStore survivors = new PrimitiveCooldownStore(live.size());
+    live.forEach((msb, lsb, slot, expiry) -> {
+      if (expiry > nowMillis) {
+        survivors.put(msb, lsb, slot, expiry);
+      }
+    });
+
+    int contentBytes = HEADER_BYTES + survivors.size() * RECORD_BYTES;
+    Path temp = path.resolveSibling(path.getFileName() + ".compact");
+    try (FileChannel out = FileChannel.open(
+      temp,
+      StandardOpenOption.CREATE,
+      StandardOpenOption.TRUNCATE_EXISTING,
+      StandardOpenOption.READ,
+      StandardOpenOption.WRITE
+    )) {
+      MappedByteBuffer map = out.map(
+        FileChannel.MapMode.READ_WRITE,
+        0,
+        Math.max(INITIAL_MAP_BYTES, Integer.highestOneBit(contentBytes) << 1)
+      );
+      writeHeader(map);
+      int[] position = {HEADER_BYTES};
+      survivors.forEach((msb, lsb, slot, expiry) -> {
+        writeRecord(map, position[0], KIND_PUT, slot, msb, lsb, expiry);
+        position[0] += RECORD_BYTES;
+      });
+      map.force();
+    }
+
+    channel.close();
+    Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+    writePosition = contentBytes;
+    live = survivors;
+    lastForceMillis = System.currentTimeMillis();
+    dirty = false;
+  }
+
+  private void ensureCapacity(int required) throws IOException {
+    if (required <= buffer.capacity()) {
+      return;
+    }
+    long newSize = buffer.capacity();
+    while (newSize < required) {
+      newSize *= 2;
+    }
+    if (newSize > Integer.MAX_VALUE) {
+      throw new IOException("Cooldown journal " + path + " is too large");
+    }
+    buffer.force();
+    buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, newSize);
+  }
+
+  /**
+   * Apply every intact record to the store and return the offset just past
+   * the last one. Records are copied out in one bulk read and decoded from
+   * a {@code long[]}, which keeps a cold (not yet compiled) startup replay
+   * fast.
+   */
+  private int readRecords(MappedByteBuffer map, int limit, CooldownStore store) {
+    int recordCount = (limit - HEADER_BYTES) / RECORD_BYTES;
+    long[] words = new long[recordCount * RECORD_WORDS];
+    map.slice(HEADER_BYTES, recordCount * RECORD_BYTES).asLongBuffer().get(words);
+
+    int record = 0;
+    for (int word = 0; word < words.length; word += RECORD_WORDS, record++) {
+      long head = words[word];
+      short kind = (short) (head >>> 48);
+      if (kind == 0) {
+        break;
+      }
+      short slot = (short) (head >>> 32);
+      long msb = words[word + 1];
+      long lsb = words[word + 2];
+      long expiry = words[word + 3];
+      if ((int) head != checksum(kind, slot, msb, lsb, expiry)) {
+        logger.warning("Cooldown journal " + path + " has a torn record at offset "
+          + (HEADER_BYTES + record * RECORD_BYTES) + ", ignoring the rest");
+        break;
+      }
+
+      if (kind == KIND_PUT) {
+        store.put(msb, lsb, slot, expiry);
+      } else if (kind == KIND_CLEAR) {
+        store.remove(msb, lsb, slot);
+      }
+    }
+    return HEADER_BYTES + record * RECORD_BYTES;
+  }
+
+  private static void writeHeader(MappedByteBuffer map) {
+    map.putInt(0, MAGIC);
+    map.putInt(4, VERSION);
+    map.putLong(8, 0L);
+  }
+
+  private static void writeRecord(
+    MappedByteBuffer map,
+    int position,
+    short kind,
+    int slot,
+    long msb,
+    long lsb,
+    long expiry
+  ) {
+    map.putInt(position + 4, checksum(kind, (short) slot, msb, lsb, expiry));
+    map.putLong(position + 8, msb);
+    map.putLong(position + 16, lsb);
+    map.putLong(position + 24, expiry);
+    map.putShort(position + 2, (short) slot);
+    // Kind goes last so a record is never seen as started before its body
+    map.putShort(position, kind);
+  }
+
+  private static int checksum(short kind, short slot, long msb, long lsb, long expiry) {
+    long h = ((long) kind << 16 | (slot & 0xFFFF)) * 0x9e3779b97f4a7c15L;
+    h = (h ^ msb) * 0xbf58476d1ce4e5b9L;
+    h = (h ^ lsb) * 0x94d049bb133111ebL;
+    h = (h ^ expiry) * 0x9e3779b97f4a7c15L;
+    return (int) (h ^ (h >>> 32));
+  }
+}
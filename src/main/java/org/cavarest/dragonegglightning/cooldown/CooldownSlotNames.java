@@ -0,0 +1,74 @@
+package org.cavarest.dragonegglightning.cooldown;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * The file next to the cooldown journal that names each cooldown slot.
+ *
+ * Journal records store a slot number, and slot numbers are handed out in
+ * registration order, which can change between restarts. Saving the key
+ * of every slot lets a restart put each restored cooldown back on the
+ * ability it belongs to. The file is a properties file of
+ * {@code <slot key>=<slot>} lines.
+ */
+public final class CooldownSlotNames {
+
+  private CooldownSlotNames() {
+  }
+
+  /**
+   * Read the saved slot of every key.
+   *
+   * @param file The slot names file
+   * @return The slot of each key; empty if the file does not exist
+   * @throws IOException If the file cannot be read
+   */
+  public static Map<String, Integer> load(Path file) throws IOException {
+    Map<String, Integer> slots = new HashMap<>();
+    if (!Files.exists(file)) {
+      return slots;
+    }
+    Properties properties = new Properties();
+    try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      properties.load(reader);
+    }
+    for (String key : properties.stringPropertyNames()) {
+      try {
+        slots.put(key, Integer.parseInt(properties.getProperty(key).trim()));
+      } catch (NumberFormatException e) {
+        // Skip hand-edited lines that are not a slot number
+      }
+    }
+    return slots;
+  }
+
+  /**
+   * Replace the file with the given slot of every key. The new contents
+   * are written to a temporary file first, so a crash never leaves a
+   * partial file behind.
+   *
+   * @param file The slot names file
+   * @param slots The slot of each key
+   * @throws IOException If the file cannot be written
+   */
+  public static void save(Path file, Map<String, Integer> slots) throws IOException {
+    Properties properties = new Properties();
+    for (Map.Entry<String, Integer> entry : slots.entrySet()) {
+      properties.setProperty(entry.getKey(), Integer.toString(entry.getValue()));
+    }
+    Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+    try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+      properties.store(writer, "Cooldown slot of each ability and cooldown group; do not edit");
+    }
+    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+}
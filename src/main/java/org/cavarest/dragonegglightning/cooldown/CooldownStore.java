@@ -0,0 +1,137 @@
+package org.cavarest.dragonegglightning.cooldown;
+
+import java.util.UUID;
+
+/**
+ * Storage for cooldown expiry times keyed by player UUID and cooldown slot.
+ *
+ * Keys are passed as the two {@code long} halves of the UUID plus an
+ * {@code int} slot (one per ability or shared cooldown group), and values
+ * are primitive expiry timestamps, so implementations can avoid boxing and
+ * per-entry objects on the hot path.
+ *
+ * An absent entry reads as {@link #NONE}, which is always in the past, so
+ * callers can compare {@code now >= get(...)} without a separate
+ * containment check.
+ */
+public interface CooldownStore {
+
+  /**
+   * Value returned for keys without a stored cooldown.
+   */
+  long NONE = 0L;
+
+  /**
+   * Receives stored entries during {@link #forEach}.
+   */
+  @FunctionalInterface
+  interface EntryVisitor {
+
+    /**
+     * Visit one stored entry.
+     *
+     * @param mostSigBits The most significant bits of the player UUID
+     * @param leastSigBits The least significant bits of the player UUID
+     * @param slot The cooldown slot
+     * @param expiry The expiry timestamp
+     */
+    void visit(long mostSigBits, long leastSigBits, int slot, long expiry);
+  }
+
+  /**
+   * Get the cooldown expiry for a player and slot.
+   *
+   * @param mostSigBits The most significant bits of the player UUID
+   * @param leastSigBits The least significant bits of the player UUID
+   * @param slot The cooldown slot
+   * @return The expiry timestamp, or {@link #NONE} if none is stored
+   */
+  long get(long mostSigBits, long leastSigBits, int slot);
+
+  /**
+   * Store the cooldown expiry for a player and slot, replacing any previous
+   * value. Storing {@link #NONE} removes the entry.
+   *
+   * @param mostSigBits The most significant bits of the player UUID
+   * @param leastSigBits The least significant bits of the player UUID
+   * @param slot The cooldown slot
+   * @param expiry The expiry timestamp
+   */
+  void put(long mostSigBits, long leastSigBits, int slot, long expiry);
+
+  /**
+   * Remove the cooldown for a player and slot.
+   *
+   * @param mostSigBits The most significant bits of the player UUID
+   * @param leastSigBits The least significant bits of the player UUID
+   * @param slot The cooldown slot
+   * @return true if an entry was removed
+   */
+  boolean remove(long mostSigBits, long leastSigBits, int slot);
+
+  /**
+   * Remove the cooldown for a player and slot only if its expiry is still
+   * the one the caller read, so a cooldown stored in between by another
+   * thread is kept. Atomic in thread-safe implementations.
+   *
+   * @param mostSigBits The most significant bits of the player UUID
+   * @param leastSigBits The least significant bits of the player UUID
+   * @param slot The cooldown slot
+   * @param expectedExpiry The expiry the entry must still have
+   * @return true if the entry was removed
+   */
+  boolean removeIfEquals(long mostSigBits, long leastSigBits, int slot, long expectedExpiry);
+
+  /**
+   * Get the number of stored entries.
+   *
+   * @return The entry count
+   */
+  int size();
+
+  /**
+   * Remove all entries.
+   */
+  void clear();
+
+  /**
+   * Visit every stored entry. The store must not be modified while the
+   * visit is in progress.
+   *
+   * @param visitor Receives each entry
+   */
+  void forEach(EntryVisitor visitor);
+
+  /**
+   * Get the cooldown expiry for a player and slot.
+   *
+   * @param playerId The player UUID
+   * @param slot The cooldown slot
+   * @return The expiry timestamp, or {@link #NONE} if none is stored
+   */
+  default long get(UUID playerId, int slot) {
+    return get(playerId.getMostSignificantBits(), playerId.getLeastSignificantBits(), slot);
+  }
+
+  /**
+   * Store the cooldown expiry for a player and slot.
+   *
+   * @param playerId The player UUID
+   * @param slot The cooldown slot
+   * @param expiry The expiry timestamp
+   */
+  default void put(UUID playerId, int slot, long expiry) {
+    put(playerId.getMostSignificantBits(), playerId.getLeastSignificantBits(), slot, expiry);
+  }
+
+  /**
+   * Remove the cooldown for a player and slot.
+   *
+   * @param playerId The player UUID
+   * @param slot The cooldown slot
+   * @return true if an entry was removed
+   */
+  default boolean remove(UUID playerId, int slot) {
+    return remove(playerId.getMostSignificantBits(), playerId.getLeastSignificantBits(), slot);
+  }
+}
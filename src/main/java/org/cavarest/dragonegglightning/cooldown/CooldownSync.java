@@ -0,0 +1,219 @@
+package org.cavarest.dragonegglightning.cooldown;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Batches local cooldown changes to a {@link CooldownSyncBackend} and
+ * collects changes made on other servers.
+ *
+ * Callers only touch two lock-free queues: local changes are offered to
+ * the outbound queue, and remote changes are drained from the inbound
+ * queue on the server thread. A single background thread pushes and
+ * pulls on a fixed interval, so cooldown checks never wait on the
+ * network; they always read the local store, which is at most one
+ * interval behind the other servers. The same thread also compacts the
+ * backend periodically, so the changes it keeps do not grow forever.
+ */
+public class CooldownSync implements AutoCloseable {
+
+  /**
+   * Time between compactions unless configured otherwise.
+   */
+  public static final long DEFAULT_COMPACTION_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+  private final CooldownSyncBackend backend;
+  private final long intervalMillis;
+  private final long compactionIntervalMillis;
+  private final Logger logger;
+  private final Queue<CooldownDelta> outbound = new ConcurrentLinkedQueue<>();
+  private final Queue<CooldownDelta> inbound = new ConcurrentLinkedQueue<>();
+  private ScheduledExecutorService worker;
+  private volatile boolean closed;
+
+  /**
+   * Create a sync over the given backend. Nothing is exchanged until
+   * {@link #start} or {@link #syncNow} is called.
+   *
+   * @param backend The transport
+   * @param intervalMillis Time between exchanges
+   * @param logger Logger for backend failures
+   */
+  public CooldownSync(CooldownSyncBackend backend, long intervalMillis, Logger logger) {
+    this(backend, intervalMillis, DEFAULT_COMPACTION_INTERVAL_MILLIS, logger);
+  }
+
+  /**
+   * Create a sync over the given backend. Nothing is exchanged until
+   * {@link #start} or {@link #syncNow} is called.
+   *
+   * @param backend The transport
+   * @param intervalMillis Time between exchanges
+   * @param compactionIntervalMillis Time between compactions of the backend, or 0 for never
+   * @param logger Logger for backend failures
+   */
+  public CooldownSync(CooldownSyncBackend backend, long intervalMillis, long compactionIntervalMillis,
+                      Logger logger) {
+    this.backend = backend;
+    this.intervalMillis = Math.max(1L, intervalMillis);
+    this.compactionIntervalMillis = Math.max(0L, compactionIntervalMillis);
+    this.logger = logger;
+  }
+
+  /**
+   * Start the background thread that pushes, pulls and compacts.
+   */
+  public void start() {
+    worker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "DragonEggLightning-CooldownSync");
+      thread.setDaemon(true);
+      return thread;
+    });
+    worker.scheduleWithFixedDelay(this::exchangeSafely, 0L, intervalMillis, TimeUnit.MILLISECONDS);
+    if (compactionIntervalMillis > 0) {
+      worker.scheduleWithFixedDelay(
+        this::compactSafely,
+        compactionIntervalMillis,
+        compactionIntervalMillis,
+        TimeUnit.MILLISECONDS
+      );
+    }
+  }
+
+  /**
+   * Queue a local cooldown for the other servers. Never blocks.
+   *
+   * @param msb The most significant bits of the player UUID
+   * @param lsb The least significant bits of the player UUID
+   * @param slotKey The hash of the cooldown slot's key
+   * @param expiryMillis The expiry as epoch milliseconds
+   * @param changedMillis When the cooldown was started, as epoch milliseconds
+   */
+  public void publish(long msb, long lsb, int slotKey, long expiryMillis, long changedMillis) {
+    if (!closed) {
+      outbound.offer(CooldownDelta.put(msb, lsb, slotKey, expiryMillis, changedMillis));
+    }
+  }
+
+  /**
+   * Queue a local cooldown clear for the other servers. Never blocks.
+   *
+   * @param msb The most significant bits of the player UUID
+   * @param lsb The least significant bits of the player UUID
+   * @param slotKey The hash of the cooldown slot's key
+   * @param keepUntilMillis When the cleared cooldown would have ended, as epoch milliseconds
+   * @param changedMillis When the cooldown was cleared, as epoch milliseconds
+   */
+  public void publishClear(long msb, long lsb, int slotKey, long keepUntilMillis, long changedMillis) {
+    if (!closed) {
+      outbound.offer(CooldownDelta.clear(msb, lsb, slotKey, keepUntilMillis, changedMillis));
+    }
+  }
+
+  /**
+   * Hand every remote change received so far to the consumer. Call from
+   * the thread that owns the local store.
+   *
+   * @param consumer Receives each remote change, oldest first
+   * @return The number of changes handed over
+   */
+  public int drainRemote(Consumer<CooldownDelta> consumer) {
+    int drained = 0;
+    CooldownDelta delta;
+    while ((delta = inbound.poll()) != null) {
+      consumer.accept(delta);
+      drained++;
+    }
+    return drained;
+  }
+
+  /**
+   * Push and pull immediately and wait for it to finish. Blocks; intended
+   * for shutdown and tests.
+   */
+  public void syncNow() {
+    if (worker == null || worker.isShutdown()) {
+      exchangeSafely();
+      return;
+    }
+    try {
+      worker.submit(this::exchangeSafely).get();
+    } catch (ExecutionException e) {
+      logger.log(Level.WARNING, "Cooldown sync failed", e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Push any remaining local changes and release the backend.
+   */
+  @Override
+  public void close() {
+    if (closed) {
+      return;
+    }
+    syncNow();
+    closed = true;
+    if (worker != null) {
+      worker.shutdown();
+      try {
+        worker.awaitTermination(5, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    try {
+      backend.close();
+    } catch (IOException e) {
+      logger.log(Level.WARNING, "Failed to close cooldown sync backend", e);
+    }
+  }
+
+  /**
+   * Exchange one round of changes. Worker thread only, or the caller when
+   * the worker is not running.
+   */
+  private void exchangeSafely() {
+    List<CooldownDelta> batch = new ArrayList<>();
+    CooldownDelta delta;
+    while ((delta = outbound.poll()) != null) {
+      batch.add(delta);
+    }
+    try {
+      if (!batch.isEmpty()) {
+        backend.push(batch);
+      }
+    } catch (IOException | RuntimeException e) {
+      // Put the batch back so it goes out with the next round
+      outbound.addAll(batch);
+      logger.log(Level.WARNING, "Failed to push cooldowns to other servers", e);
+    }
+    try {
+      backend.pull(inbound::offer);
+    } catch (IOException | RuntimeException e) {
+      logger.log(Level.WARNING, "Failed to pull cooldowns from other servers", e);
+    }
+  }
+
+  /**
+   * Compact the backend. Worker thread only.
+   */
+  private void compactSafely() {
+    try {
+      backend.compact(System.currentTimeMillis());
+    } catch (IOException | RuntimeException e) {
+      logger.log(Level.WARNING, "Failed to compact shared cooldowns", e);
+    }
+  }
+}
@@ -0,0 +1,52 @@
+package org.cavarest.dragonegglightning.cooldown;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Transport that shares cooldown changes between the servers of a
+ * network.
+ *
+ * Only {@link CooldownSync}'s background thread calls a backend, so
+ * implementations may block on I/O and need not be thread-safe.
+ */
+public interface CooldownSyncBackend extends AutoCloseable {
+
+  /**
+   * Publish a batch of local changes to the other servers.
+   *
+   * @param deltas The changes, oldest first
+   * @throws IOException If the batch cannot be sent
+   */
+  void push(List<CooldownDelta> deltas) throws IOException;
+
+  /**
+   * Receive the changes other servers published since the last pull. The
+   * first pull returns everything still available, so a server that just
+   * started learns the cooldowns already running elsewhere.
+   *
+   * @param sink Receives each remote change, oldest first
+   * @throws IOException If changes cannot be read
+   */
+  void pull(Consumer<CooldownDelta> sink) throws IOException;
+
+  /**
+   * Drop this server's changes that no longer matter, such as cooldowns
+   * that have expired, from wherever the backend keeps them. Does nothing
+   * by default.
+   *
+   * @param nowMillis The current epoch time in milliseconds
+   * @throws IOException If the changes cannot be rewritten
+   */
+  default void compact(long nowMillis) throws IOException {
+  }
+
+  /**
+   * Release the backend's resources.
+   *
+   * @throws IOException If closing fails
+   */
+  @Override
+  void close() throws IOException;
+}
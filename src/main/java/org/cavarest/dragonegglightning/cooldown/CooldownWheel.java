@@ -0,0 +1,226 @@
+package org.cavarest.dragonegglightning.cooldown;
+
+import java.util.Arrays;
+
+/**
+ * Hierarchical timing wheel for cooldown expiry, advanced once per server
+ * tick.
+ *
+ * Four levels of 64 slots cover 64^4 ticks (about 9.7 days); later
+ * deadlines park in the top level and are re-filed when it cascades.
+ * Scheduling is O(1) and each entry is cascaded at most once per level, so
+ * expiry costs O(1) amortized. Entries live in a pooled set of primitive
+ * arrays linked by index, so scheduling does not allocate once the pool
+ * has grown.
+ *
+ * The wheel does not support cancellation: a rescheduled or cleared
+ * cooldown leaves its old entry in place, and the {@link ExpiryHandler}
+ * is expected to check the entry against the {@link CooldownStore}.
+ * Not thread-safe.
+ */
+public class CooldownWheel {
+
+  private static final int LEVELS = 4;
+  private static final int SLOT_BITS = 6;
+  private static final int SLOTS = 1 << SLOT_BITS;
+  private static final int SLOT_MASK = SLOTS - 1;
+  private static final int NIL = -1;
+  private static final int INITIAL_POOL = 64;
+
+  /**
+   * Receives entries whose deadline has been reached.
+   */
+  @FunctionalInterface
+  public interface ExpiryHandler {
+
+    /**
+     * Called once for each expired entry, in tick order.
+     *
+     * @param mostSigBits The most significant bits of the player UUID
+     * @param leastSigBits The least significant bits of the player UUID
+     * @param slot The cooldown slot
+     * @param deadlineTick The tick the entry was scheduled for
+     */
+    void onExpired(long mostSigBits, long leastSigBits, int slot, long deadlineTick);
+  }
+
+  private final int[] heads = new int[LEVELS * SLOTS];
+  private long[] mostSigBits;
+  private long[] leastSigBits;
+  private int[] slots;
+  private long[] deadlines;
+  private int[] next;
+  private int freeHead;
+  private int size;
+  private long currentTick;
+
+  /**
+   * Create a wheel whose clock starts at the given tick.
+   *
+   * @param startTick The tick treated as already processed
+   */
+  public CooldownWheel(long startTick) {
+    this.currentTick = startTick;
+    Arrays.fill(heads, NIL);
+    growPool(INITIAL_POOL);
+  }
+
+  /**
+   * Schedule an expiry. Deadlines at or before the current tick fire on the
+   * next {@link #advance}.
+   *
+   * @param msb The most significant bits of the player UUID
+   * @param lsb The least significant bits of the player UUID
+   * @param cooldownSlot The cooldown slot
+   * @param deadlineTick The tick at which the entry expires
+   */
+  public void schedule(long msb, long lsb, int cooldownSlot, long deadlineTick) {
+    if (freeHead == NIL) {
+      growPool(next.length * 2);
+    }
+    int node = freeHead;
+    freeHead = next[node];
+
+    mostSigBits[node] = msb;
+    leastSigBits[node] = lsb;
+    slots[node] = cooldownSlot;
+    deadlines[node] = deadlineTick;
+    file(node);
+    size++;
+  }
+
+  /**
+   * Advance the wheel to {@code nowTick}, firing every entry whose deadline
+   * is at or before it.
+   *
+   * @param nowTick The current tick
+   * @param handler Receives each expired entry
+   */
+  public void advance(long nowTick, ExpiryHandler handler) {
+    while (currentTick < nowTick) {
+      long tick = currentTick + 1;
+
+      // Cascade from the highest level whose slot boundary we just crossed
+      int level = 0;
+      while (level < LEVELS - 1 && (tick & levelMask(level)) == 0) {
+        level++;
+      }
+      for (; level > 0; level--) {
+        cascade(level, slotIndex(level, tick));
+      }
+
+      int slot = (int) (tick & SLOT_MASK);
+      int node = heads[slot];
+      heads[slot] = NIL;
+      currentTick = tick;
+      while (node != NIL) {
+        int following = next[node];
+        long msb = mostSigBits[node];
+        long lsb = leastSigBits[node];
+        int cooldownSlot = slots[node];
+        long deadline = deadlines[node];
+        release(node);
+        handler.onExpired(msb, lsb, cooldownSlot, deadline);
+        node = following;
+      }
+    }
+  }
+
+  /**
+   * Get the number of scheduled entries, including superseded ones that have
+   * not fired yet.
+   *
+   * @return The number of scheduled entries
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Get the last tick processed by {@link #advance}.
+   *
+   * @return The current tick
+   */
+  public long getCurrentTick() {
+    return currentTick;
+  }
+
+  /**
+   * Drop all scheduled entries.
+   */
+  public void clear() {
+    Arrays.fill(heads, NIL);
+    for (int i = 0; i < next.length - 1; i++) {
+      next[i] = i + 1;
+    }
+    next[next.length - 1] = NIL;
+    freeHead = 0;
+    size = 0;
+  }
+
+  /**
+   * Re-file every entry of a higher-level slot against the current tick.
+   */
+  private void cascade(int level, int slot) {
+    int index = level * SLOTS + slot;
+    int node = heads[index];
+    heads[index] = NIL;
+    while (node != NIL) {
+      int following = next[node];
+      file(node);
+      node = following;
+    }
+  }
+
+  /**
+   * Link a node into the slot for its deadline, relative to the next tick
+   * to be processed.
+   */
+  private void file(int node) {
+    long deadline = deadlines[node];
+    long base = currentTick + 1;
+    long delta = deadline - base;
+    int index;
+    if (delta < 0) {
+      index = (int) (base & SLOT_MASK);
+    } else if (delta < SLOTS) {
+      index = (int) (deadline & SLOT_MASK);
+    } else {
+      int level = 1;
+      while (level < LEVELS - 1 && delta >= 1L << (SLOT_BITS * (level + 1))) {
+        level++;
+      }
+      index = level * SLOTS + slotIndex(level, deadline);
+    }
+    next[node] = heads[index];
+    heads[index] = node;
+  }
+
+  private void release(int node) {
+    next[node] = freeHead;
+    freeHead = node;
+    size--;
+  }
+
+  private void growPool(int capacity) {
+    int oldCapacity = next == null ? 0 : next.length;
+    mostSigBits = mostSigBits == null ? new long[capacity] : Arrays.copyOf(mostSigBits, capacity);
+    leastSigBits = leastSigBits == null ? new long[capacity] : Arrays.copyOf(leastSigBits, capacity);
+    slots = slots == null ? new int[capacity] : Arrays.copyOf(slots, capacity);
+    deadlines = deadlines == null ? new long[capacity] : Arrays.copyOf(deadlines, capacity);
+    next = next == null ? new int[capacity] : Arrays.copyOf(next, capacity);
+    for (int i = oldCapacity; i < capacity - 1; i++) {
+      next[i] = i + 1;
+    }
+    next[capacity - 1] = NIL;
+    freeHead = oldCapacity;
+  }
+
+  private static long levelMask(int level) {
+    return (1L << (SLOT_BITS * (level + 1))) - 1;
+  }
+
+  private static int slotIndex(int level, long tick) {
+    return (int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK);
+  }
+}
@@ -0,0 +1,250 @@
+package org.cavarest.dragonegglightning.cooldown;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+/**
+ * Cooldown sync backend over a directory shared by every server, such as
+ * a network mount or, in tests, a temporary directory.
+ *
+ * Each server appends its changes to its own {@code <server-id>.cooldowns}
+ * file and reads the other servers' files from where it last stopped, so
+ * there is a single writer per file and no locking. A file starts with a
+ * 16 byte header (magic, version, generation) followed by 40 byte records
+ * (UUID high bits, UUID low bits, slot key hash, kind, expiry, change
+ * time); a partially written record at the end of a file is left for the
+ * next pull.
+ *
+ * A server keeps the latest change of each of its own cooldowns in memory
+ * and {@link #compact}s its file down to those that have not expired,
+ * writing a new file with a new generation. Readers notice the new
+ * generation and read the file again from the start; the change times
+ * make the repeated changes harmless. When it opens, a server also hands
+ * its own earlier changes to the first pull, so they take part in
+ * choosing the newest change of each cooldown like everyone else's.
+ */
+public class FileCooldownSyncBackend implements CooldownSyncBackend {
+
+  /**
+   * File extension of the per-server change files.
+   */
+  public static final String FILE_SUFFIX = ".cooldowns";
+
+  private static final int MAGIC = 0x44455359; // "DESY"
+  private static final int VERSION = 2;
+  private static final int HEADER_BYTES = 16;
+  private static final int RECORD_BYTES = 40;
+  private static final int KIND_PUT = 1;
+  private static final int KIND_CLEAR = 2;
+
+  private record Key(long msb, long lsb, int slotKey) {
+  }
+
+  /**
+   * Where this server stopped reading another server's file.
+   */
+  private static final class ReadState {
+    private long generation;
+    private long offset;
+  }
+
+  private final Path directory;
+  private final String serverId;
+  private final Map<Path, ReadState> readStates = new HashMap<>();
+  private final Map<Key, CooldownDelta> ownLatest = new HashMap<>();
+  private final List<CooldownDelta> ownBacklog = new ArrayList<>();
+  private final ByteBuffer readBuffer = ByteBuffer.allocate(RECORD_BYTES * 256);
+  private FileChannel out;
+
+  /**
+   * Create a backend writing as the given server. The server's earlier
+   * file is read back and compacted.
+   *
+   * @param directory The shared directory, created if missing
+   * @param serverId A name unique to this server within the network
+   * @throws IOException If the directory or this server's file cannot be opened
+   */
+  public FileCooldownSyncBackend(Path directory, String serverId) throws IOException {
+    this.directory = directory;
+    this.serverId = serverId;
+    Files.createDirectories(directory);
+    Path own = fileOf(serverId);
+    if (Files.exists(own)) {
+      readFrom(own, new ReadState(), delta -> {
+        ownLatest.merge(keyOf(delta), delta, FileCooldownSyncBackend::newer);
+      });
+    }
+    ownBacklog.addAll(ownLatest.values());
+    compact(System.currentTimeMillis());
+  }
+
+  @Override
+  public void push(List<CooldownDelta> deltas) throws IOException {
+    ByteBuffer batch = ByteBuffer.allocate(deltas.size() * RECORD_BYTES);
+    for (CooldownDelta delta : deltas) {
+      writeRecord(batch, delta);
+      ownLatest.merge(keyOf(delta), delta, FileCooldownSyncBackend::newer);
+    }
+    batch.flip();
+    while (batch.hasRemaining()) {
+      out.write(batch);
+    }
+  }
+
+  @Override
+  public void pull(Consumer<CooldownDelta> sink) throws IOException {
+    if (!ownBacklog.isEmpty()) {
+      ownBacklog.forEach(sink);
+      ownBacklog.clear();
+    }
+    Path own = fileOf(serverId);
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + FILE_SUFFIX)) {
+      for (Path file : files) {
+        if (!file.equals(own)) {
+          try {
+            readFrom(file, readStates.computeIfAbsent(file, path -> new ReadState()), sink);
+          } catch (NoSuchFileException e) {
+            // Being swapped for its compacted copy; read it next time
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Rewrite this server's file with only the latest change of each
+   * cooldown, dropping those whose expiry has passed.
+   *
+   * @param nowMillis The current epoch time in milliseconds
+   * @throws IOException If the file cannot be rewritten
+   */
+  @Override
+  public void compact(long nowMillis) throws IOException {
+    Iterator<CooldownDelta> latest = ownLatest.values().iterator();
+    while (latest.hasNext()) {
+      if (latest.next().expiryMillis() <= nowMillis) {
+        latest.remove();
+      }
+    }
+
+    ByteBuffer contents = ByteBuffer.allocate(HEADER_BYTES + ownLatest.size() * RECORD_BYTES);
+    contents.putInt(MAGIC).putInt(VERSION).putLong(ThreadLocalRandom.current().nextLong());
+    for (CooldownDelta delta : ownLatest.values()) {
+      writeRecord(contents, delta);
+    }
+    contents.flip();
+
+    Path own = fileOf(serverId);
+    Path temp = own.resolveSibling(own.getFileName() + ".compact");
+    try (FileChannel channel = FileChannel.open(temp,
+        StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      while (contents.hasRemaining()) {
+        channel.write(contents);
+      }
+      channel.force(false);
+    }
+    close();
+    try {
+      Files.move(temp, own, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (AtomicMoveNotSupportedException e) {
+      // Some network mounts cannot swap files atomically; readers that
+      // miss the file skip it until the next pull
+      Files.move(temp, own, StandardCopyOption.REPLACE_EXISTING);
+    }
+    out = FileChannel.open(own, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (out != null) {
+      out.close();
+      out = null;
+    }
+  }
+
+  private void readFrom(Path file, ReadState state, Consumer<CooldownDelta> sink) throws IOException {
+    try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+      long size = in.size();
+      ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+      while (header.hasRemaining()) {
+        if (in.read(header, header.position()) < 0) {
+          break;
+        }
+      }
+      header.flip();
+      if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC || header.getInt() != VERSION) {
+        // Not written yet, or by an incompatible version
+        return;
+      }
+      long generation = header.getLong();
+      long offset = state.offset;
+      if (generation != state.generation || offset < HEADER_BYTES || size < offset) {
+        // The other server rewrote its file; start over
+        state.generation = generation;
+        offset = HEADER_BYTES;
+      }
+
+      while (size - offset >= RECORD_BYTES) {
+        readBuffer.clear();
+        long whole = Math.min(readBuffer.capacity(), (size - offset) / RECORD_BYTES * RECORD_BYTES);
+        readBuffer.limit((int) whole);
+        while (readBuffer.hasRemaining()) {
+          if (in.read(readBuffer, offset + readBuffer.position()) < 0) {
+            break;
+          }
+        }
+        readBuffer.flip();
+        if (readBuffer.remaining() < RECORD_BYTES) {
+          break;
+        }
+        while (readBuffer.remaining() >= RECORD_BYTES) {
+          long msb = readBuffer.getLong();
+          long lsb = readBuffer.getLong();
+          int slotKey = readBuffer.getInt();
+          int kind = readBuffer.getInt();
+          long expiry = readBuffer.getLong();
+          long changed = readBuffer.getLong();
+          sink.accept(new CooldownDelta(msb, lsb, slotKey, expiry, changed, kind == KIND_CLEAR));
+          offset += RECORD_BYTES;
+        }
+      }
+      state.offset = offset;
+    }
+  }
+
+  private static void writeRecord(ByteBuffer buffer, CooldownDelta delta) {
+    buffer.putLong(delta.mostSigBits())
+        .putLong(delta.leastSigBits())
+        .putInt(delta.slotKey())
+        .putInt(delta.isClear() ? KIND_CLEAR : KIND_PUT)
+        .putLong(delta.expiryMillis())
+        .putLong(delta.changedMillis());
+  }
+
+  private static Key keyOf(CooldownDelta delta) {
+    return new Key(delta.mostSigBits(), delta.leastSigBits(), delta.slotKey());
+  }
+
+  private static CooldownDelta newer(CooldownDelta current, CooldownDelta candidate) {
+    return candidate.changedMillis() >= current.changedMillis() ? candidate : current;
+  }
+
+  private Path fileOf(String id) {
+    return directory.resolve(id + FILE_SUFFIX);
+  }
+}
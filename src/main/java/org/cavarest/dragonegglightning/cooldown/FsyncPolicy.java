@@ -0,0 +1,42 @@
+package org.cavarest.dragonegglightning.cooldown;
+
+import java.util.Locale;
+
+/**
+ * When the cooldown journal forces written records to disk.
+ */
+public enum FsyncPolicy {
+
+  /**
+   * Force after every batch of records written by the journal thread.
+   */
+  ALWAYS,
+
+  /**
+   * Force at most once per configured interval.
+   */
+  INTERVAL,
+
+  /**
+   * Never force explicitly; the operating system writes pages back on its own.
+   */
+  NEVER;
+
+  /**
+   * Parse a policy name from configuration, case-insensitively.
+   *
+   * @param name The configured name
+   * @param fallback The policy to use if the name is missing or unknown
+   * @return The matching policy, or the fallback
+   */
+  public static FsyncPolicy parse(String name, FsyncPolicy fallback) {
+    if (name == null) {
+      return fallback;
+    }
+    try {
+      return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      return fallback;
+    }
+  }
+}
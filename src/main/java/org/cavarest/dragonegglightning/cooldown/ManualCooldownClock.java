@@ -0,0 +1,45 @@
+package org.cavarest.dragonegglightning.cooldown;
+
+/**
+ * Cooldown clock that only moves when told to, for deterministic tests.
+ */
+public class ManualCooldownClock implements CooldownClock {
+
+  private volatile long tick;
+
+  public ManualCooldownClock() {
+    this(0L);
+  }
+
+  /**
+   * Create a clock at the given tick.
+   *
+   * @param startTick The initial tick
+   */
+  public ManualCooldownClock(long startTick) {
+    this.tick = startTick;
+  }
+
+  /**
+   * Move the clock forward.
+   *
+   * @param ticks The number of ticks to advance
+   */
+  public void advance(long ticks) {
+    tick += ticks;
+  }
+
+  /**
+   * Move the clock forward by whole seconds.
+   *
+   * @param seconds The number of seconds to advance
+   */
+  public void advanceSeconds(long seconds) {
+    advance(CooldownClock.secondsToTicks(seconds));
+  }
+
+  @Override
+  public long currentTick() {
+    return tick;
+  }
+}
@@ -0,0 +1,212 @@
+package org.cavarest.dragonegglightning.cooldown;
+
+/**
+ * Open-addressing cooldown table backed by a single {@code long} array.
+ *
+ * Each table slot holds four adjacent longs (UUID high bits, UUID low
+ * bits, cooldown slot, expiry), so a probe touches one cache line. Uses
+ * linear probing with backward-shift deletion, so there are no tombstones
+ * and no per-entry objects. A slot is free when its expiry is {@link CooldownStore#NONE}.
+ * Not thread-safe.
+ */
+public class PrimitiveCooldownStore implements CooldownStore {
+
+  private static final int DEFAULT_CAPACITY = 64;
+  private static final int MAX_CAPACITY = 1 << 28;
+  private static final int STRIDE = 4;
+  private static final int MSB = 0;
+  private static final int LSB = 1;
+  private static final int SLOT = 2;
+  private static final int EXPIRY = 3;
+
+  private long[] table;
+  private int mask;
+  private int size;
+  private int resizeThreshold;
+
+  public PrimitiveCooldownStore() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Create a store sized for the expected number of entries.
+   *
+   * @param expectedEntries Number of entries to hold without resizing
+   */
+  public PrimitiveCooldownStore(int expectedEntries) {
+    allocate(tableSizeFor(Math.max(expectedEntries, 1) * 4 / 3 + 1));
+  }
+
+  @Override
+  public long get(long msb, long lsb, int cooldownSlot) {
+    long[] t = table;
+    int slot = mix(msb, lsb, cooldownSlot) & mask;
+    while (true) {
+      int base = slot * STRIDE;
+      long expiry = t[base + EXPIRY];
+      if (expiry == NONE) {
+        return NONE;
+      }
+      if (t[base + MSB] == msb && t[base + LSB] == lsb && t[base + SLOT] == cooldownSlot) {
+        return expiry;
+      }
+      slot = (slot + 1) & mask;
+    }
+  }
+
+  @Override
+  public void put(long msb, long lsb, int cooldownSlot, long expiry) {
+    if (expiry == NONE) {
+      remove(msb, lsb, cooldownSlot);
+      return;
+    }
+
+    int slot = mix(msb, lsb, cooldownSlot) & mask;
+    int base;
+    while (table[(base = slot * STRIDE) + EXPIRY] != NONE) {
+      if (table[base + MSB] == msb && table[base + LSB] == lsb && table[base + SLOT] == cooldownSlot) {
+        table[base + EXPIRY] = expiry;
+        return;
+      }
+      slot = (slot + 1) & mask;
+    }
+
+    table[base + MSB] = msb;
+    table[base + LSB] = lsb;
+    table[base + SLOT] = cooldownSlot;
+    table[base + EXPIRY] = expiry;
+    if (++size > resizeThreshold) {
+      resize(capacity() * 2);
+    }
+  }
+
+  @Override
+  public boolean remove(long msb, long lsb, int cooldownSlot) {
+    int slot = mix(msb, lsb, cooldownSlot) & mask;
+    int base;
+    while (table[(base = slot * STRIDE) + EXPIRY] != NONE) {
+      if (table[base + MSB] == msb && table[base + LSB] == lsb && table[base + SLOT] == cooldownSlot) {
+        shiftBack(slot);
+        size--;
+        return true;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return false;
+  }
+
+  @Override
+  public boolean removeIfEquals(long msb, long lsb, int cooldownSlot, long expectedExpiry) {
+    if (expectedExpiry == NONE) {
+      return false;
+    }
+    int slot = mix(msb, lsb, cooldownSlot) & mask;
+    int base;
+    while (table[(base = slot * STRIDE) + EXPIRY] != NONE) {
+      if (table[base + MSB] == msb && table[base + LSB] == lsb && table[base + SLOT] == cooldownSlot) {
+        if (table[base + EXPIRY] != expectedExpiry) {
+          return false;
+        }
+        shiftBack(slot);
+        size--;
+        return true;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return false;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public void clear() {
+    for (int base = EXPIRY; base < table.length; base += STRIDE) {
+      table[base] = NONE;
+    }
+    size = 0;
+  }
+
+  @Override
+  public void forEach(EntryVisitor visitor) {
+    long[] t = table;
+    for (int base = 0; base < t.length; base += STRIDE) {
+      long expiry = t[base + EXPIRY];
+      if (expiry != NONE) {
+        visitor.visit(t[base + MSB], t[base + LSB], (int) t[base + SLOT], expiry);
+      }
+    }
+  }
+
+  /**
+   * Get the current number of slots in the table.
+   *
+   * @return The table capacity
+   */
+  public int capacity() {
+    return mask + 1;
+  }
+
+  /**
+   * Close the gap left at {@code gap} by moving later entries of the same
+   * probe run back, so lookups never need tombstones.
+   */
+  private void shiftBack(int gap) {
+    int slot = gap;
+    while (true) {
+      slot = (slot + 1) & mask;
+      int base = slot * STRIDE;
+      if (table[base + EXPIRY] == NONE) {
+        break;
+      }
+      int home = mix(table[base + MSB], table[base + LSB], (int) table[base + SLOT]) & mask;
+      // Move the entry if its home slot is not cyclically within (gap, slot]
+      if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+        System.arraycopy(table, base, table, gap * STRIDE, STRIDE);
+        gap = slot;
+      }
+    }
+    table[gap * STRIDE + EXPIRY] = NONE;
+  }
+
+  private void resize(int newCapacity) {
+    if (newCapacity > MAX_CAPACITY) {
+      throw new IllegalStateException("Cooldown table is full");
+    }
+    long[] old = table;
+
+    allocate(newCapacity);
+    for (int oldBase = 0; oldBase < old.length; oldBase += STRIDE) {
+      if (old[oldBase + EXPIRY] != NONE) {
+        int slot = mix(old[oldBase + MSB], old[oldBase + LSB], (int) old[oldBase + SLOT]) & mask;
+        while (table[slot * STRIDE + EXPIRY] != NONE) {
+          slot = (slot + 1) & mask;
+        }
+        System.arraycopy(old, oldBase, table, slot * STRIDE, STRIDE);
+      }
+    }
+  }
+
+  private void allocate(int capacity) {
+    table = new long[capacity * STRIDE];
+    mask = capacity - 1;
+    resizeThreshold = capacity / 4 * 3;
+  }
+
+  private static int tableSizeFor(int minimum) {
+    int capacity = Integer.highestOneBit(Math.max(minimum - 1, 1)) << 1;
+    return Math.min(Math.max(capacity, DEFAULT_CAPACITY), MAX_CAPACITY);
+  }
+
+  /**
+   * Hash both UUID halves and the cooldown slot with a single Fibonacci
+   * multiply, folding the high bits down so the table mask sees them.
+   */
+  private static int mix(long msb, long lsb, int cooldownSlot) {
+    long h = (msb ^ Long.rotateLeft(lsb, 32) ^ (cooldownSlot * 0xc2b2ae3d27d4eb4fL))
+      * 0x9e3779b97f4a7c15L;
+    return (int) (h ^ (h >>> 32));
+  }
+}
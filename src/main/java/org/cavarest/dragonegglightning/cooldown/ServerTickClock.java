@@ -0,0 +1,47 @@
+package org.cavarest.dragonegglightning.cooldown;
+
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * Cooldown clock that counts server ticks.
+ *
+ * A task on the global region scheduler (the main thread on plain Paper)
+ * bumps a cached counter once per tick, so reading the clock is a single
+ * volatile field load from any thread. Like vanilla item cooldowns, the
+ * clock slows down with the server when it lags.
+ */
+public class ServerTickClock implements CooldownClock {
+
+  private volatile long tick;
+  private ScheduledTask task;
+
+  /**
+   * Start counting ticks.
+   *
+   * @param plugin The plugin that owns the counting task
+   */
+  public void start(Plugin plugin) {
+    task = plugin.getServer().getGlobalRegionScheduler().runAtFixedRate(
+      plugin,
+      scheduled -> tick++,
+      1L,
+      1L
+    );
+  }
+
+  /**
+   * Stop counting ticks.
+   */
+  public void stop() {
+    if (task != null) {
+      task.cancel();
+      task = null;
+    }
+  }
+
+  @Override
+  public long currentTick() {
+    return tick;
+  }
+}
@@ -0,0 +1,130 @@
+package org.cavarest.dragonegglightning.cooldown;
+
+/**
+ * Thread-safe cooldown store made of independently locked
+ * {@link PrimitiveCooldownStore} stripes.
+ *
+ * On Folia, players in different regions tick on different threads; the
+ * stripe for a key is picked from the player UUID alone, so threads working
+ * on different players rarely share a lock, and all of one player's slots
+ * sit behind the same lock. On plain Paper every lock is uncontended.
+ * {@link #size()} and {@link #forEach} visit the stripes one at a time, so
+ * they see each stripe consistently but not the whole store at one
+ * instant.
+ */
+public class StripedCooldownStore implements CooldownStore {
+
+  private static final int MIN_STRIPES = 16;
+  private static final int MAX_STRIPES = 1 << 10;
+
+  private final PrimitiveCooldownStore[] stripes;
+  private final int stripeMask;
+
+  /**
+   * Create a store with four stripes per available processor.
+   */
+  public StripedCooldownStore() {
+    this(Runtime.getRuntime().availableProcessors() * 4);
+  }
+
+  /**
+   * Create a store with at least the given number of stripes, rounded up
+   * to a power of two.
+   *
+   * @param stripeCount The minimum number of stripes
+   */
+  public StripedCooldownStore(int stripeCount) {
+    int count = Integer.highestOneBit(Math.max(stripeCount, MIN_STRIPES) - 1) << 1;
+    count = Math.min(count, MAX_STRIPES);
+    stripes = new PrimitiveCooldownStore[count];
+    for (int i = 0; i < count; i++) {
+      stripes[i] = new PrimitiveCooldownStore();
+    }
+    stripeMask = count - 1;
+  }
+
+  @Override
+  public long get(long msb, long lsb, int slot) {
+    PrimitiveCooldownStore stripe = stripe(msb, lsb);
+    synchronized (stripe) {
+      return stripe.get(msb, lsb, slot);
+    }
+  }
+
+  @Override
+  public void put(long msb, long lsb, int slot, long expiry) {
+    PrimitiveCooldownStore stripe = stripe(msb, lsb);
+    synchronized (stripe) {
+      stripe.put(msb, lsb, slot, expiry);
+    }
+  }
+
+  @Override
+  public boolean remove(long msb, long lsb, int slot) {
+    PrimitiveCooldownStore stripe = stripe(msb, lsb);
+    synchronized (stripe) {
+      return stripe.remove(msb, lsb, slot);
+    }
+  }
+
+  @Override
+  public boolean removeIfEquals(long msb, long lsb, int slot, long expectedExpiry) {
+    PrimitiveCooldownStore stripe = stripe(msb, lsb);
+    synchronized (stripe) {
+      return stripe.removeIfEquals(msb, lsb, slot, expectedExpiry);
+    }
+  }
+
+  @Override
+  public int size() {
+    int size = 0;
+    for (PrimitiveCooldownStore stripe : stripes) {
+      synchronized (stripe) {
+        size += stripe.size();
+      }
+    }
+    return size;
+  }
+
+  @Override
+  public void clear() {
+    for (PrimitiveCooldownStore stripe : stripes) {
+      synchronized (stripe) {
+        stripe.clear();
+      }
+    }
+  }
+
+  /**
+   * Visit every stored entry, holding each stripe's lock while its entries
+   * are visited. The visitor must not modify the store.
+   *
+   * @param visitor Receives each entry
+   */
+  @Override
+  public void forEach(EntryVisitor visitor) {
+    for (PrimitiveCooldownStore stripe : stripes) {
+      synchronized (stripe) {
+        stripe.forEach(visitor);
+      }
+    }
+  }
+
+  /**
+   * Get the number of stripes.
+   *
+   * @return The stripe count
+   */
+  public int stripeCount() {
+    return stripes.length;
+  }
+
+  /**
+   * Pick a stripe from the high bits of a hash, so the stripe index stays
+   * independent of the bucket index inside the stripe.
+   */
+  private PrimitiveCooldownStore stripe(long msb, long lsb) {
+    long h = (msb ^ lsb) * 0x9e3779b97f4a7c15L;
+    return stripes[(int) (h >>> 40) & stripeMask];
+  }
+}
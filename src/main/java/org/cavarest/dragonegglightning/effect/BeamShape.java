@@ -0,0 +1,76 @@
+package org.cavarest.dragonegglightning.effect;
+
+/**
+ * The points of a particle shape as offsets from its anchor, worked out
+ * once so that drawing the shape only adds the anchor's coordinates.
+ * Immutable and safe to share between threads.
+ */
+public final class BeamShape {
+
+  private final double[] offsetsX;
+  private final double[] offsetsY;
+  private final double[] offsetsZ;
+
+  private BeamShape(double[] offsetsX, double[] offsetsY, double[] offsetsZ) {
+    this.offsetsX = offsetsX;
+    this.offsetsY = offsetsY;
+    this.offsetsZ = offsetsZ;
+  }
+
+  /**
+   * Build a vertical beam rising from the anchor, with a point every
+   * {@code spacing} blocks from the anchor up to {@code height}.
+   *
+   * @param height The beam's height in blocks
+   * @param spacing Blocks between two points, greater than 0
+   * @return The beam
+   */
+  public static BeamShape vertical(double height, double spacing) {
+    // The epsilon keeps the top point when height is a multiple of spacing
+    int points = (int) Math.floor(height / spacing + 1e-9) + 1;
+    double[] offsetsY = new double[points];
+    for (int i = 0; i < points; i++) {
+      offsetsY[i] = i * spacing;
+    }
+    return new BeamShape(new double[points], offsetsY, new double[points]);
+  }
+
+  /**
+   * Get the number of points.
+   *
+   * @return The point count
+   */
+  public int size() {
+    return offsetsY.length;
+  }
+
+  /**
+   * Get a point's X offset.
+   *
+   * @param point The point index
+   * @return The offset from the anchor along X
+   */
+  public double offsetX(int point) {
+    return offsetsX[point];
+  }
+
+  /**
+   * Get a point's Y offset.
+   *
+   * @param point The point index
+   * @return The offset from the anchor along Y
+   */
+  public double offsetY(int point) {
+    return offsetsY[point];
+  }
+
+  /**
+   * Get a point's Z offset.
+   *
+   * @param point The point index
+   * @return The offset from the anchor along Z
+   */
+  public double offsetZ(int point) {
+    return offsetsZ[point];
+  }
+}
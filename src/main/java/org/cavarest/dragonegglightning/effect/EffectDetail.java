@@ -0,0 +1,72 @@
+package org.cavarest.dragonegglightning.effect;
+
+import java.util.Locale;
+
+/**
+ * How much of the lightning effect a viewer is sent, from most to least.
+ * Used both for the distance tiers of each viewer and for the quality
+ * tiers the {@link EffectQualityGovernor} steps through under load.
+ */
+public enum EffectDetail {
+
+  /**
+   * The whole beam, the impact burst and the flash, with the thunder and
+   * the impact blast.
+   */
+  FULL,
+
+  /**
+   * A sparse beam and the flash, with the thunder and the impact blast.
+   */
+  REDUCED,
+
+  /**
+   * Only the flash and the thunder.
+   */
+  MINIMAL,
+
+  /**
+   * No particles, only the thunder.
+   */
+  SOUND_ONLY;
+
+  /**
+   * Get whichever of two details sends less.
+   *
+   * @param other The other detail
+   * @return The lesser detail
+   */
+  public EffectDetail lowerOf(EffectDetail other) {
+    return other.ordinal() > ordinal() ? other : this;
+  }
+
+  /**
+   * Parse a detail from configuration or a command, ignoring case, dashes
+   * and underscores.
+   *
+   * @param name The name, e.g. "sound-only"
+   * @param fallback Returned if the name is null or unknown
+   * @return The detail
+   */
+  public static EffectDetail parse(String name, EffectDetail fallback) {
+    if (name == null) {
+      return fallback;
+    }
+    String key = name.trim().replace("-", "").replace("_", "").toUpperCase(Locale.ROOT);
+    for (EffectDetail detail : values()) {
+      if (detail.name().replace("_", "").equals(key)) {
+        return detail;
+      }
+    }
+    return fallback;
+  }
+
+  /**
+   * Get the name used in configuration and commands.
+   *
+   * @return The lower-case name with dashes
+   */
+  public String configName() {
+    return name().toLowerCase(Locale.ROOT).replace('_', '-');
+  }
+}
@@ -0,0 +1,176 @@
+package org.cavarest.dragonegglightning.effect;
+
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * Decides how much lightning effect the server can afford right now.
+ *
+ * Once a second the governor samples the server's average tick time over
+ * the last 100 ticks. Above the MSPT threshold of the next lower quality
+ * tier it steps down one tier, and below 80% of the current tier's own
+ * threshold it steps back up one, so a server hovering around a threshold
+ * does not flip between tiers every second. The tier only caps the
+ * effect's particles and sounds; damage and targeting never change. An
+ * admin can pin a tier, which overrides the adaptive one until unpinned.
+ * {@link #observe} is called from one thread; the getters are safe from
+ * any thread.
+ */
+public final class EffectQualityGovernor {
+
+  /**
+   * Ticks between two samples of the tick time.
+   */
+  public static final long SAMPLE_INTERVAL_TICKS = 20L;
+
+  private static final double RECOVER_FACTOR = 0.8;
+
+  private final Plugin plugin;
+  private final boolean adaptive;
+  private final double[] thresholds;
+  private volatile EffectDetail adaptiveTier = EffectDetail.FULL;
+  private volatile EffectDetail pinnedTier;
+  private volatile double lastMspt;
+  private ScheduledTask task;
+
+  /**
+   * Create a governor.
+   *
+   * @param plugin The plugin that owns the sampling task, or null in tests
+   * @param adaptive Whether to lower the quality when the server lags
+   * @param reducedMspt MSPT above which the effect drops to reduced
+   * @param minimalMspt MSPT above which the effect drops to minimal
+   * @param soundOnlyMspt MSPT above which the effect drops to sound only
+   */
+  public EffectQualityGovernor(
+    Plugin plugin,
+    boolean adaptive,
+    double reducedMspt,
+    double minimalMspt,
+    double soundOnlyMspt
+  ) {
+    this.plugin = plugin;
+    this.adaptive = adaptive;
+    double minimal = Math.max(reducedMspt, minimalMspt);
+    this.thresholds = new double[] {0.0, reducedMspt, minimal, Math.max(minimal, soundOnlyMspt)};
+  }
+
+  /**
+   * Create a governor from the {@code effects.quality} settings of a
+   * config.
+   *
+   * @param plugin The plugin that owns the sampling task
+   * @param config The plugin's config
+   * @return The governor
+   */
+  public static EffectQualityGovernor fromConfig(Plugin plugin, ConfigurationSection config) {
+    return new EffectQualityGovernor(
+      plugin,
+      config.getBoolean("effects.quality.adaptive", true),
+      config.getDouble("effects.quality.reduced-mspt", 40.0),
+      config.getDouble("effects.quality.minimal-mspt", 45.0),
+      config.getDouble("effects.quality.sound-only-mspt", 50.0)
+    );
+  }
+
+  /**
+   * Start sampling the tick time.
+   */
+  public void start() {
+    if (plugin == null || plugin.getServer() == null) {
+      return;
+    }
+    task = plugin.getServer().getGlobalRegionScheduler().runAtFixedRate(
+      plugin,
+      scheduled -> observe(plugin.getServer().getAverageTickTime()),
+      SAMPLE_INTERVAL_TICKS,
+      SAMPLE_INTERVAL_TICKS
+    );
+  }
+
+  /**
+   * Stop sampling the tick time.
+   */
+  public void stop() {
+    if (task != null) {
+      task.cancel();
+      task = null;
+    }
+  }
+
+  /**
+   * Adjust the adaptive tier to a tick time sample. Does nothing to the
+   * tier unless adaptive mode is enabled.
+   *
+   * @param mspt The average milliseconds per tick
+   */
+  public void observe(double mspt) {
+    lastMspt = mspt;
+    if (!adaptive) {
+      return;
+    }
+    int current = adaptiveTier.ordinal();
+    if (current < thresholds.length - 1 && mspt > thresholds[current + 1]) {
+      adaptiveTier = EffectDetail.values()[current + 1];
+    } else if (current > 0 && mspt < thresholds[current] * RECOVER_FACTOR) {
+      adaptiveTier = EffectDetail.values()[current - 1];
+    }
+  }
+
+  /**
+   * Get the quality tier effects are capped at: the pinned tier if there
+   * is one, otherwise the adaptive tier.
+   *
+   * @return The current tier
+   */
+  public EffectDetail getTier() {
+    EffectDetail pinned = pinnedTier;
+    return pinned != null ? pinned : adaptiveTier;
+  }
+
+  /**
+   * Get the tier the governor picked from the tick time, pinned or not.
+   *
+   * @return The adaptive tier
+   */
+  public EffectDetail getAdaptiveTier() {
+    return adaptiveTier;
+  }
+
+  /**
+   * Get the pinned tier.
+   *
+   * @return The pinned tier, or null if the tier is adaptive
+   */
+  public EffectDetail getPinnedTier() {
+    return pinnedTier;
+  }
+
+  /**
+   * Pin the quality tier, or return to the adaptive tier.
+   *
+   * @param tier The tier to pin, or null to unpin
+   */
+  public void pin(EffectDetail tier) {
+    pinnedTier = tier;
+  }
+
+  /**
+   * Get the tick time of the last sample.
+   *
+   * @return The average milliseconds per tick, or 0 before the first sample
+   */
+  public double getLastMspt() {
+    return lastMspt;
+  }
+
+  /**
+   * Check whether the governor lowers the quality under load.
+   *
+   * @return true if adaptive mode is enabled
+   */
+  public boolean isAdaptive() {
+    return adaptive;
+  }
+}
@@ -0,0 +1,222 @@
+package org.cavarest.dragonegglightning.effect;
+
+import org.bukkit.Color;
+import org.bukkit.Location;
+import org.bukkit.Particle;
+import org.bukkit.Sound;
+import org.bukkit.World;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Player;
+
+/**
+ * The purple lightning effect drawn at every strike: a column of purple
+ * dust and electric sparks rising from the target, a burst of magenta
+ * dust and a flash at the impact, with thunder and an impact blast.
+ *
+ * The beam's points are baked into {@link BeamShape}s when the effect is
+ * created and the dust colors are shared constants, so a strike only
+ * translates the points to the target and emits them into a
+ * {@link ParticleSink}, through the primitive-coordinate
+ * {@code spawnParticle} overloads that need no {@code Location}.
+ *
+ * Each nearby player is sent the effect on their own, at an
+ * {@link EffectDetail} that depends on their distance from the impact:
+ * the full effect up close, a sparse beam at mid range and only the flash
+ * and thunder far away. Players fighting at the strike see it unchanged,
+ * while a crowd around them costs a fraction of the particle packets.
+ * A quality cap, such as the {@link EffectQualityGovernor}'s tier while
+ * the server lags, lowers every viewer's detail further. Immutable and
+ * safe to share between threads.
+ */
+public final class LightningEffect {
+
+  /**
+   * Height of the beam in blocks.
+   */
+  public static final double BEAM_HEIGHT = 10.0;
+
+  /**
+   * Blocks between two beam points unless configured otherwise.
+   */
+  public static final double DEFAULT_BEAM_SPACING = 0.3;
+
+  /**
+   * Distance up to which viewers get the full effect by default.
+   */
+  public static final double DEFAULT_FULL_DISTANCE = 16.0;
+
+  /**
+   * Distance up to which viewers get the sparse beam by default.
+   */
+  public static final double DEFAULT_REDUCED_DISTANCE = 32.0;
+
+  /**
+   * Distance up to which viewers get anything by default: as far as the
+   * thunder carries at volume 3.
+   */
+  public static final double DEFAULT_MAX_DISTANCE = 48.0;
+
+  private static final double MIN_BEAM_SPACING = 0.1;
+  private static final double SPARSE_BEAM_FACTOR = 3.0;
+  private static final Particle.DustOptions BEAM_DUST =
+    new Particle.DustOptions(Color.fromRGB(128, 0, 128), 2.0f);
+  private static final Particle.DustOptions IMPACT_DUST =
+    new Particle.DustOptions(Color.fromRGB(255, 0, 255), 1.5f);
+
+  private final BeamShape beam;
+  private final BeamShape sparseBeam;
+  private final double fullDistanceSquared;
+  private final double reducedDistanceSquared;
+  private final double maxDistance;
+
+  /**
+   * Create the effect with the default distances.
+   *
+   * @param beamSpacing Blocks between two beam points; smaller is denser.
+   *     Clamped between 0.1 and the beam's height
+   */
+  public LightningEffect(double beamSpacing) {
+    this(beamSpacing, DEFAULT_FULL_DISTANCE, DEFAULT_REDUCED_DISTANCE, DEFAULT_MAX_DISTANCE);
+  }
+
+  /**
+   * Create the effect.
+   *
+   * @param beamSpacing Blocks between two beam points; smaller is denser.
+   *     Clamped between 0.1 and the beam's height
+   * @param fullDistance Distance up to which viewers get the full effect
+   * @param reducedDistance Distance up to which viewers get the sparse beam
+   * @param maxDistance Distance beyond which viewers get nothing
+   */
+  public LightningEffect(double beamSpacing, double fullDistance, double reducedDistance, double maxDistance) {
+    double spacing = Double.isNaN(beamSpacing) ? DEFAULT_BEAM_SPACING : beamSpacing;
+    spacing = Math.max(MIN_BEAM_SPACING, Math.min(BEAM_HEIGHT, spacing));
+    this.beam = BeamShape.vertical(BEAM_HEIGHT, spacing);
+    this.sparseBeam = BeamShape.vertical(BEAM_HEIGHT, Math.min(BEAM_HEIGHT, spacing * SPARSE_BEAM_FACTOR));
+    this.maxDistance = Math.max(0.0, maxDistance);
+    double reduced = Math.max(0.0, Math.min(reducedDistance, this.maxDistance));
+    double full = Math.max(0.0, Math.min(fullDistance, reduced));
+    this.fullDistanceSquared = full * full;
+    this.reducedDistanceSquared = reduced * reduced;
+  }
+
+  /**
+   * Create the effect from the {@code effects} settings of a config.
+   *
+   * @param config The plugin's config, or null for the defaults
+   * @return The effect
+   */
+  public static LightningEffect fromConfig(ConfigurationSection config) {
+    if (config == null) {
+      return new LightningEffect(DEFAULT_BEAM_SPACING);
+    }
+    return new LightningEffect(
+      config.getDouble("effects.beam-spacing", DEFAULT_BEAM_SPACING),
+      config.getDouble("effects.lod.full-distance", DEFAULT_FULL_DISTANCE),
+      config.getDouble("effects.lod.reduced-distance", DEFAULT_REDUCED_DISTANCE),
+      config.getDouble("effects.lod.max-distance", DEFAULT_MAX_DISTANCE)
+    );
+  }
+
+  /**
+   * Get the number of points in the full beam.
+   *
+   * @return The beam's point count
+   */
+  public int getBeamPoints() {
+    return beam.size();
+  }
+
+  /**
+   * Get the detail a viewer at some distance from the impact is sent.
+   *
+   * @param distanceSquared The squared distance from the impact
+   * @return The detail, or null if the viewer is too far to get anything
+   */
+  public EffectDetail detailAt(double distanceSquared) {
+    if (distanceSquared <= fullDistanceSquared) {
+      return EffectDetail.FULL;
+    }
+    if (distanceSquared <= reducedDistanceSquared) {
+      return EffectDetail.REDUCED;
+    }
+    if (distanceSquared <= maxDistance * maxDistance) {
+      return EffectDetail.MINIMAL;
+    }
+    return null;
+  }
+
+  /**
+   * Send the effect to every player near the impact, each at the detail
+   * their distance calls for, but never above the cap. Must run on the
+   * thread that owns the impact's region.
+   *
+   * @param world The world of the impact
+   * @param impact Where the bolt lands
+   * @param cap The most detail anyone is sent
+   */
+  public void play(World world, Location impact, EffectDetail cap) {
+    double x = impact.getX();
+    double y = impact.getY();
+    double z = impact.getZ();
+    Location viewerLocation = new Location(world, 0, 0, 0);
+    for (Player viewer : world.getNearbyPlayers(impact, maxDistance)) {
+      Location at = viewer.getLocation(viewerLocation);
+      double dx = at.getX() - x;
+      double dy = at.getY() - y;
+      double dz = at.getZ() - z;
+      EffectDetail detail = detailAt(dx * dx + dy * dy + dz * dz);
+      if (detail != null) {
+        detail = detail.lowerOf(cap);
+        play(ParticleSink.of(viewer), detail, x, y, z);
+        playSounds(viewer, detail, impact);
+      }
+    }
+  }
+
+  /**
+   * Draw the effect's particles into a sink.
+   *
+   * @param sink Where the particles go
+   * @param detail How much of the effect to draw
+   * @param x The impact's X coordinate
+   * @param y The impact's Y coordinate
+   * @param z The impact's Z coordinate
+   */
+  public void play(ParticleSink sink, EffectDetail detail, double x, double y, double z) {
+    if (detail == EffectDetail.SOUND_ONLY) {
+      return;
+    }
+    if (detail != EffectDetail.MINIMAL) {
+      // Vertical purple beam with electric sparks
+      BeamShape shape = detail == EffectDetail.FULL ? beam : sparseBeam;
+      for (int i = 0; i < shape.size(); i++) {
+        double pointX = x + shape.offsetX(i);
+        double pointY = y + shape.offsetY(i);
+        double pointZ = z + shape.offsetZ(i);
+        sink.spawn(Particle.DUST, pointX, pointY, pointZ, 5, 0.1, 0.1, 0.1, 0, BEAM_DUST);
+        sink.spawn(Particle.ELECTRIC_SPARK, pointX, pointY, pointZ, 3, 0.2, 0.2, 0.2, 0.05, null);
+      }
+    }
+
+    // Explosion and flash at the impact
+    if (detail == EffectDetail.FULL) {
+      sink.spawn(Particle.DUST, x, y, z, 50, 0.5, 0.5, 0.5, 0, IMPACT_DUST);
+    }
+    sink.spawn(Particle.FLASH, x, y, z, 1, 0, 0, 0, 0, null);
+  }
+
+  /**
+   * Play the effect's sounds to one viewer.
+   *
+   * @param viewer The player hearing them
+   * @param detail How much of the effect the viewer gets
+   * @param impact Where the bolt lands
+   */
+  private void playSounds(Player viewer, EffectDetail detail, Location impact) {
+    viewer.playSound(impact, Sound.ENTITY_LIGHTNING_BOLT_THUNDER, 3.0f, 1.0f);
+    if (detail == EffectDetail.FULL || detail == EffectDetail.REDUCED) {
+      viewer.playSound(impact, Sound.ENTITY_DRAGON_FIREBALL_EXPLODE, 2.0f, 1.0f);
+    }
+  }
+}
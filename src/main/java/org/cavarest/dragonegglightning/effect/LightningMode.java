@@ -0,0 +1,102 @@
+package org.cavarest.dragonegglightning.effect;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.EntityType;
+
+import java.util.Locale;
+
+/**
+ * What lands at the target of each strike besides the purple effect. The
+ * plugin's own damage is dealt the same way in every mode.
+ */
+public enum LightningMode {
+
+  /**
+   * A real lightning bolt: it hurts whatever stands next to the target,
+   * starts fires, charges creepers and converts mobs, and the server ticks
+   * it until it fades.
+   */
+  ENTITY {
+    @Override
+    public void strike(World world, Location target) {
+      world.spawnEntity(target, EntityType.LIGHTNING_BOLT);
+    }
+  },
+
+  /**
+   * A visual-only bolt: the vanilla flash, but no fire, no damage and no
+   * effect on nearby mobs. The server still keeps it as an entity for the
+   * few ticks it is visible.
+   */
+  EFFECT {
+    @Override
+    public void strike(World world, Location target) {
+      world.strikeLightningEffect(target);
+    }
+  },
+
+  /**
+   * No bolt at all: the purple beam, flash and thunder sent to each viewer
+   * are the lightning, and the server has no entity to tick.
+   */
+  PARTICLES {
+    @Override
+    public void strike(World world, Location target) {
+    }
+  };
+
+  /**
+   * Land this mode's bolt. Must run on the thread that owns the target's
+   * region.
+   *
+   * @param world The world of the target
+   * @param target Where the bolt lands
+   */
+  public abstract void strike(World world, Location target);
+
+  /**
+   * Read the mode from the {@code effects.lightning-mode} setting of a
+   * config.
+   *
+   * @param config The plugin's config, or null for the default
+   * @return The mode, {@link #ENTITY} unless configured otherwise
+   */
+  public static LightningMode fromConfig(ConfigurationSection config) {
+    if (config == null) {
+      return ENTITY;
+    }
+    return parse(config.getString("effects.lightning-mode"), ENTITY);
+  }
+
+  /**
+   * Parse a mode from configuration, ignoring case, dashes and
+   * underscores.
+   *
+   * @param name The name, e.g. "effect"
+   * @param fallback Returned if the name is null or unknown
+   * @return The mode
+   */
+  public static LightningMode parse(String name, LightningMode fallback) {
+    if (name == null) {
+      return fallback;
+    }
+    String key = name.trim().replace("-", "").replace("_", "").toUpperCase(Locale.ROOT);
+    for (LightningMode mode : values()) {
+      if (mode.name().equals(key)) {
+        return mode;
+      }
+    }
+    return fallback;
+  }
+
+  /**
+   * Get the name used in configuration.
+   *
+   * @return The lower-case name
+   */
+  public String configName() {
+    return name().toLowerCase(Locale.ROOT);
+  }
+}
@@ -0,0 +1,62 @@
+package org.cavarest.dragonegglightning.effect;
+
+import org.bukkit.Particle;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+/**
+ * Where an effect's particles go. Mirrors the primitive-coordinate
+ * {@code spawnParticle} overloads, so emitting needs no {@code Location}.
+ */
+@FunctionalInterface
+public interface ParticleSink {
+
+  /**
+   * Emit particles.
+   *
+   * @param particle The particle
+   * @param x The X coordinate
+   * @param y The Y coordinate
+   * @param z The Z coordinate
+   * @param count The number of particles
+   * @param offsetX The random spread along X
+   * @param offsetY The random spread along Y
+   * @param offsetZ The random spread along Z
+   * @param extra The particle's extra value, usually its speed
+   * @param data The particle's data, or null if it takes none
+   */
+  void spawn(
+    Particle particle,
+    double x,
+    double y,
+    double z,
+    int count,
+    double offsetX,
+    double offsetY,
+    double offsetZ,
+    double extra,
+    Object data
+  );
+
+  /**
+   * Emit to every player near the particles in a world.
+   *
+   * @param world The world
+   * @return The sink
+   */
+  static ParticleSink of(World world) {
+    return (particle, x, y, z, count, offsetX, offsetY, offsetZ, extra, data) ->
+      world.spawnParticle(particle, x, y, z, count, offsetX, offsetY, offsetZ, extra, data);
+  }
+
+  /**
+   * Emit to one player only.
+   *
+   * @param player The player
+   * @return The sink
+   */
+  static ParticleSink of(Player player) {
+    return (particle, x, y, z, count, offsetX, offsetY, offsetZ, extra, data) ->
+      player.spawnParticle(particle, x, y, z, count, offsetX, offsetY, offsetZ, extra, data);
+  }
+}
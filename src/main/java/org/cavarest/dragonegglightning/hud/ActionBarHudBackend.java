@@ -0,0 +1,56 @@
+package org.cavarest.dragonegglightning.hud;
+
+import net.kyori.adventure.audience.Audience;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import org.bukkit.entity.Player;
+
+/**
+ * The default HUD: cooldown text in the action bar. The client fades the
+ * bar out by itself, so hiding needs no packet.
+ */
+public final class ActionBarHudBackend implements HudBackend {
+
+  private final HudComponentCache components;
+
+  /**
+   * Create the backend.
+   *
+   * @param components Pre-rendered HUD segments
+   */
+  public ActionBarHudBackend(HudComponentCache components) {
+    this.components = components;
+  }
+
+  @Override
+  public boolean isThreadSafe() {
+    // Sending an action bar only queues a packet on the connection
+    return true;
+  }
+
+  @Override
+  public void render(Player player, HudState state, long nowTick) {
+    send(player, state, nowTick);
+  }
+
+  @Override
+  public void send(Audience audience, HudState state, long nowTick) {
+    Component bar;
+    if (state.size() == 1) {
+      bar = components.get(state.abilityId(0), state.seconds(0), false);
+    } else {
+      // Several abilities share the bar, so cooldowns need their labels
+      TextComponent.Builder combined = Component.text();
+      for (int i = 0; i < state.size(); i++) {
+        if (i > 0) {
+          combined.append(components.separator());
+        }
+        combined.append(components.get(state.abilityId(i), state.seconds(i), true));
+      }
+      bar = combined.build();
+    }
+
+    // Send action bar (appears above hotbar, middle-left area)
+    audience.sendActionBar(bar);
+  }
+}
@@ -0,0 +1,96 @@
+package org.cavarest.dragonegglightning.hud;
+
+import org.cavarest.dragonegglightning.ability.Ability;
+import org.cavarest.dragonegglightning.ability.AbilityManager;
+import net.kyori.adventure.bossbar.BossBar;
+import org.bukkit.entity.Player;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * HUD shown as a boss bar that drains while the longest running cooldown
+ * counts down. Each player's bar is created once and then only has its
+ * name, progress and colour changed; Adventure sends an update only for
+ * values that actually changed, and the client animates the progress.
+ */
+public final class BossBarHudBackend implements HudBackend {
+
+  private static final class PlayerBar {
+    private final BossBar bar;
+    private boolean visible;
+
+    private PlayerBar(BossBar bar) {
+      this.bar = bar;
+    }
+  }
+
+  private final AbilityManager abilityManager;
+  private final HudComponentCache components;
+  private final Map<UUID, PlayerBar> bars = new ConcurrentHashMap<>();
+
+  /**
+   * Create the backend.
+   *
+   * @param abilityManager The ability manager, for cooldown lengths
+   * @param components Pre-rendered HUD segments, used as bar titles
+   */
+  public BossBarHudBackend(AbilityManager abilityManager, HudComponentCache components) {
+    this.abilityManager = abilityManager;
+    this.components = components;
+  }
+
+  @Override
+  public void render(Player player, HudState state, long nowTick) {
+    // Show the ability the player has to wait for the longest
+    int shown = 0;
+    for (int i = 1; i < state.size(); i++) {
+      if (state.seconds(i) > state.seconds(shown)) {
+        shown = i;
+      }
+    }
+    int abilityId = state.abilityId(shown);
+    int seconds = state.seconds(shown);
+    Ability ability = abilityManager.getAbility(abilityId);
+    float progress = 1.0f;
+    if (seconds > 0 && ability != null) {
+      double total = Math.max(1.0, Math.ceil(ability.getCooldownMillis() / 1000.0));
+      progress = (float) Math.min(1.0, seconds / total);
+    }
+
+    PlayerBar playerBar = bars.get(player.getUniqueId());
+    if (playerBar == null) {
+      playerBar = new PlayerBar(BossBar.bossBar(
+        components.get(abilityId, seconds, true),
+        progress,
+        BossBar.Color.PURPLE,
+        BossBar.Overlay.PROGRESS
+      ));
+      bars.put(player.getUniqueId(), playerBar);
+    } else {
+      playerBar.bar.name(components.get(abilityId, seconds, true));
+      playerBar.bar.progress(progress);
+    }
+    playerBar.bar.color(seconds > 0 ? BossBar.Color.PURPLE : BossBar.Color.GREEN);
+    if (!playerBar.visible) {
+      player.showBossBar(playerBar.bar);
+      playerBar.visible = true;
+    }
+  }
+
+  @Override
+  public void hide(Player player) {
+    PlayerBar playerBar = bars.get(player.getUniqueId());
+    if (playerBar != null && playerBar.visible) {
+      player.hideBossBar(playerBar.bar);
+      playerBar.visible = false;
+    }
+  }
+
+  @Override
+  public void remove(Player player) {
+    hide(player);
+    bars.remove(player.getUniqueId());
+  }
+}
@@ -0,0 +1,67 @@
+package org.cavarest.dragonegglightning.hud;
+
+import net.kyori.adventure.audience.Audience;
+import org.bukkit.entity.Player;
+
+/**
+ * Presents a player's ability display. Backends are called on the thread
+ * that owns the player, or through {@link #send} on the render thread if
+ * they are {@link #isThreadSafe() thread-safe}, and only when
+ * {@link HudState} reports that the display changed or is due for a
+ * keep-alive.
+ */
+public interface HudBackend {
+
+  /**
+   * Show a display.
+   *
+   * @param player The player
+   * @param state The display to show, one entry per visible ability
+   * @param nowTick The current cooldown clock tick
+   */
+  void render(Player player, HudState state, long nowTick);
+
+  /**
+   * Show a display on the {@link HudRenderPipeline} thread. Only called
+   * for {@link #isThreadSafe() thread-safe} backends, and must not read
+   * anything from the player beyond sending to it.
+   *
+   * @param audience The player's audience
+   * @param state The display to show, one entry per visible ability
+   * @param nowTick The cooldown clock tick the display was collected at
+   */
+  default void send(Audience audience, HudState state, long nowTick) {
+    throw new UnsupportedOperationException(getClass().getSimpleName() + " renders on the player's thread");
+  }
+
+  /**
+   * Check whether the backend implements {@link #send}, building the
+   * display from the {@link HudState} alone and only sending packets, so
+   * it may run on the {@link HudRenderPipeline} thread. Such backends must
+   * not need {@link #hide}.
+   *
+   * @return true if the backend can render off the player's thread
+   */
+  default boolean isThreadSafe() {
+    return false;
+  }
+
+  /**
+   * Hide the display after the player stopped holding any ability item.
+   * Backends whose display fades on its own do nothing.
+   *
+   * @param player The player
+   */
+  default void hide(Player player) {
+  }
+
+  /**
+   * Hide the display and release anything kept for the player, because
+   * the player left or switched to another backend.
+   *
+   * @param player The player
+   */
+  default void remove(Player player) {
+    hide(player);
+  }
+}
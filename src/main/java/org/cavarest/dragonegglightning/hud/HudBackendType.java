@@ -0,0 +1,55 @@
+package org.cavarest.dragonegglightning.hud;
+
+import java.util.Locale;
+
+/**
+ * The available HUD backends.
+ */
+public enum HudBackendType {
+
+  /**
+   * Cooldown text in the action bar above the hotbar.
+   */
+  ACTION_BAR,
+
+  /**
+   * A boss bar whose progress drains while the ability cools down.
+   */
+  BOSS_BAR,
+
+  /**
+   * The client's own cooldown overlay on the ability item, sent once per
+   * cast and animated by the client.
+   */
+  ITEM_COOLDOWN;
+
+  /**
+   * Parse a backend name from configuration or a command,
+   * case-insensitively and accepting dashes or no separator.
+   *
+   * @param name The name, such as {@code action-bar} or {@code bossbar}
+   * @param fallback The backend to use if the name is missing or unknown
+   * @return The matching backend, or the fallback
+   */
+  public static HudBackendType parse(String name, HudBackendType fallback) {
+    if (name == null) {
+      return fallback;
+    }
+    String key = name.trim().replace("-", "").replace("_", "").toUpperCase(Locale.ROOT);
+    for (HudBackendType type : values()) {
+      if (type.name().replace("_", "").equals(key)) {
+        return type;
+      }
+    }
+    return fallback;
+  }
+
+  /**
+   * Get the name used in configuration and commands.
+   *
+   * @return The lower-case name with dashes
+   */
+  public String configName() {
+    return name().toLowerCase(Locale.ROOT).replace('_', '-');
+  }
+}
@@ -0,0 +1,148 @@
+package org.cavarest.dragonegglightning.hud;
+
+import org.cavarest.dragonegglightning.ability.Ability;
+import org.cavarest.dragonegglightning.ability.AbilityManager;
+import org.cavarest.dragonegglightning.ability.AbilityRegistry;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.format.TextDecoration;
+
+/**
+ * Pre-rendered HUD segments for every ability, for the ready state and
+ * each whole second of cooldown.
+ *
+ * Adventure components are immutable, so one instance can be sent to any
+ * number of players from any thread. The cache is sized from each
+ * ability's cooldown and the global cooldown, and rebuilt when
+ * {@link AbilityManager#getCooldownConfigVersion()} changes; longer
+ * cooldowns set by admins are rendered on demand. The current table is
+ * published through a volatile field, so concurrent region threads may
+ * both rebuild after a change but never see a half-built table.
+ */
+public final class HudComponentCache {
+
+  /**
+   * Longest cooldown, in seconds, that is pre-rendered.
+   */
+  public static final int MAX_CACHED_SECONDS = 3600;
+
+  private static final Component SEPARATOR = Component.text("  ");
+
+  /**
+   * Segments indexed by [ability id][seconds], seconds 0 being ready.
+   */
+  private record Table(int version, Component[][] plain, Component[][] labelled) {
+  }
+
+  private final AbilityManager abilityManager;
+  private volatile Table table;
+
+  /**
+   * Create a cache for the abilities of a manager. Segments are built on
+   * first use.
+   *
+   * @param abilityManager The ability manager
+   */
+  public HudComponentCache(AbilityManager abilityManager) {
+    this.abilityManager = abilityManager;
+  }
+
+  /**
+   * Rebuild the segments now if the abilities or cooldowns changed, so a
+   * later {@link #get} on another thread finds them current. Called on
+   * the server thread before a frame is handed to the render thread.
+   */
+  public void refresh() {
+    Table current = table;
+    if (current == null || current.version() != abilityManager.getCooldownConfigVersion()) {
+      rebuild();
+    }
+  }
+
+  /**
+   * Get the HUD segment for an ability.
+   *
+   * @param abilityId The ability id
+   * @param seconds The remaining cooldown in seconds, 0 when ready
+   * @param labelled Whether to name the ability while it is cooling down
+   * @return The segment, or an empty component for an unknown id
+   */
+  public Component get(int abilityId, int seconds, boolean labelled) {
+    Table current = table;
+    if (current == null || current.version() != abilityManager.getCooldownConfigVersion()) {
+      current = rebuild();
+    }
+    Component[][] rows = labelled ? current.labelled() : current.plain();
+    if (abilityId <= 0 || abilityId >= rows.length || rows[abilityId] == null) {
+      return Component.empty();
+    }
+    Component[] row = rows[abilityId];
+    if (seconds >= 0 && seconds < row.length) {
+      return row[seconds];
+    }
+    Ability ability = abilityManager.getRegistry().get(abilityId);
+    return ability == null ? Component.empty() : render(ability, seconds, labelled);
+  }
+
+  /**
+   * Get the separator placed between segments when several abilities
+   * share the action bar.
+   *
+   * @return The separator
+   */
+  public Component separator() {
+    return SEPARATOR;
+  }
+
+  private Table rebuild() {
+    int version = abilityManager.getCooldownConfigVersion();
+    AbilityRegistry registry = abilityManager.getRegistry();
+    int globalSeconds = abilityManager.getGlobalCooldownDuration();
+    Component[][] plain = new Component[registry.getMaxId() + 1][];
+    Component[][] labelled = new Component[registry.getMaxId() + 1][];
+    for (int id = 1; id <= registry.getMaxId(); id++) {
+      Ability ability = registry.get(id);
+      if (ability == null) {
+        continue;
+      }
+      long abilitySeconds = (ability.getCooldownMillis() + 999L) / 1000L;
+      int size = (int) Math.min(MAX_CACHED_SECONDS, Math.max(abilitySeconds, globalSeconds)) + 1;
+      plain[id] = new Component[size];
+      labelled[id] = new Component[size];
+      for (int seconds = 0; seconds < size; seconds++) {
+        plain[id][seconds] = render(ability, seconds, false);
+        // The ready segment always names the ability
+        labelled[id][seconds] = seconds == 0 ? plain[id][0] : render(ability, seconds, true);
+      }
+    }
+    Table built = new Table(version, plain, labelled);
+    table = built;
+    return built;
+  }
+
+  /**
+   * Build the HUD segment for one ability.
+   *
+   * @param ability The ability
+   * @param cooldown The remaining cooldown in seconds, 0 when ready
+   * @param labelled Whether to name the ability while it is cooling down
+   * @return The cooldown or ready segment
+   */
+  private static Component render(Ability ability, int cooldown, boolean labelled) {
+    if (cooldown > 0) {
+      // Show cooldown time
+      String text = labelled ? ability.getHudLabel() + " " + cooldown + "s" : cooldown + "s";
+      return Component.text()
+        .append(Component.text("⚡ ", NamedTextColor.DARK_PURPLE))
+        .append(Component.text(text, NamedTextColor.RED))
+        .decoration(TextDecoration.BOLD, true)
+        .build();
+    }
+    // Show ready status
+    return Component.text()
+      .append(Component.text("⚡ ", NamedTextColor.LIGHT_PURPLE))
+      .append(Component.text(ability.getHudLabel() + " ready", NamedTextColor.GREEN))
+      .decoration(TextDecoration.BOLD, false)
+      .build();
+  }
+}
@@ -3,21 +3,66 @@ package org.cavarest.dragonegglightning.hud;
 import org.cavarest.dragonegglightning.DragonEggLightningPlugin;
 import org.cavarest.dragonegglightning.ability.Ability;
 import org.cavarest.dragonegglightning.ability.AbilityManager;
+import org.cavarest.dragonegglightning.ability.AbilityRegistry;
+import org.cavarest.dragonegglightning.ability.DragonEggHolderIndex;
+import org.cavarest.dragonegglightning.cooldown.CooldownClock;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
-import net.kyori.adventure.text.format.TextDecoration;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
-import org.bukkit.scheduler.BukkitTask;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Manages HUD display for ability cooldowns.
+ *
+ * Each online player gets a repeating task on their own entity scheduler,
+ * so on Folia the HUD is rendered by the region thread that owns the
+ * player; on plain Paper these tasks run on the main thread as before.
+ * While every registered ability uses the {@link DragonEggHolderIndex},
+ * only indexed Dragon Egg holders get a task; it starts and stops as they
+ * pick up and put away the egg. Tasks run once per refresh period, each
+ * player in a bucket picked from their UUID, and slow down further when
+ * the server lags (see {@link HudRefreshGovernor}). The display is
+ * only passed to the player's {@link HudBackend} when what it shows
+ * changes or is about to fade (see {@link HudState}). The backend is
+ * chosen per server with {@code hud.backend} and can be overridden per
+ * player with {@link #setBackend}. With {@code hud.async-render}, players
+ * whose display needs no world access are collected into one frame per
+ * refresh period on the global region thread, and a
+ * {@link HudRenderPipeline} thread builds and sends their displays
+ * instead of a per-player task.
  */
-public class HudManager {
+public class HudManager implements Listener {
+
+  private static final long GOVERNOR_INTERVAL_TICKS = 20L;
 
   private final DragonEggLightningPlugin plugin;
   private final AbilityManager abilityManager;
-  private BukkitTask updateTask;
+  private final Map<UUID, ScheduledTask> updateTasks = new ConcurrentHashMap<>();
+  private final Map<UUID, HudState> hudStates = new ConcurrentHashMap<>();
+  private final HudComponentCache components;
+  private final DragonEggHolderIndex holderIndex;
+  private final HudRefreshGovernor governor;
+  private final Map<HudBackendType, HudBackend> backends = new EnumMap<>(HudBackendType.class);
+  private final HudBackendType defaultBackend;
+  private final Map<UUID, HudBackendType> playerBackends = new ConcurrentHashMap<>();
+  private final HudRenderPipeline renderPipeline;
+  private final boolean readyChat;
+  // Counts the render task's runs for the governor, on the global thread
+  private final HudState renderRuns = new HudState();
+  private ScheduledTask reconcileTask;
+  private ScheduledTask governorTask;
+  private ScheduledTask renderTask;
+  private int reconciledVersion;
 
   public HudManager(
     DragonEggLightningPlugin plugin,
@@ -25,72 +70,402 @@ public class HudManager {
   ) {
     this.plugin = plugin;
     this.abilityManager = abilityManager;
-    startUpdateTask();
+    this.components = new HudComponentCache(abilityManager);
+    this.holderIndex = plugin.getHolderIndex();
+    this.governor = new HudRefreshGovernor(
+      plugin.getConfig().getInt("hud.refresh-period-ticks", 2),
+      plugin.getConfig().getInt("hud.max-refresh-period-ticks", 20),
+      plugin.getConfig().getBoolean("hud.adaptive", true),
+      plugin.getConfig().getDouble("hud.adaptive-mspt", 45.0)
+    );
+    backends.put(HudBackendType.ACTION_BAR, new ActionBarHudBackend(components));
+    backends.put(HudBackendType.BOSS_BAR, new BossBarHudBackend(abilityManager, components));
+    backends.put(HudBackendType.ITEM_COOLDOWN, new ItemCooldownHudBackend(abilityManager));
+    String backendName = plugin.getConfig().getString("hud.backend", "action-bar");
+    HudBackendType configured = HudBackendType.parse(backendName, null);
+    if (configured == null) {
+      plugin.getLogger().warning("Unknown hud.backend '" + backendName + "', using action-bar");
+      configured = HudBackendType.ACTION_BAR;
+    }
+    this.defaultBackend = configured;
+    this.readyChat = plugin.getConfig().getBoolean("hud.ready-chat", false);
+    if (plugin.getConfig().getBoolean("hud.async-render", false)) {
+      // The backend choices are concurrent maps, so the render thread can
+      // look the player's backend up by UUID
+      renderPipeline = new HudRenderPipeline(
+        (playerId, audience, state, nowTick) -> backendFor(playerId).send(audience, state, nowTick),
+        plugin.getLogger()
+      );
+      renderPipeline.start();
+    } else {
+      renderPipeline = null;
+    }
+    abilityManager.addReadyListener(this::onAbilityReady);
+    if (holderIndex != null) {
+      holderIndex.addListener(this::onHolderChanged);
+    }
+    plugin.getServer().getPluginManager().registerEvents(this, plugin);
+    reconciledVersion = abilityManager.getCooldownConfigVersion();
+    for (Player player : Bukkit.getOnlinePlayers()) {
+      if (needsHud(player)) {
+        startUpdateTask(player);
+      }
+    }
+    reconcileTask = plugin.getServer().getGlobalRegionScheduler().runAtFixedRate(
+      plugin,
+      task -> reconcileTasks(),
+      DragonEggHolderIndex.RECONCILE_INTERVAL_TICKS,
+      DragonEggHolderIndex.RECONCILE_INTERVAL_TICKS
+    );
+    governorTask = plugin.getServer().getGlobalRegionScheduler().runAtFixedRate(
+      plugin,
+      task -> governor.observe(plugin.getServer().getAverageTickTime()),
+      GOVERNOR_INTERVAL_TICKS,
+      GOVERNOR_INTERVAL_TICKS
+    );
+    if (renderPipeline != null) {
+      renderTask = plugin.getServer().getGlobalRegionScheduler().runAtFixedRate(
+        plugin,
+        task -> publishFrame(),
+        governor.periodTicks(),
+        governor.periodTicks()
+      );
+    }
   }
 
   /**
-   * Start the HUD update task.
+   * Start or stop a player's HUD as they pick up or put away the egg.
+   *
+   * @param player The player
+   * @param holding Whether the player now holds a Dragon Egg
    */
-  private void startUpdateTask() {
-    // Update HUD every tick (20 times per second)
-    updateTask = Bukkit.getScheduler().runTaskTimer(
-      plugin,
-      this::updateAllPlayerHuds,
-      0L,
-      1L
-    );
+  private void onHolderChanged(Player player, boolean holding) {
+    if (holding) {
+      if (!isRunning(player.getUniqueId())) {
+        startUpdateTask(player);
+      }
+    } else if (!needsHud(player)) {
+      stopUpdateTask(player);
+    }
+  }
+
+  /**
+   * Check whether a player needs a HUD task: every player does while an
+   * ability that is not indexed is registered, otherwise only holders.
+   *
+   * @param player The player
+   * @return true if the player should have a HUD task
+   */
+  private boolean needsHud(Player player) {
+    return holderIndex == null || holderIndex.isHolding(player) || hasUnindexedAbility();
+  }
+
+  /**
+   * Check whether a player's HUD can be rendered off the server thread:
+   * the pipeline is enabled, the backend builds its display from the
+   * frame alone and only sends packets, and no ability has to read the
+   * player's inventory.
+   *
+   * @param player The player
+   * @return true if the player's HUD belongs to the render pipeline
+   */
+  private boolean rendersAsync(Player player) {
+    return renderPipeline != null
+      && holderIndex != null
+      && backendFor(player).isThreadSafe()
+      && !hasUnindexedAbility();
+  }
+
+  private boolean hasUnindexedAbility() {
+    AbilityRegistry registry = abilityManager.getRegistry();
+    for (int id = 1; id <= registry.getMaxId(); id++) {
+      Ability ability = registry.get(id);
+      if (ability != null && !ability.isRequiredItemIndexed()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private boolean isRunning(UUID playerId) {
+    return updateTasks.containsKey(playerId)
+      || (renderPipeline != null && renderPipeline.contains(playerId));
   }
 
   /**
-   * Update HUD for all online players.
+   * Re-evaluate which players need a HUD task, and whether it belongs to
+   * the render pipeline, after abilities were registered or unregistered.
    */
-  private void updateAllPlayerHuds() {
+  private void reconcileTasks() {
+    int version = abilityManager.getCooldownConfigVersion();
+    if (version == reconciledVersion) {
+      return;
+    }
+    reconciledVersion = version;
     for (Player player : Bukkit.getOnlinePlayers()) {
-      updatePlayerHud(player);
+      UUID playerId = player.getUniqueId();
+      boolean running = isRunning(playerId);
+      boolean needed = needsHud(player);
+      if (needed && !running) {
+        startUpdateTask(player);
+      } else if (!needed && running) {
+        stopUpdateTask(player);
+      } else if (needed && renderPipeline != null
+          && rendersAsync(player) != renderPipeline.contains(playerId)) {
+        cancelUpdateTask(playerId);
+        startUpdateTask(player);
+      }
     }
   }
 
   /**
-   * Update HUD for a specific player.
+   * Refresh a player's HUD the moment an ability's cooldown expires,
+   * instead of waiting for the HUD loop to notice, and with
+   * {@code hud.ready-chat} tell players who hold the ability's item in
+   * chat. Called on the global region thread, so the work runs on the
+   * player's own scheduler.
+   *
+   * @param playerId The player whose cooldown expired
+   * @param ability The ability that is ready again
+   */
+  private void onAbilityReady(UUID playerId, Ability ability) {
+    Player player = Bukkit.getPlayer(playerId);
+    if (player == null) {
+      return;
+    }
+
+    player.getScheduler().run(plugin, task -> {
+      if (readyChat && ability.isRequiredItemShown(player)) {
+        player.sendMessage(
+          Component.text("⚡ " + ability.getName() + " is ready!", NamedTextColor.LIGHT_PURPLE)
+        );
+      }
+      // Pipeline players have no state here and pick the change up with
+      // the next frame
+      HudState state = hudStates.get(playerId);
+      if (state != null) {
+        updatePlayerHud(player, state);
+      }
+    }, null);
+  }
+
+  /**
+   * Start the HUD update task for a player.
    *
    * @param player The player
    */
-  private void updatePlayerHud(Player player) {
-    // Only show HUD if player has dragon egg in offhand
-    Ability lightningAbility = abilityManager.getAbility(1);
-    if (lightningAbility == null || !lightningAbility.hasRequiredItem(player)) {
+  private void startUpdateTask(Player player) {
+    // Each player starts in a bucket of the refresh period, so the HUD
+    // work is spread evenly over ticks; the task retires with the player
+    UUID playerId = player.getUniqueId();
+    if (rendersAsync(player)) {
+      hudStates.remove(playerId);
+      renderPipeline.add(player);
       return;
     }
+    HudState state = new HudState();
+    hudStates.put(playerId, state);
+    ScheduledTask task = player.getScheduler().runAtFixedRate(
+      plugin,
+      scheduled -> {
+        if (governor.shouldRun(state)) {
+          updatePlayerHud(player, state);
+        }
+      },
+      () -> {
+        updateTasks.remove(playerId);
+        hudStates.remove(playerId);
+      },
+      governor.initialDelayTicks(playerId),
+      governor.periodTicks()
+    );
+    if (task != null) {
+      ScheduledTask previous = updateTasks.put(player.getUniqueId(), task);
+      if (previous != null) {
+        previous.cancel();
+      }
+    }
+  }
 
-    int cooldown = abilityManager.getRemainingCooldown(player);
+  /**
+   * Start the HUD for a joining player.
+   *
+   * @param event The player join event
+   */
+  @EventHandler
+  public void onPlayerJoin(PlayerJoinEvent event) {
+    // Holders are started by the index once it has read the offhand
+    if (needsHud(event.getPlayer())) {
+      startUpdateTask(event.getPlayer());
+    }
+  }
 
-    Component hudText;
-    if (cooldown > 0) {
-      // Show cooldown time
-      hudText = Component.text()
-        .append(Component.text("⚡ ", NamedTextColor.DARK_PURPLE))
-        .append(Component.text(cooldown + "s", NamedTextColor.RED))
-        .decoration(TextDecoration.BOLD, true)
-        .build();
+  /**
+   * Stop the HUD for a leaving player.
+   *
+   * @param event The player quit event
+   */
+  @EventHandler
+  public void onPlayerQuit(PlayerQuitEvent event) {
+    Player player = event.getPlayer();
+    cancelUpdateTask(player.getUniqueId());
+    backendFor(player).remove(player);
+    playerBackends.remove(player.getUniqueId());
+  }
+
+  /**
+   * Stop a player's HUD task and hide what the backend shows. The hide
+   * runs on the player's own scheduler unless this thread owns the player.
+   *
+   * @param player The player
+   */
+  private void stopUpdateTask(Player player) {
+    cancelUpdateTask(player.getUniqueId());
+    HudBackend backend = backendFor(player);
+    if (Bukkit.isOwnedByCurrentRegion(player)) {
+      backend.hide(player);
     } else {
-      // Show ready status
-      hudText = Component.text()
-        .append(Component.text("⚡ ", NamedTextColor.LIGHT_PURPLE))
-        .append(Component.text("Lightning ready", NamedTextColor.GREEN))
-        .decoration(TextDecoration.BOLD, false)
-        .build();
+      player.getScheduler().run(plugin, task -> backend.hide(player), null);
     }
+  }
 
-    // Send action bar (appears above hotbar, middle-left area)
-    player.sendActionBar(hudText);
+  private void cancelUpdateTask(UUID playerId) {
+    hudStates.remove(playerId);
+    if (renderPipeline != null) {
+      renderPipeline.remove(playerId);
+    }
+    ScheduledTask task = updateTasks.remove(playerId);
+    if (task != null) {
+      task.cancel();
+    }
+  }
+
+  /**
+   * Get the HUD backend a player uses.
+   *
+   * @param player The player
+   * @return The player's own choice, or the server default
+   */
+  public HudBackendType getBackend(Player player) {
+    return playerBackends.getOrDefault(player.getUniqueId(), defaultBackend);
+  }
+
+  /**
+   * Switch a player to another HUD backend until they log out. The old
+   * backend's display is removed and the HUD restarted, so the new one is
+   * shown within one refresh period. Must run on the thread that owns the
+   * player.
+   *
+   * @param player The player
+   * @param type The backend to use
+   */
+  public void setBackend(Player player, HudBackendType type) {
+    HudBackend previous = backendFor(player);
+    if (type == defaultBackend) {
+      playerBackends.remove(player.getUniqueId());
+    } else {
+      playerBackends.put(player.getUniqueId(), type);
+    }
+    HudBackend next = backendFor(player);
+    if (next == previous) {
+      return;
+    }
+    // The backend may decide whether the render pipeline is used
+    boolean running = isRunning(player.getUniqueId());
+    cancelUpdateTask(player.getUniqueId());
+    previous.remove(player);
+    if (running) {
+      startUpdateTask(player);
+    }
+  }
+
+  private HudBackend backendFor(Player player) {
+    return backendFor(player.getUniqueId());
+  }
+
+  private HudBackend backendFor(UUID playerId) {
+    return backends.get(playerBackends.getOrDefault(playerId, defaultBackend));
+  }
+
+  /**
+   * Update HUD for a specific player. Every registered ability whose
+   * required item the player holds is part of the display. The display is
+   * only rendered by the player's backend when the state says it has to
+   * be, and hidden once it becomes empty.
+   *
+   * @param player The player
+   * @param state What the player's HUD last showed
+   */
+  private void updatePlayerHud(Player player, HudState state) {
+    AbilityRegistry registry = abilityManager.getRegistry();
+    state.begin();
+    for (int id = 1; id <= registry.getMaxId(); id++) {
+      // One admission check covers both the item and the cooldown
+      long readyIn = abilityManager.getReadyInTicks(player, id);
+      if (readyIn != AbilityManager.MISSING_ITEM_TICKS) {
+        state.add(id, readyIn > 0 ? CooldownClock.ticksToSeconds(readyIn) : 0);
+      }
+    }
+    long now = abilityManager.getClock().currentTick();
+    boolean wasShown = state.isShown();
+    if (!state.needsSend(now)) {
+      if (wasShown && state.size() == 0) {
+        backendFor(player).hide(player);
+      }
+      return;
+    }
+    backendFor(player).render(player, state, now);
+    state.markSent(now);
+  }
+
+  /**
+   * Collect the pipeline players' displays into a frame for the render
+   * thread. Runs on the global region thread once per refresh period, and
+   * skips runs like a player task while the server lags. Only the
+   * holder index and the cooldown store are read here; the render thread
+   * sees nothing but the frame.
+   */
+  private void publishFrame() {
+    if (renderPipeline.size() == 0 || !governor.shouldRun(renderRuns)) {
+      return;
+    }
+    components.refresh();
+    AbilityRegistry registry = abilityManager.getRegistry();
+    int maxId = registry.getMaxId();
+    long now = abilityManager.getClock().currentTick();
+    renderPipeline.publish(now, (player, frame) -> {
+      for (int id = 1; id <= maxId; id++) {
+        long readyIn = abilityManager.getReadyInTicks(player, id);
+        if (readyIn != AbilityManager.MISSING_ITEM_TICKS) {
+          frame.add(id, now + Math.max(0L, readyIn));
+        }
+      }
+    });
   }
 
   /**
    * Shutdown the HUD manager.
    */
   public void shutdown() {
-    if (updateTask != null) {
-      updateTask.cancel();
+    if (reconcileTask != null) {
+      reconcileTask.cancel();
+      reconcileTask = null;
+    }
+    if (governorTask != null) {
+      governorTask.cancel();
+      governorTask = null;
+    }
+    if (renderTask != null) {
+      renderTask.cancel();
+      renderTask = null;
+    }
+    if (renderPipeline != null) {
+      renderPipeline.close();
+    }
+    for (ScheduledTask task : updateTasks.values()) {
+      task.cancel();
     }
+    updateTasks.clear();
+    hudStates.clear();
   }
 }
@@ -0,0 +1,100 @@
+package org.cavarest.dragonegglightning.hud;
+
+import java.util.UUID;
+
+/**
+ * Decides how often each player's HUD is refreshed.
+ *
+ * Players are spread over the ticks of the refresh period by a hash of
+ * their UUID, so each tick refreshes about the same share of them. In
+ * adaptive mode the governor watches the server's MSPT: above the target
+ * it doubles a stride by which HUD tasks skip runs, up to the maximum
+ * period, and below 80% of the target it halves the stride again.
+ * {@link #observe} is called from one thread; {@link #shouldRun} is safe
+ * from any thread.
+ */
+public final class HudRefreshGovernor {
+
+  private static final double RECOVER_FACTOR = 0.8;
+
+  private final int periodTicks;
+  private final int maxStride;
+  private final boolean adaptive;
+  private final double targetMspt;
+  private volatile int stride = 1;
+
+  /**
+   * Create a governor.
+   *
+   * @param periodTicks Ticks between refreshes at full rate, at least 1
+   * @param maxPeriodTicks Longest period adaptive mode may slow down to
+   * @param adaptive Whether to slow down when the server lags
+   * @param targetMspt MSPT above which the HUD slows down
+   */
+  public HudRefreshGovernor(int periodTicks, int maxPeriodTicks, boolean adaptive, double targetMspt) {
+    this.periodTicks = Math.max(1, periodTicks);
+    this.maxStride = Math.max(1, maxPeriodTicks / this.periodTicks);
+    this.adaptive = adaptive;
+    this.targetMspt = targetMspt;
+  }
+
+  /**
+   * Get the ticks between scheduled HUD runs for each player.
+   *
+   * @return The refresh period at full rate
+   */
+  public int periodTicks() {
+    return periodTicks;
+  }
+
+  /**
+   * Get the ticks between actual HUD refreshes for each player, including
+   * any slowdown.
+   *
+   * @return The effective refresh period
+   */
+  public int effectivePeriodTicks() {
+    return periodTicks * stride;
+  }
+
+  /**
+   * Get the delay before a player's first HUD run, which places the
+   * player in one of the period's buckets.
+   *
+   * @param playerId The player
+   * @return A delay from 1 to the period, in ticks
+   */
+  public long initialDelayTicks(UUID playerId) {
+    long h = (playerId.getMostSignificantBits() ^ playerId.getLeastSignificantBits()) * 0x9e3779b97f4a7c15L;
+    return 1L + Math.floorMod(h >>> 32, (long) periodTicks);
+  }
+
+  /**
+   * Adjust the refresh rate to the server's tick time. Does nothing unless
+   * adaptive mode is enabled.
+   *
+   * @param mspt The average milliseconds per tick
+   */
+  public void observe(double mspt) {
+    if (!adaptive) {
+      return;
+    }
+    int current = stride;
+    if (mspt > targetMspt && current < maxStride) {
+      stride = Math.min(maxStride, current * 2);
+    } else if (mspt < targetMspt * RECOVER_FACTOR && current > 1) {
+      stride = current / 2;
+    }
+  }
+
+  /**
+   * Check whether a scheduled HUD run should refresh, given how many runs
+   * were skipped since the last refresh.
+   *
+   * @param state The player's HUD state, which counts skipped runs
+   * @return true if this run should refresh the HUD
+   */
+  public boolean shouldRun(HudState state) {
+    return state.countRun(stride);
+  }
+}
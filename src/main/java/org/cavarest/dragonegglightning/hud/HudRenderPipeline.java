@@ -0,0 +1,425 @@
+package org.cavarest.dragonegglightning.hud;
+
+import net.kyori.adventure.audience.Audience;
+import org.bukkit.entity.Player;
+import org.cavarest.dragonegglightning.cooldown.CooldownClock;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Renders HUDs on a background thread instead of the tick.
+ *
+ * The server thread calls {@link #publish} once per refresh period. It
+ * collects a {@link Frame}, an immutable snapshot of which abilities each
+ * registered player is shown and the tick each becomes ready, and hands
+ * it to a single render thread. The render thread works from the frame
+ * alone: it turns it into each player's display and sends it to the
+ * player's audience, looked up by UUID in a concurrent map, so it never
+ * reads a player, an inventory or the cooldown store. A frame is dropped
+ * if the previous one is still rendering, so a slow client connection
+ * never builds a backlog. Each player's {@link HudState} is only touched
+ * by the render thread while registered.
+ *
+ * Only for backends whose display is sent as packets to an audience (see
+ * {@link HudBackend#isThreadSafe()}).
+ */
+public final class HudRenderPipeline implements AutoCloseable {
+
+  /**
+   * Sends one player's display on the render thread.
+   */
+  @FunctionalInterface
+  public interface Renderer {
+
+    /**
+     * Send a display that changed or is due for a keep-alive.
+     *
+     * @param playerId The player
+     * @param audience The player's audience
+     * @param state The display to show
+     * @param nowTick The tick the frame was collected at
+     */
+    void render(UUID playerId, Audience audience, HudState state, long nowTick);
+  }
+
+  /**
+   * Adds a registered player's abilities to a frame, on the server thread.
+   */
+  @FunctionalInterface
+  public interface Collector {
+
+    /**
+     * Add each ability the player is shown.
+     *
+     * @param player The player
+     * @param frame The frame being collected, positioned at the player
+     */
+    void collect(Player player, Frame.Builder frame);
+  }
+
+  /**
+   * What every registered player is shown at one tick: for each player,
+   * rows of (ability id, tick it becomes ready). Never changes once built.
+   */
+  public static final class Frame {
+
+    private final long nowTick;
+    private final UUID[] players;
+    private final int[] firstRow;
+    private final int[] abilityIds;
+    private final long[] readyTicks;
+
+    private Frame(long nowTick, UUID[] players, int[] firstRow, int[] abilityIds, long[] readyTicks) {
+      this.nowTick = nowTick;
+      this.players = players;
+      this.firstRow = firstRow;
+      this.abilityIds = abilityIds;
+      this.readyTicks = readyTicks;
+    }
+
+    /**
+     * Get the tick the frame was collected at.
+     *
+     * @return The tick
+     */
+    public long nowTick() {
+      return nowTick;
+    }
+
+    /**
+     * Get the number of players in the frame.
+     *
+     * @return The player count
+     */
+    public int playerCount() {
+      return players.length;
+    }
+
+    /**
+     * Get a player of the frame.
+     *
+     * @param index The player's position in the frame
+     * @return The player's UUID
+     */
+    public UUID player(int index) {
+      return players[index];
+    }
+
+    /**
+     * Get the first row of a player.
+     *
+     * @param index The player's position in the frame
+     * @return The row index
+     */
+    public int firstRow(int index) {
+      return firstRow[index];
+    }
+
+    /**
+     * Get the row after the last row of a player.
+     *
+     * @param index The player's position in the frame
+     * @return The row index
+     */
+    public int endRow(int index) {
+      return firstRow[index + 1];
+    }
+
+    /**
+     * Get the ability of a row.
+     *
+     * @param row The row index
+     * @return The ability id
+     */
+    public int abilityId(int row) {
+      return abilityIds[row];
+    }
+
+    /**
+     * Get the tick the ability of a row becomes ready.
+     *
+     * @param row The row index
+     * @return The ready tick, at or before {@link #nowTick()} when ready
+     */
+    public long readyTick(int row) {
+      return readyTicks[row];
+    }
+
+    /**
+     * Collects a frame on the server thread.
+     */
+    public static final class Builder {
+
+      private final long nowTick;
+      private UUID[] players;
+      private int[] firstRow;
+      private int playerCount;
+      private int[] abilityIds = new int[16];
+      private long[] readyTicks = new long[16];
+      private int rowCount;
+
+      /**
+       * Start a frame.
+       *
+       * @param nowTick The current tick
+       * @param expectedPlayers The number of players expected
+       */
+      public Builder(long nowTick, int expectedPlayers) {
+        this.nowTick = nowTick;
+        this.players = new UUID[Math.max(1, expectedPlayers)];
+        this.firstRow = new int[players.length + 1];
+      }
+
+      /**
+       * Start the rows of the next player.
+       *
+       * @param playerId The player
+       * @return This builder
+       */
+      public Builder player(UUID playerId) {
+        if (playerCount == players.length) {
+          players = Arrays.copyOf(players, players.length * 2);
+          firstRow = Arrays.copyOf(firstRow, players.length + 1);
+        }
+        players[playerCount] = playerId;
+        firstRow[playerCount] = rowCount;
+        playerCount++;
+        return this;
+      }
+
+      /**
+       * Add an ability the current player is shown.
+       *
+       * @param abilityId The ability id
+       * @param readyTick The tick it becomes ready
+       * @return This builder
+       */
+      public Builder add(int abilityId, long readyTick) {
+        if (rowCount == abilityIds.length) {
+          abilityIds = Arrays.copyOf(abilityIds, rowCount * 2);
+          readyTicks = Arrays.copyOf(readyTicks, rowCount * 2);
+        }
+        abilityIds[rowCount] = abilityId;
+        readyTicks[rowCount] = readyTick;
+        rowCount++;
+        return this;
+      }
+
+      /**
+       * Finish the frame.
+       *
+       * @return The frame
+       */
+      public Frame build() {
+        int[] rows = Arrays.copyOf(firstRow, playerCount + 1);
+        rows[playerCount] = rowCount;
+        return new Frame(
+          nowTick,
+          Arrays.copyOf(players, playerCount),
+          rows,
+          Arrays.copyOf(abilityIds, rowCount),
+          Arrays.copyOf(readyTicks, rowCount)
+        );
+      }
+    }
+  }
+
+  /**
+   * A registered player. The player is only used by the collector on the
+   * server thread and as an audience on the render thread; the state only
+   * by the render thread.
+   */
+  private record Member(Player player, HudState state) {
+  }
+
+  private static final Member[] NO_MEMBERS = new Member[0];
+
+  private final Renderer renderer;
+  private final Logger logger;
+  private final Map<UUID, Member> members = new ConcurrentHashMap<>();
+  private final AtomicBoolean rendering = new AtomicBoolean();
+  private volatile boolean membershipChanged;
+  private Member[] snapshot = NO_MEMBERS;
+  private long droppedFrames;
+  private ExecutorService worker;
+
+  /**
+   * Create a pipeline. Frames are rendered on the calling thread until
+   * {@link #start()} is called.
+   *
+   * @param renderer Sends one player's display
+   * @param logger Logger for render failures
+   */
+  public HudRenderPipeline(Renderer renderer, Logger logger) {
+    this.renderer = renderer;
+    this.logger = logger;
+  }
+
+  /**
+   * Start the render thread.
+   */
+  public void start() {
+    worker = Executors.newSingleThreadExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "DragonEggLightning-HudRender");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Render a player's HUD on the render thread from the next frame on.
+   *
+   * @param player The player
+   */
+  public void add(Player player) {
+    members.put(player.getUniqueId(), new Member(player, new HudState()));
+    membershipChanged = true;
+  }
+
+  /**
+   * Stop rendering a player's HUD. A frame already being rendered may
+   * still include the player once.
+   *
+   * @param playerId The player
+   * @return true if the player was registered
+   */
+  public boolean remove(UUID playerId) {
+    boolean removed = members.remove(playerId) != null;
+    if (removed) {
+      membershipChanged = true;
+    }
+    return removed;
+  }
+
+  /**
+   * Check whether a player's HUD is rendered by this pipeline.
+   *
+   * @param playerId The player
+   * @return true if the player is registered
+   */
+  public boolean contains(UUID playerId) {
+    return members.containsKey(playerId);
+  }
+
+  /**
+   * Get the number of registered players.
+   *
+   * @return The player count
+   */
+  public int size() {
+    return members.size();
+  }
+
+  /**
+   * Get the number of frames dropped because the previous frame was still
+   * rendering.
+   *
+   * @return The dropped frame count
+   */
+  public long getDroppedFrames() {
+    return droppedFrames;
+  }
+
+  /**
+   * Collect a frame of the registered players and hand it to the render
+   * thread. Called from one thread, once per refresh period.
+   *
+   * @param nowTick The current tick
+   * @param collector Adds each player's abilities to the frame
+   * @return false if the frame was dropped because the last one is still
+   *     rendering
+   */
+  public boolean publish(long nowTick, Collector collector) {
+    if (!rendering.compareAndSet(false, true)) {
+      droppedFrames++;
+      return false;
+    }
+    Frame frame;
+    try {
+      if (membershipChanged) {
+        membershipChanged = false;
+        snapshot = members.values().toArray(NO_MEMBERS);
+      }
+      Frame.Builder builder = new Frame.Builder(nowTick, snapshot.length);
+      for (Member member : snapshot) {
+        builder.player(member.player().getUniqueId());
+        collector.collect(member.player(), builder);
+      }
+      frame = builder.build();
+    } catch (RuntimeException e) {
+      rendering.set(false);
+      throw e;
+    }
+    if (worker == null) {
+      renderFrame(frame);
+      return true;
+    }
+    try {
+      worker.execute(() -> renderFrame(frame));
+    } catch (RejectedExecutionException e) {
+      // Closed while the tick was still publishing
+      rendering.set(false);
+    }
+    return true;
+  }
+
+  private void renderFrame(Frame frame) {
+    try {
+      long now = frame.nowTick();
+      for (int i = 0; i < frame.playerCount(); i++) {
+        UUID playerId = frame.player(i);
+        // Players removed since the frame was collected are skipped
+        Member member = members.get(playerId);
+        if (member == null) {
+          continue;
+        }
+        HudState state = member.state();
+        state.begin();
+        for (int row = frame.firstRow(i); row < frame.endRow(i); row++) {
+          long remaining = frame.readyTick(row) - now;
+          state.add(frame.abilityId(row), remaining > 0 ? CooldownClock.ticksToSeconds(remaining) : 0);
+        }
+        if (!state.needsSend(now)) {
+          continue;
+        }
+        try {
+          renderer.render(playerId, member.player(), state, now);
+          state.markSent(now);
+        } catch (RuntimeException e) {
+          logger.log(Level.WARNING, "Failed to render HUD for " + playerId, e);
+        }
+      }
+    } finally {
+      rendering.set(false);
+    }
+  }
+
+  /**
+   * Stop the render thread after the current frame and forget every
+   * player.
+   */
+  @Override
+  public void close() {
+    if (worker != null) {
+      worker.shutdown();
+      try {
+        worker.awaitTermination(1L, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      worker = null;
+    }
+    members.clear();
+    membershipChanged = true;
+  }
+}
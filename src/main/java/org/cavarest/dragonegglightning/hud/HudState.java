@@ -0,0 +1,140 @@
+package org.cavarest.dragonegglightning.hud;
+
+import java.util.Arrays;
+
+/**
+ * What one player's action bar last showed, so the HUD only sends a
+ * packet when the display changes or is about to fade.
+ *
+ * A display is a list of (ability id, seconds shown) pairs, with 0 seconds
+ * meaning ready. Each update fills the pending display with
+ * {@link #begin()} and {@link #add}, then asks {@link #needsSend} whether
+ * it differs from the shown one. The client shows an action bar fully for
+ * about 40 ticks and then fades it out until about 60, so an unchanged
+ * display is re-sent every {@link #KEEP_ALIVE_TICKS}. Confined to the player's scheduler thread, or
+ * to the {@link HudRenderPipeline} thread while the player is registered
+ * there.
+ */
+public final class HudState {
+
+  /**
+   * Ticks after which an unchanged display is sent again. The resend
+   * happens on the first refresh at or after this, so the margin to the
+   * fade starting at 40 ticks leaves room for refreshes that are a few
+   * ticks apart, or slowed down by the governor, to land before it.
+   */
+  public static final long KEEP_ALIVE_TICKS = 30L;
+
+  private int[] shown = new int[8];
+  private int shownLength;
+  private int[] pending = new int[8];
+  private int pendingLength;
+  private long lastSentTick;
+  private int skippedRuns;
+
+  /**
+   * Count a scheduled HUD run and decide whether it should refresh, so
+   * that only every {@code stride}-th run does.
+   *
+   * @param stride Runs per refresh, at least 1
+   * @return true if this run should refresh
+   */
+  public boolean countRun(int stride) {
+    if (++skippedRuns < stride) {
+      return false;
+    }
+    skippedRuns = 0;
+    return true;
+  }
+
+  /**
+   * Start collecting the display for this update.
+   */
+  public void begin() {
+    pendingLength = 0;
+  }
+
+  /**
+   * Add one ability to the pending display.
+   *
+   * @param abilityId The ability id
+   * @param seconds The seconds shown, 0 when ready
+   */
+  public void add(int abilityId, int seconds) {
+    if (pendingLength + 2 > pending.length) {
+      pending = Arrays.copyOf(pending, pending.length * 2);
+    }
+    pending[pendingLength++] = abilityId;
+    pending[pendingLength++] = seconds;
+  }
+
+  /**
+   * Get the number of abilities in the pending display.
+   *
+   * @return The ability count
+   */
+  public int size() {
+    return pendingLength / 2;
+  }
+
+  /**
+   * Get the id of a pending ability.
+   *
+   * @param index The position in the display
+   * @return The ability id
+   */
+  public int abilityId(int index) {
+    return pending[index * 2];
+  }
+
+  /**
+   * Get the seconds shown for a pending ability.
+   *
+   * @param index The position in the display
+   * @return The seconds, 0 when ready
+   */
+  public int seconds(int index) {
+    return pending[index * 2 + 1];
+  }
+
+  /**
+   * Check whether a display is currently shown, that is the last update
+   * sent one and nothing emptied it since.
+   *
+   * @return true if a display is shown
+   */
+  public boolean isShown() {
+    return shownLength > 0;
+  }
+
+  /**
+   * Check whether the pending display has to be sent: it differs from the
+   * shown one, or the shown one is about to fade. An empty display is
+   * never sent; the client lets the last one fade out.
+   *
+   * @param nowTick The current tick
+   * @return true if the action bar should be sent
+   */
+  public boolean needsSend(long nowTick) {
+    if (pendingLength == 0) {
+      shownLength = 0;
+      return false;
+    }
+    return pendingLength != shownLength
+      || !Arrays.equals(shown, 0, shownLength, pending, 0, pendingLength)
+      || nowTick - lastSentTick >= KEEP_ALIVE_TICKS;
+  }
+
+  /**
+   * Record that the pending display was sent.
+   *
+   * @param nowTick The current tick
+   */
+  public void markSent(long nowTick) {
+    int[] previous = shown;
+    shown = pending;
+    shownLength = pendingLength;
+    pending = previous.length >= shown.length ? previous : new int[shown.length];
+    lastSentTick = nowTick;
+  }
+}
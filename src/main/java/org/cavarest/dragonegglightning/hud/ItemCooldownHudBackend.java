@@ -0,0 +1,69 @@
+package org.cavarest.dragonegglightning.hud;
+
+import org.cavarest.dragonegglightning.ability.Ability;
+import org.cavarest.dragonegglightning.ability.AbilityManager;
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * HUD shown as the client's own cooldown overlay on each ability's item,
+ * for example the sweeping shade on the Dragon Egg. The overlay is sent
+ * once when a cooldown starts, changes or is cleared, and the client
+ * animates it, so a running cooldown costs no packets at all. Abilities
+ * without a {@link Ability#getCooldownItem() cooldown item} are not shown.
+ */
+public final class ItemCooldownHudBackend implements HudBackend {
+
+  /**
+   * Ticks by which a cooldown's end may drift before the overlay is sent
+   * again; covers the HUD refresh period.
+   */
+  private static final long TOLERANCE_TICKS = 20L;
+
+  private final AbilityManager abilityManager;
+  private final Map<UUID, long[]> sentEnds = new ConcurrentHashMap<>();
+
+  /**
+   * Create the backend.
+   *
+   * @param abilityManager The ability manager, for exact remaining ticks
+   */
+  public ItemCooldownHudBackend(AbilityManager abilityManager) {
+    this.abilityManager = abilityManager;
+  }
+
+  @Override
+  public void render(Player player, HudState state, long nowTick) {
+    long[] ends = sentEnds.computeIfAbsent(player.getUniqueId(), id -> new long[8]);
+    for (int i = 0; i < state.size(); i++) {
+      int abilityId = state.abilityId(i);
+      Ability ability = abilityManager.getAbility(abilityId);
+      Material item = ability != null ? ability.getCooldownItem() : null;
+      if (item == null) {
+        continue;
+      }
+      if (abilityId >= ends.length) {
+        ends = Arrays.copyOf(ends, Math.max(ends.length * 2, abilityId + 1));
+        sentEnds.put(player.getUniqueId(), ends);
+      }
+      long readyIn = Math.max(0L, abilityManager.getReadyInTicks(player, abilityId));
+      long end = nowTick + readyIn;
+      long sentEnd = ends[abilityId];
+      boolean sentRunning = sentEnd > nowTick;
+      if (readyIn == 0 ? sentRunning : Math.abs(end - sentEnd) > TOLERANCE_TICKS) {
+        player.setCooldown(item, (int) Math.min(Integer.MAX_VALUE, readyIn));
+        ends[abilityId] = end;
+      }
+    }
+  }
+
+  @Override
+  public void remove(Player player) {
+    sentEnds.remove(player.getUniqueId());
+  }
+}
@@ -0,0 +1,195 @@
+package org.cavarest.dragonegglightning.benchmark;
+
+import org.cavarest.dragonegglightning.ability.ConeQuery;
+import org.bukkit.Location;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.util.Vector;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.LongSupplier;
+
+/**
+ * Compares the cone search {@code LightningAbility} used before with
+ * {@link ConeQuery}, over synthetic clouds of 100 to 10,000 living
+ * entities spread through the 100-block cube around the caster: how many
+ * candidates the old cube and the cone's bounding box hand to the cone
+ * test, nanoseconds per query and bytes allocated per query.
+ *
+ * Excluded from {@code gradle test}; run with {@code gradle benchmark}.
+ */
+@Tag("benchmark")
+class ConeQueryBenchmark {
+
+  private static final double RANGE = 50.0;
+  private static final double MIN_DOT = 0.9;
+  private static final int QUERIES = 64;
+  private static final int ROUNDS = 50;
+
+  @Test
+  @DisplayName("Cone query cost over entity clouds of 100 to 10,000")
+  void compareWithPreviousScan() {
+    System.out.printf("%-10s %12s %12s %14s %14s %14s %14s%n",
+      "entities", "cube cands", "box cands", "old ns/query", "new ns/query", "old B/query", "new B/query");
+    for (int entities : new int[] {100, 1_000, 10_000}) {
+      run(entities);
+    }
+  }
+
+  private static void run(int count) {
+    Random random = new Random(count);
+    LivingEntity[] entities = new LivingEntity[count];
+    double[] xs = new double[count];
+    double[] ys = new double[count];
+    double[] zs = new double[count];
+    for (int i = 0; i < count; i++) {
+      xs[i] = random.nextDouble() * 2 * RANGE - RANGE;
+      ys[i] = random.nextDouble() * 2 * RANGE - RANGE;
+      zs[i] = random.nextDouble() * 2 * RANGE - RANGE;
+      entities[i] = livingEntity(xs[i], ys[i], zs[i]);
+    }
+
+    // Candidate lists are prepared up front, standing in for
+    // getNearbyEntities (the whole cube) and the index (the cone's box),
+    // so the table shows the per-candidate cost of each search
+    double[][] directions = new double[QUERIES][];
+    int[][] coneCandidates = new int[QUERIES][];
+    long coneCandidateCount = 0;
+    for (int q = 0; q < QUERIES; q++) {
+      Vector direction = new Vector(random.nextGaussian(), random.nextGaussian() * 0.3, random.nextGaussian())
+        .normalize();
+      directions[q] = new double[] {direction.getX(), direction.getY(), direction.getZ()};
+      ConeQuery query = query(directions[q]);
+      int[] inBox = new int[count];
+      int found = 0;
+      for (int i = 0; i < count; i++) {
+        if (inBox(query, xs[i], ys[i], zs[i])) {
+          inBox[found++] = i;
+        }
+      }
+      coneCandidates[q] = Arrays.copyOf(inBox, found);
+      coneCandidateCount += found;
+    }
+
+    LongSupplier previous = () -> {
+      long found = 0;
+      for (double[] direction : directions) {
+        found += previousScan(entities, direction) != null ? 1 : 0;
+      }
+      return found;
+    };
+    LongSupplier current = () -> {
+      long found = 0;
+      for (int q = 0; q < QUERIES; q++) {
+        ConeQuery query = query(directions[q]);
+        for (int i : coneCandidates[q]) {
+          query.visit(entities[i], xs[i], ys[i], zs[i]);
+        }
+        found += query.nearest() != null ? 1 : 0;
+      }
+      return found;
+    };
+
+    // Warm up both paths before timing
+    for (int i = 0; i < 10; i++) {
+      previous.getAsLong();
+      current.getAsLong();
+    }
+
+    double queries = (double) QUERIES * ROUNDS;
+    System.out.printf("%-10d %12d %12d %14.0f %14.0f %14d %14d%n",
+      count,
+      count,
+      coneCandidateCount / QUERIES,
+      time(previous) / queries,
+      time(current) / queries,
+      allocated(previous) / QUERIES,
+      allocated(current) / QUERIES);
+  }
+
+  private static ConeQuery query(double[] direction) {
+    return new ConeQuery(0, 0, 0, direction[0], direction[1], direction[2], RANGE, MIN_DOT, null, Set.of());
+  }
+
+  /**
+   * The search as it was: a fresh location from the entity, a vector and
+   * a normalized copy per candidate, and a second location and a square
+   * root for the distance.
+   */
+  private static LivingEntity previousScan(LivingEntity[] entities, double[] direction) {
+    Location eyeLocation = new Location(null, 0, 0, 0);
+    Vector look = new Vector(direction[0], direction[1], direction[2]);
+    LivingEntity nearest = null;
+    double nearestDistance = RANGE;
+    for (LivingEntity entity : entities) {
+      if (entity.isDead()) {
+        continue;
+      }
+      Vector toEntity = entity.getLocation()
+        .subtract(eyeLocation)
+        .toVector()
+        .normalize();
+      if (look.dot(toEntity) >= MIN_DOT) {
+        double distance = eyeLocation.distance(entity.getLocation());
+        if (distance < nearestDistance) {
+          nearest = entity;
+          nearestDistance = distance;
+        }
+      }
+    }
+    return nearest;
+  }
+
+  private static boolean inBox(ConeQuery query, double x, double y, double z) {
+    return x >= query.boxMin(0) && x <= query.boxMax(0)
+      && y >= query.boxMin(1) && y <= query.boxMax(1)
+      && z >= query.boxMin(2) && z <= query.boxMax(2);
+  }
+
+  private static LivingEntity livingEntity(double x, double y, double z) {
+    // Like CraftEntity, every getLocation() returns a new copy
+    return (LivingEntity) Proxy.newProxyInstance(
+      LivingEntity.class.getClassLoader(),
+      new Class<?>[] {LivingEntity.class},
+      (proxy, method, args) -> switch (method.getName()) {
+        case "getLocation" -> new Location(null, x, y, z);
+        case "isDead" -> false;
+        case "hashCode" -> System.identityHashCode(proxy);
+        case "equals" -> proxy == args[0];
+        default -> null;
+      }
+    );
+  }
+
+  private static long time(LongSupplier body) {
+    long sink = 0;
+    long start = System.nanoTime();
+    for (int round = 0; round < ROUNDS; round++) {
+      sink += body.getAsLong();
+    }
+    long elapsed = System.nanoTime() - start;
+    if (sink == 42) {
+      System.out.println();
+    }
+    return elapsed;
+  }
+
+  private static long allocated(LongSupplier body) {
+    com.sun.management.ThreadMXBean threads =
+      (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long thread = Thread.currentThread().threadId();
+    long before = threads.getThreadAllocatedBytes(thread);
+    long sink = body.getAsLong();
+    long after = threads.getThreadAllocatedBytes(thread);
+    if (sink == 42) {
+      System.out.println();
+    }
+    return after - before;
+  }
+}
@@ -0,0 +1,75 @@
+package org.cavarest.dragonegglightning.benchmark;
+
+import org.cavarest.dragonegglightning.cooldown.CooldownJournal;
+import org.cavarest.dragonegglightning.cooldown.FsyncPolicy;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * Measures startup replay of a 100k record cooldown journal and the time
+ * the calling thread spends per append.
+ *
+ * Excluded from {@code gradle test}; run with {@code gradle benchmark}.
+ */
+@Tag("benchmark")
+class CooldownJournalBenchmark {
+
+  private static final int RECORDS = 100_000;
+  private static final Logger LOGGER = Logger.getLogger("CooldownJournalBenchmark");
+
+  @Test
+  @DisplayName("Replay 100k records")
+  void replayHundredThousandRecords() throws IOException {
+    Path directory = Files.createTempDirectory("cooldown-journal-bench");
+    Path file = directory.resolve("cooldowns.journal");
+    long now = System.currentTimeMillis();
+
+    CooldownJournal writer = new CooldownJournal(file, FsyncPolicy.NEVER, 0L, LOGGER);
+    writer.replay(now, (msb, lsb, slot, expiry) -> { });
+    writer.start(0L);
+    UUID[] ids = new UUID[RECORDS];
+    for (int i = 0; i < RECORDS; i++) {
+      ids[i] = UUID.randomUUID();
+    }
+    long appendStart = System.nanoTime();
+    for (int i = 0; i < RECORDS; i++) {
+      writer.append(ids[i].getMostSignificantBits(), ids[i].getLeastSignificantBits(), 0, now + 60_000 + i);
+    }
+    long appendNanos = System.nanoTime() - appendStart;
+    writer.close();
+
+    // Time a cold replay as at startup, then the best of a few warm ones
+    long coldStart = System.nanoTime();
+    int restored = replay(file, now);
+    long coldNanos = System.nanoTime() - coldStart;
+    long warmNanos = Long.MAX_VALUE;
+    for (int i = 0; i < 10; i++) {
+      long start = System.nanoTime();
+      replay(file, now);
+      warmNanos = Math.min(warmNanos, System.nanoTime() - start);
+    }
+
+    System.out.printf("%-32s %12s%n", "measurement", "value");
+    System.out.printf("%-32s %12d%n", "records restored", restored);
+    System.out.printf("%-32s %12.2f%n", "cold replay ms", coldNanos / 1_000_000.0);
+    System.out.printf("%-32s %12.2f%n", "warm replay ms", warmNanos / 1_000_000.0);
+    System.out.printf("%-32s %12.1f%n", "caller ns/append", (double) appendNanos / RECORDS);
+
+    Files.deleteIfExists(file);
+    Files.deleteIfExists(directory);
+  }
+
+  private static int replay(Path file, long now) throws IOException {
+    CooldownJournal journal = new CooldownJournal(file, FsyncPolicy.NEVER, 0L, LOGGER);
+    int restored = journal.replay(now, (msb, lsb, slot, expiry) -> { });
+    journal.close();
+    return restored;
+  }
+}
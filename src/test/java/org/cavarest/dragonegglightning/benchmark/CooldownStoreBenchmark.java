@@ -0,0 +1,158 @@
+package org.cavarest.dragonegglightning.benchmark;
+
+import org.cavarest.dragonegglightning.cooldown.CooldownStore;
+import org.cavarest.dragonegglightning.cooldown.PrimitiveCooldownStore;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Compares the primitive cooldown table with the previous
+ * {@code HashMap<UUID, Long>}: nanoseconds per lookup, nanoseconds per
+ * overwrite (where the map boxes a new {@code Long}) and retained heap per
+ * 10k entries.
+ *
+ * Excluded from {@code gradle test}; run with {@code gradle benchmark}.
+ */
+@Tag("benchmark")
+class CooldownStoreBenchmark {
+
+  private static final int ENTRIES = 10_000;
+  private static final int ROUNDS = 200;
+
+  @Test
+  @DisplayName("Lookup cost and heap per 10k entries")
+  void compareWithHashMap() {
+    UUID[] ids = new UUID[ENTRIES];
+    for (int i = 0; i < ENTRIES; i++) {
+      ids[i] = UUID.randomUUID();
+    }
+
+    long mapHeap = retainedHeap(() -> fillMap(ids));
+    long storeHeap = retainedHeap(() -> fillStore(ids));
+
+    Map<UUID, Long> map = fillMap(ids);
+    CooldownStore store = fillStore(ids);
+
+    // Warm up both paths before timing
+    for (int i = 0; i < 20; i++) {
+      lookupMap(map, ids);
+      lookupStore(store, ids);
+      overwriteMap(map, ids);
+      overwriteStore(store, ids);
+    }
+
+    long mapNanos = time(() -> lookupMap(map, ids));
+    long storeNanos = time(() -> lookupStore(store, ids));
+    long mapPutNanos = time(() -> overwriteMap(map, ids));
+    long storePutNanos = time(() -> overwriteStore(store, ids));
+    double operations = (double) ENTRIES * ROUNDS;
+
+    System.out.printf("%-26s %12s %12s %16s%n", "implementation", "ns/lookup", "ns/put", "bytes/10k");
+    System.out.printf("%-26s %12.2f %12.2f %16d%n", "HashMap<UUID, Long>",
+      mapNanos / operations, mapPutNanos / operations, mapHeap);
+    System.out.printf("%-26s %12.2f %12.2f %16d%n", "PrimitiveCooldownStore",
+      storeNanos / operations, storePutNanos / operations, storeHeap);
+  }
+
+  private static Map<UUID, Long> fillMap(UUID[] ids) {
+    Map<UUID, Long> map = new HashMap<>();
+    for (int i = 0; i < ids.length; i++) {
+      // Fresh UUID keys, as the old map held its own copies
+      map.put(new UUID(ids[i].getMostSignificantBits(), ids[i].getLeastSignificantBits()),
+        System.currentTimeMillis() + i);
+    }
+    return map;
+  }
+
+  private static CooldownStore fillStore(UUID[] ids) {
+    CooldownStore store = new PrimitiveCooldownStore();
+    for (int i = 0; i < ids.length; i++) {
+      store.put(ids[i], 0, System.currentTimeMillis() + i);
+    }
+    return store;
+  }
+
+  private static long lookupMap(Map<UUID, Long> map, UUID[] ids) {
+    long sum = 0;
+    long now = System.currentTimeMillis();
+    for (UUID id : ids) {
+      Long expiry = map.get(id);
+      if (expiry != null && now < expiry) {
+        sum += expiry;
+      }
+    }
+    return sum;
+  }
+
+  private static long lookupStore(CooldownStore store, UUID[] ids) {
+    long sum = 0;
+    long now = System.currentTimeMillis();
+    for (UUID id : ids) {
+      long expiry = store.get(id, 0);
+      if (now < expiry) {
+        sum += expiry;
+      }
+    }
+    return sum;
+  }
+
+  private static long overwriteMap(Map<UUID, Long> map, UUID[] ids) {
+    long expiry = System.currentTimeMillis() + 60_000L;
+    for (UUID id : ids) {
+      map.put(id, expiry++);
+    }
+    return expiry;
+  }
+
+  private static long overwriteStore(CooldownStore store, UUID[] ids) {
+    long expiry = System.currentTimeMillis() + 60_000L;
+    for (UUID id : ids) {
+      store.put(id, 0, expiry++);
+    }
+    return expiry;
+  }
+
+  private static long time(LongSupplier body) {
+    long sink = 0;
+    long start = System.nanoTime();
+    for (int round = 0; round < ROUNDS; round++) {
+      sink += body.getAsLong();
+    }
+    long elapsed = System.nanoTime() - start;
+    if (sink == 42) {
+      System.out.println();
+    }
+    return elapsed;
+  }
+
+  private static long retainedHeap(Supplier<Object> allocation) {
+    Runtime runtime = Runtime.getRuntime();
+    settle(runtime);
+    long before = runtime.totalMemory() - runtime.freeMemory();
+    Object retained = allocation.get();
+    settle(runtime);
+    long after = runtime.totalMemory() - runtime.freeMemory();
+    if (retained.hashCode() == 42) {
+      System.out.println();
+    }
+    return after - before;
+  }
+
+  private static void settle(Runtime runtime) {
+    for (int i = 0; i < 4; i++) {
+      System.gc();
+      try {
+        Thread.sleep(20);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+}
@@ -0,0 +1,158 @@
+package org.cavarest.dragonegglightning.benchmark;
+
+import org.cavarest.dragonegglightning.effect.EffectDetail;
+import org.cavarest.dragonegglightning.effect.LightningEffect;
+import org.cavarest.dragonegglightning.effect.ParticleSink;
+import org.bukkit.Color;
+import org.bukkit.Location;
+import org.bukkit.Particle;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.LongSupplier;
+
+/**
+ * Compares the purple lightning effect {@code LightningAbility} drew
+ * before with {@link LightningEffect}: particle calls, bytes allocated and
+ * nanoseconds per strike, at the default beam spacing and at sparser
+ * settings. Particle calls go to a counter instead of a world, so the
+ * table shows the cost of working out the effect, not of sending it.
+ *
+ * Excluded from {@code gradle test}; run with {@code gradle benchmark}.
+ */
+@Tag("benchmark")
+class LightningEffectBenchmark {
+
+  private static final int STRIKES = 1_000;
+  private static final int ROUNDS = 20;
+
+  /**
+   * Counts particle calls the way a world would receive them. Like the
+   * server, it keeps what it is handed, so the JIT cannot optimize the
+   * allocations away.
+   */
+  private static final class CountingSink implements ParticleSink {
+    private long calls;
+    private long particles;
+    private Object lastData;
+    private Location lastLocation;
+
+    @Override
+    public void spawn(
+      Particle particle,
+      double x,
+      double y,
+      double z,
+      int count,
+      double offsetX,
+      double offsetY,
+      double offsetZ,
+      double extra,
+      Object data
+    ) {
+      calls++;
+      particles += count;
+      lastData = data;
+    }
+
+    void spawn(Particle particle, Location location, int count, double offsetX, double offsetY, double offsetZ,
+               double extra, Object data) {
+      lastLocation = location;
+      spawn(particle, location.getX(), location.getY(), location.getZ(), count, offsetX, offsetY, offsetZ, extra,
+        data);
+    }
+  }
+
+  @Test
+  @DisplayName("Lightning effect cost per strike")
+  void compareWithPreviousEffect() {
+    System.out.printf("%-22s %12s %14s %12s %12s%n",
+      "effect", "calls/strike", "particles", "B/strike", "ns/strike");
+    run("previous", LightningEffectBenchmark::previousEffect);
+    for (double spacing : new double[] {LightningEffect.DEFAULT_BEAM_SPACING, 0.6, 1.0}) {
+      LightningEffect effect = new LightningEffect(spacing);
+      run("baked, spacing " + spacing, (sink, location) ->
+        effect.play(sink, EffectDetail.FULL, location.getX(), location.getY(), location.getZ()));
+    }
+  }
+
+  @FunctionalInterface
+  private interface Strike {
+    void play(CountingSink sink, Location location);
+  }
+
+  private static void run(String name, Strike strike) {
+    CountingSink sink = new CountingSink();
+    Location[] targets = new Location[STRIKES];
+    for (int i = 0; i < STRIKES; i++) {
+      targets[i] = new Location(null, i, 64, -i);
+    }
+    LongSupplier body = () -> {
+      for (Location target : targets) {
+        strike.play(sink, target);
+      }
+      return sink.calls;
+    };
+
+    // Warm up before timing
+    for (int i = 0; i < 20; i++) {
+      body.getAsLong();
+    }
+
+    sink.calls = 0;
+    sink.particles = 0;
+    body.getAsLong();
+    long calls = sink.calls / STRIKES;
+    long particles = sink.particles / STRIKES;
+    System.out.printf("%-22s %12d %14d %12d %12.0f%n",
+      name,
+      calls,
+      particles,
+      allocated(body) / STRIKES,
+      time(body) / ((double) STRIKES * ROUNDS));
+  }
+
+  /**
+   * The effect as it was: a cloned location and a new DustOptions per
+   * beam step, and particle calls that take a Location.
+   */
+  private static void previousEffect(CountingSink sink, Location location) {
+    for (double y = 0; y <= 10; y += 0.3) {
+      Location particleLocation = location.clone().add(0, y, 0);
+      sink.spawn(Particle.DUST, particleLocation, 5, 0.1, 0.1, 0.1, 0,
+        new Particle.DustOptions(Color.fromRGB(128, 0, 128), 2.0f));
+      sink.spawn(Particle.ELECTRIC_SPARK, particleLocation, 3, 0.2, 0.2, 0.2, 0.05, null);
+    }
+    sink.spawn(Particle.DUST, location, 50, 0.5, 0.5, 0.5, 0,
+      new Particle.DustOptions(Color.fromRGB(255, 0, 255), 1.5f));
+    sink.spawn(Particle.FLASH, location, 1, 0, 0, 0, 0, null);
+  }
+
+  private static long time(LongSupplier body) {
+    long sink = 0;
+    long start = System.nanoTime();
+    for (int round = 0; round < ROUNDS; round++) {
+      sink += body.getAsLong();
+    }
+    long elapsed = System.nanoTime() - start;
+    if (sink == 42) {
+      System.out.println();
+    }
+    return elapsed;
+  }
+
+  private static long allocated(LongSupplier body) {
+    com.sun.management.ThreadMXBean threads =
+      (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long thread = Thread.currentThread().threadId();
+    long before = threads.getThreadAllocatedBytes(thread);
+    long sink = body.getAsLong();
+    long after = threads.getThreadAllocatedBytes(thread);
+    if (sink == 42) {
+      System.out.println();
+    }
+    return after - before;
+  }
+}
@@ -1,18 +1,33 @@
 package org.cavarest.dragonegglightning.unit;
 
+import org.cavarest.dragonegglightning.ability.Ability;
 import org.cavarest.dragonegglightning.ability.AbilityManager;
+import org.cavarest.dragonegglightning.ability.CastResult;
 import org.cavarest.dragonegglightning.ability.LightningAbility;
+import org.cavarest.dragonegglightning.cooldown.CooldownJournal;
+import org.cavarest.dragonegglightning.cooldown.CooldownSync;
+import org.cavarest.dragonegglightning.cooldown.FileCooldownSyncBackend;
+import org.cavarest.dragonegglightning.cooldown.FsyncPolicy;
+import org.cavarest.dragonegglightning.cooldown.ManualCooldownClock;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
 import org.bukkit.event.entity.PlayerDeathEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.PlayerInventory;
+import org.bukkit.plugin.Plugin;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
+import java.util.logging.Logger;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -32,10 +47,12 @@ class AbilityManagerTest {
 
   private AbilityManager abilityManager;
   private LightningAbility lightningAbility;
+  private ManualCooldownClock clock;
 
   @BeforeEach
   void setUp() {
-    abilityManager = new AbilityManager(null); // null is fine for basic tests
+    clock = new ManualCooldownClock(1_000L);
+    abilityManager = new AbilityManager(null, clock); // null is fine for basic tests
     lightningAbility = new LightningAbility(null); // null is fine for basic tests
   }
 
@@ -116,7 +133,7 @@ class AbilityManagerTest {
   }
 
   @Test
-  void testCooldownExpiration() throws InterruptedException {
+  void testCooldownExpiration() {
     var mockPlayer = createMockPlayerWithDragonEgg();
 
     // Set a short cooldown
@@ -124,15 +141,311 @@ class AbilityManagerTest {
 
     assertTrue(abilityManager.isOnCooldown(mockPlayer), "Should be on cooldown initially");
 
-    // Wait for cooldown to expire
-    Thread.sleep(1500); // Wait 1.5 seconds
+    // One tick short of the cooldown it is still running
+    clock.advance(19);
+    assertTrue(abilityManager.isOnCooldown(mockPlayer), "Should still be on cooldown");
+    assertEquals(1, abilityManager.getRemainingCooldown(mockPlayer),
+      "Partial seconds should round up");
 
+    clock.advance(1);
     assertFalse(abilityManager.isOnCooldown(mockPlayer),
       "Cooldown should expire after time passes");
     assertTrue(abilityManager.canUseAbility(mockPlayer, lightningAbility),
       "Should be able to use ability after cooldown expires");
   }
 
+  @Test
+  void testExpiredCooldownIsEvictedAndNotifiesListeners() {
+    var mockPlayer = createMockPlayerWithDragonEgg();
+    List<UUID> ready = new ArrayList<>();
+    abilityManager.addReadyListener((playerId, ability) -> ready.add(playerId));
+
+    abilityManager.setCooldown(mockPlayer, 1);
+    assertEquals(1, abilityManager.getTrackedCooldownCount());
+
+    // Advance the wheel past the expiry without touching the player
+    clock.advanceSeconds(2);
+    abilityManager.processExpiredCooldowns();
+
+    assertEquals(0, abilityManager.getTrackedCooldownCount(),
+      "Expired cooldown should be evicted without a lookup");
+    assertEquals(List.of(mockPlayer.getUniqueId()), ready,
+      "Ready listener should fire once for the expired cooldown");
+  }
+
+  @Test
+  void testSupersededCooldownDoesNotNotifyEarly() {
+    var mockPlayer = createMockPlayerWithDragonEgg();
+    List<UUID> ready = new ArrayList<>();
+    abilityManager.addReadyListener((playerId, ability) -> ready.add(playerId));
+
+    abilityManager.setCooldown(mockPlayer, 1);
+    abilityManager.setCooldown(mockPlayer, 60);
+    clock.advanceSeconds(2);
+    abilityManager.processExpiredCooldowns();
+
+    assertTrue(abilityManager.isOnCooldown(mockPlayer),
+      "Longer cooldown should replace the shorter one");
+    assertTrue(ready.isEmpty(), "Superseded expiry should not notify");
+  }
+
+  @Test
+  void testAbilityLookupById() {
+    assertNotNull(abilityManager.getAbility(1), "Lightning should be registered as ability 1");
+    assertEquals("Lightning Strike", abilityManager.getAbility(1).getName());
+    assertNull(abilityManager.getAbility(0), "Ids start at 1");
+    assertNull(abilityManager.getAbility(2), "Unknown ids should return null");
+  }
+
+  @Test
+  void testPerAbilityCooldown() {
+    var mockPlayer = createMockPlayerWithDragonEgg();
+    var registered = abilityManager.getAbility(1);
+
+    abilityManager.setCooldown(mockPlayer, registered, 60);
+    assertTrue(abilityManager.isOnCooldown(mockPlayer, registered),
+      "Ability should be on its own cooldown");
+    assertTrue(abilityManager.getRemainingCooldown(mockPlayer, registered) > 0);
+
+    abilityManager.clearCooldown(mockPlayer, registered);
+    assertFalse(abilityManager.isOnCooldown(mockPlayer, registered),
+      "Clearing the ability should remove its cooldown");
+    assertEquals(0, abilityManager.getTrackedCooldownCount());
+  }
+
+  @Test
+  void testCooldownsSurviveRestartThroughJournal() throws IOException {
+    var mockPlayer = createMockPlayerWithDragonEgg();
+    Path directory = Files.createTempDirectory("ability-manager");
+    Path file = directory.resolve("cooldowns.journal");
+    try {
+      CooldownJournal journal = new CooldownJournal(file, FsyncPolicy.NEVER, 0L, Logger.getAnonymousLogger());
+      abilityManager.restoreCooldowns(journal);
+      abilityManager.setCooldown(mockPlayer, 30);
+      journal.close();
+
+      // A restarted server starts counting ticks from scratch
+      ManualCooldownClock restartedClock = new ManualCooldownClock();
+      AbilityManager restarted = new AbilityManager(null, restartedClock);
+      CooldownJournal reopened = new CooldownJournal(file, FsyncPolicy.NEVER, 0L, Logger.getAnonymousLogger());
+      restarted.restoreCooldowns(reopened);
+      reopened.close();
+
+      int remaining = restarted.getRemainingCooldown(mockPlayer);
+      assertTrue(remaining >= 29 && remaining <= 30,
+        "Restored cooldown should keep its remaining time, got " + remaining);
+      restartedClock.advanceSeconds(31);
+      assertFalse(restarted.isOnCooldown(mockPlayer),
+        "Restored cooldown should expire on the new clock");
+    } finally {
+      Files.deleteIfExists(file);
+      Files.deleteIfExists(directory);
+    }
+  }
+
+  @Test
+  void testRestoredCooldownsFollowAbilitiesRegisteredInAnotherOrder() throws IOException {
+    var mockPlayer = createMockPlayerWithDragonEgg();
+    Path directory = Files.createTempDirectory("ability-manager");
+    Path file = directory.resolve("cooldowns.journal");
+    Path slotNames = directory.resolve("cooldown-slots.properties");
+    try {
+      CooldownJournal journal = new CooldownJournal(file, FsyncPolicy.NEVER, 0L, Logger.getAnonymousLogger());
+      abilityManager.restoreCooldowns(journal, slotNames);
+      abilityManager.registerAbility(mock(Plugin.class), new ExternalAbility("Frost Nova"));
+      Ability fireball = new ExternalAbility("Fireball");
+      abilityManager.registerAbility(mock(Plugin.class), fireball);
+      abilityManager.setCooldown(mockPlayer, fireball, 30);
+      journal.close();
+
+      // After the restart the plugins load the other way round
+      AbilityManager restarted = new AbilityManager(null, new ManualCooldownClock());
+      CooldownJournal reopened = new CooldownJournal(file, FsyncPolicy.NEVER, 0L, Logger.getAnonymousLogger());
+      restarted.restoreCooldowns(reopened, slotNames);
+      Ability restartedFireball = new ExternalAbility("Fireball");
+      Ability restartedFrost = new ExternalAbility("Frost Nova");
+      restarted.registerAbility(mock(Plugin.class), restartedFireball);
+      restarted.registerAbility(mock(Plugin.class), restartedFrost);
+      reopened.close();
+
+      assertTrue(restarted.isOnCooldown(mockPlayer, restartedFireball),
+        "The restored cooldown should stay on its ability");
+      assertFalse(restarted.isOnCooldown(mockPlayer, restartedFrost),
+        "The restored cooldown should not move to the ability now in its old slot");
+    } finally {
+      Files.deleteIfExists(file);
+      Files.deleteIfExists(slotNames);
+      Files.deleteIfExists(directory);
+    }
+  }
+
+  @Test
+  void testSyncedCooldownsFollowAbilitiesAcrossRegistrationOrders() throws IOException {
+    var mockPlayer = createMockPlayerWithDragonEgg();
+    Path directory = Files.createTempDirectory("ability-manager-sync");
+    CooldownSync lobbySync = new CooldownSync(
+      new FileCooldownSyncBackend(directory, "lobby"), 250L, Logger.getAnonymousLogger());
+    CooldownSync survivalSync = new CooldownSync(
+      new FileCooldownSyncBackend(directory, "survival"), 250L, Logger.getAnonymousLogger());
+    try {
+      AbilityManager survival = new AbilityManager(null, new ManualCooldownClock());
+      abilityManager.attachSync(lobbySync);
+      survival.attachSync(survivalSync);
+      abilityManager.registerAbility(mock(Plugin.class), new ExternalAbility("Frost Nova"));
+      Ability fireball = new ExternalAbility("Fireball");
+      abilityManager.registerAbility(mock(Plugin.class), fireball);
+
+      abilityManager.setCooldown(mockPlayer, fireball, 60);
+      lobbySync.syncNow();
+      survivalSync.syncNow();
+      survival.applyRemoteCooldowns();
+
+      // The survival server only registers its abilities later, in another order
+      Ability survivalFireball = new ExternalAbility("Fireball");
+      Ability survivalFrost = new ExternalAbility("Frost Nova");
+      survival.registerAbility(mock(Plugin.class), survivalFireball);
+      survival.registerAbility(mock(Plugin.class), survivalFrost);
+      survival.applyRemoteCooldowns();
+
+      assertTrue(survival.isOnCooldown(mockPlayer, survivalFireball),
+        "A cooldown for an ability registered later should apply once it registers");
+      assertFalse(survival.isOnCooldown(mockPlayer, survivalFrost));
+    } finally {
+      lobbySync.close();
+      survivalSync.close();
+      Files.deleteIfExists(directory.resolve("lobby" + FileCooldownSyncBackend.FILE_SUFFIX));
+      Files.deleteIfExists(directory.resolve("survival" + FileCooldownSyncBackend.FILE_SUFFIX));
+      Files.deleteIfExists(directory);
+    }
+  }
+
+  @Test
+  void testCooldownsFollowPlayersAcrossServers() throws IOException {
+    var mockPlayer = createMockPlayerWithDragonEgg();
+    Path directory = Files.createTempDirectory("ability-manager-sync");
+    CooldownSync lobbySync = new CooldownSync(
+      new FileCooldownSyncBackend(directory, "lobby"), 250L, Logger.getAnonymousLogger());
+    CooldownSync survivalSync = new CooldownSync(
+      new FileCooldownSyncBackend(directory, "survival"), 250L, Logger.getAnonymousLogger());
+    try {
+      // Each server has its own tick counter
+      AbilityManager survival = new AbilityManager(null, new ManualCooldownClock(50L));
+      abilityManager.attachSync(lobbySync);
+      survival.attachSync(survivalSync);
+
+      abilityManager.setCooldown(mockPlayer, 60);
+      assertFalse(survival.isOnCooldown(mockPlayer), "Remote cooldowns apply only after a sync");
+
+      lobbySync.syncNow();
+      survivalSync.syncNow();
+      assertTrue(survival.applyRemoteCooldowns() > 0);
+      int remaining = survival.getRemainingCooldown(mockPlayer);
+      assertTrue(remaining >= 59 && remaining <= 60,
+        "Synced cooldown should keep its remaining time, got " + remaining);
+
+      // Clearing on the second server clears it on the first
+      survival.clearCooldown(mockPlayer);
+      survivalSync.syncNow();
+      lobbySync.syncNow();
+      abilityManager.applyRemoteCooldowns();
+      assertFalse(abilityManager.isOnCooldown(mockPlayer), "Remote clear should apply locally");
+    } finally {
+      lobbySync.close();
+      survivalSync.close();
+      Files.deleteIfExists(directory.resolve("lobby" + FileCooldownSyncBackend.FILE_SUFFIX));
+      Files.deleteIfExists(directory.resolve("survival" + FileCooldownSyncBackend.FILE_SUFFIX));
+      Files.deleteIfExists(directory);
+    }
+  }
+
+  @Test
+  void testOldRemoteClearDoesNotUndoNewerCooldownAfterRestart() throws IOException {
+    var mockPlayer = createMockPlayerWithDragonEgg();
+    Path directory = Files.createTempDirectory("ability-manager-sync");
+    Path file = directory.resolve("cooldowns.journal");
+    CooldownJournal journal = new CooldownJournal(file, FsyncPolicy.NEVER, 0L, Logger.getAnonymousLogger());
+    CooldownSync lobbySync = new CooldownSync(
+      new FileCooldownSyncBackend(directory, "lobby"), 250L, Logger.getAnonymousLogger());
+    CooldownSync survivalSync = new CooldownSync(
+      new FileCooldownSyncBackend(directory, "survival"), 250L, Logger.getAnonymousLogger());
+    CooldownSync restartedSync = null;
+    try {
+      AbilityManager survival = new AbilityManager(null, new ManualCooldownClock());
+      abilityManager.restoreCooldowns(journal);
+      abilityManager.attachSync(lobbySync);
+      survival.attachSync(survivalSync);
+
+      // The player dies on the survival server, then casts again in the lobby
+      abilityManager.setCooldown(mockPlayer, 60);
+      lobbySync.syncNow();
+      survivalSync.syncNow();
+      survival.applyRemoteCooldowns();
+      survival.clearCooldown(mockPlayer);
+      survivalSync.syncNow();
+      lobbySync.syncNow();
+      abilityManager.applyRemoteCooldowns();
+      abilityManager.setCooldown(mockPlayer, 30);
+      lobbySync.syncNow();
+      lobbySync.close();
+      journal.close();
+
+      // The restarted lobby reads the survival server's clear again
+      AbilityManager restarted = new AbilityManager(null, new ManualCooldownClock());
+      CooldownJournal reopened = new CooldownJournal(file, FsyncPolicy.NEVER, 0L, Logger.getAnonymousLogger());
+      restarted.restoreCooldowns(reopened);
+      restartedSync = new CooldownSync(
+        new FileCooldownSyncBackend(directory, "lobby"), 250L, Logger.getAnonymousLogger());
+      restarted.attachSync(restartedSync);
+      restartedSync.syncNow();
+      restarted.applyRemoteCooldowns();
+      reopened.close();
+
+      int remaining = restarted.getRemainingCooldown(mockPlayer);
+      assertTrue(remaining >= 29 && remaining <= 30,
+        "The older clear should not remove the newer cooldown, got " + remaining);
+    } finally {
+      lobbySync.close();
+      survivalSync.close();
+      if (restartedSync != null) {
+        restartedSync.close();
+      }
+      Files.deleteIfExists(file);
+      Files.deleteIfExists(directory.resolve("lobby" + FileCooldownSyncBackend.FILE_SUFFIX));
+      Files.deleteIfExists(directory.resolve("survival" + FileCooldownSyncBackend.FILE_SUFFIX));
+      Files.deleteIfExists(directory);
+    }
+  }
+
+  @Test
+  void testRemoteCooldownNeverShortensLocalOne() throws IOException {
+    var mockPlayer = createMockPlayerWithDragonEgg();
+    Path directory = Files.createTempDirectory("ability-manager-sync");
+    CooldownSync lobbySync = new CooldownSync(
+      new FileCooldownSyncBackend(directory, "lobby"), 250L, Logger.getAnonymousLogger());
+    CooldownSync survivalSync = new CooldownSync(
+      new FileCooldownSyncBackend(directory, "survival"), 250L, Logger.getAnonymousLogger());
+    try {
+      AbilityManager survival = new AbilityManager(null, new ManualCooldownClock());
+      abilityManager.attachSync(lobbySync);
+      survival.attachSync(survivalSync);
+
+      abilityManager.setCooldown(mockPlayer, 10);
+      survival.setCooldown(mockPlayer, 60);
+      lobbySync.syncNow();
+      survivalSync.syncNow();
+      survival.applyRemoteCooldowns();
+
+      assertTrue(survival.getRemainingCooldown(mockPlayer) > 50,
+        "An older remote cooldown should not replace a newer local one");
+    } finally {
+      lobbySync.close();
+      survivalSync.close();
+      Files.deleteIfExists(directory.resolve("lobby" + FileCooldownSyncBackend.FILE_SUFFIX));
+      Files.deleteIfExists(directory.resolve("survival" + FileCooldownSyncBackend.FILE_SUFFIX));
+      Files.deleteIfExists(directory);
+    }
+  }
+
   // === HELPER TESTS ===
 
   @Test
@@ -193,6 +506,114 @@ class AbilityManagerTest {
       "Should not be able to use ability when on cooldown, even with required item");
   }
 
+  // === ABILITY SERVICE TESTS ===
+
+  @Test
+  void testExternalAbilityRegistration() {
+    Plugin owner = mock(Plugin.class);
+    Ability external = new ExternalAbility("Frost Nova");
+
+    int id = abilityManager.registerAbility(owner, external);
+    assertEquals(2, id, "First external ability should follow lightning");
+    assertSame(external, abilityManager.getAbility(id));
+
+    assertEquals(1, abilityManager.unregisterAbilities(owner));
+    assertNull(abilityManager.getAbility(id), "Unregistered ability should be gone");
+    assertNotNull(abilityManager.getAbility(1), "Lightning should stay registered");
+
+    assertEquals(id, abilityManager.registerAbility(owner, new ExternalAbility("Frost Nova")),
+      "Re-registering by name should reuse the id");
+  }
+
+  @Test
+  void testSharedCooldownGroup() {
+    var mockPlayer = createMockPlayerWithDragonEgg();
+    Plugin owner = mock(Plugin.class);
+    Ability fire = new ExternalAbility("Fireball", "elemental");
+    Ability ice = new ExternalAbility("Ice Shard", "elemental");
+    abilityManager.registerAbility(owner, fire);
+    abilityManager.registerAbility(owner, ice);
+
+    abilityManager.setCooldown(mockPlayer, fire, 60);
+    assertTrue(abilityManager.isOnCooldown(mockPlayer, ice),
+      "Abilities in the same group should share the cooldown");
+    assertFalse(abilityManager.isOnCooldown(mockPlayer, abilityManager.getAbility(1)),
+      "Lightning is not in the group and should stay ready");
+  }
+
+  // === CAST ADMISSION TESTS ===
+
+  @Test
+  void testTryCastReportsWhyItWasRefused() {
+    var withoutEgg = createMockPlayerWithoutDragonEgg();
+    assertEquals(CastResult.MISSING_ITEM, abilityManager.tryCast(withoutEgg, lightningAbility));
+
+    var withEgg = createMockPlayerWithDragonEgg();
+    Ability lightning = abilityManager.getAbility(1);
+    abilityManager.setCooldown(withEgg, lightning, 10);
+    CastResult result = abilityManager.tryCast(withEgg, lightning);
+    assertEquals(CastResult.Status.ON_COOLDOWN, result.status());
+    assertEquals(200L, result.remainingTicks());
+    assertEquals(10, result.remainingSeconds());
+
+    assertEquals(CastResult.FAILED, abilityManager.tryCast(null, lightning));
+  }
+
+  @Test
+  void testTryCastChecksEachConditionOnce() {
+    var mockPlayer = createMockPlayerWithoutDragonEgg();
+    ExternalAbility ability = new ExternalAbility("Dash");
+    abilityManager.registerAbility(mock(Plugin.class), ability);
+
+    assertEquals(CastResult.OK, abilityManager.tryCast(mockPlayer, ability));
+    assertEquals(1, ability.itemChecks, "The required item should be read once per cast");
+    assertEquals(1, ability.executions);
+    assertEquals(20L, abilityManager.checkCast(mockPlayer, ability).remainingTicks(),
+      "A successful cast should start the ability's cooldown");
+
+    assertEquals(CastResult.Status.ON_COOLDOWN, abilityManager.tryCast(mockPlayer, ability).status());
+    assertEquals(1, ability.executions, "A refused cast should not run the ability");
+  }
+
+  // === BULK ADMIN TESTS ===
+
+  @Test
+  void testBulkClearOnlyTouchesSelectedPlayers() {
+    var first = createMockPlayerWithDragonEgg();
+    var second = createMockPlayerWithDragonEgg();
+    var bystander = createMockPlayerWithDragonEgg();
+    abilityManager.setCooldown(first, 60);
+    abilityManager.setCooldown(second, 60);
+    abilityManager.setCooldown(bystander, 60);
+
+    int cleared = abilityManager.clearCooldowns(List.of(first.getUniqueId(), second.getUniqueId()));
+    assertEquals(2, cleared, "One slot per selected player should be cleared");
+    assertFalse(abilityManager.isOnCooldown(first));
+    assertFalse(abilityManager.isOnCooldown(second));
+    assertTrue(abilityManager.isOnCooldown(bystander), "Unselected players keep their cooldown");
+
+    assertEquals(1, abilityManager.clearCooldowns(null), "Null clears every stored entry");
+    assertEquals(0, abilityManager.getTrackedCooldownCount());
+  }
+
+  @Test
+  void testBulkSetAndCount() {
+    var first = createMockPlayerWithDragonEgg();
+    var second = createMockPlayerWithDragonEgg();
+
+    assertEquals(2, abilityManager.setCooldowns(List.of(first.getUniqueId(), second.getUniqueId()), 30));
+    assertEquals(30, abilityManager.getRemainingCooldown(second));
+    assertEquals(2, abilityManager.countPlayersOnCooldown(null));
+    assertEquals(1, abilityManager.countPlayersOnCooldown(List.of(first.getUniqueId())));
+
+    // Every stored player, including ones not online
+    assertEquals(2, abilityManager.setCooldowns(null, 90));
+    assertEquals(90, abilityManager.getRemainingCooldown(first));
+
+    clock.advanceSeconds(91);
+    assertEquals(0, abilityManager.countPlayersOnCooldown(null), "Expired entries are not counted");
+  }
+
   // === EDGE CASES ===
 
   @Test
@@ -234,6 +655,49 @@ class AbilityManagerTest {
     return mockPlayer;
   }
 
+  /**
+   * Minimal ability contributed by another plugin.
+   */
+  private static final class ExternalAbility implements Ability {
+
+    private final String name;
+    private final List<String> groups;
+    private int itemChecks;
+    private int executions;
+
+    ExternalAbility(String name, String... groups) {
+      this.name = name;
+      this.groups = List.of(groups);
+    }
+
+    @Override
+    public boolean execute(Player player) {
+      executions++;
+      return true;
+    }
+
+    @Override
+    public boolean hasRequiredItem(Player player) {
+      itemChecks++;
+      return true;
+    }
+
+    @Override
+    public long getCooldownMillis() {
+      return 1000L;
+    }
+
+    @Override
+    public String getName() {
+      return name;
+    }
+
+    @Override
+    public Collection<String> getCooldownGroups() {
+      return groups;
+    }
+  }
+
   /**
    * Create a mock player without a dragon egg.
    */
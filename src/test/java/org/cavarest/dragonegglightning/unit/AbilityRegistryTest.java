@@ -0,0 +1,140 @@
+package org.cavarest.dragonegglightning.unit;
+
+import org.cavarest.dragonegglightning.ability.Ability;
+import org.cavarest.dragonegglightning.ability.AbilityRegistry;
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for ability ids and cooldown slot masks.
+ */
+class AbilityRegistryTest {
+
+  @Test
+  @DisplayName("Ids are dense and start at 1")
+  void testDenseIds() {
+    AbilityRegistry registry = new AbilityRegistry();
+    Ability first = new TestAbility("first");
+    Ability second = new TestAbility("second");
+
+    assertEquals(1, registry.register(first));
+    assertEquals(2, registry.register(second));
+    assertSame(first, registry.get(1));
+    assertSame(second, registry.get(2));
+    assertNull(registry.get(0));
+    assertNull(registry.get(3));
+    assertEquals(2, registry.getId(second));
+    assertEquals(0, registry.getId(new TestAbility("unregistered")));
+  }
+
+  @Test
+  @DisplayName("Registry grows past its initial capacity")
+  void testGrowth() {
+    AbilityRegistry registry = new AbilityRegistry();
+    for (int i = 1; i <= 20; i++) {
+      assertEquals(i, registry.register(new TestAbility("ability" + i)));
+    }
+    assertEquals(20, registry.getMaxId());
+    assertEquals("ability20", registry.get(20).getName());
+  }
+
+  @Test
+  @DisplayName("Abilities in a shared group share one slot")
+  void testSharedGroups() {
+    AbilityRegistry registry = new AbilityRegistry();
+    int lightning = registry.register(new TestAbility("lightning"));
+    int fire = registry.register(new TestAbility("fire", "elemental"));
+    int ice = registry.register(new TestAbility("ice", "elemental"));
+
+    long lightningMask = registry.getCooldownMask(lightning);
+    long fireMask = registry.getCooldownMask(fire);
+    long iceMask = registry.getCooldownMask(ice);
+
+    assertEquals(1L, lightningMask, "First ability should own slot 0");
+    assertEquals(2, Long.bitCount(fireMask), "Own slot plus the group slot");
+    assertEquals(0L, lightningMask & fireMask);
+    assertEquals(1, Long.bitCount(fireMask & iceMask), "Group slot should be shared");
+    assertEquals(lightningMask | fireMask | iceMask, registry.getAllSlotsMask());
+  }
+
+  @Test
+  @DisplayName("Registering the same ability twice fails")
+  void testDuplicateRegistration() {
+    AbilityRegistry registry = new AbilityRegistry();
+    Ability ability = new TestAbility("once");
+    registry.register(ability);
+    assertThrows(IllegalArgumentException.class, () -> registry.register(ability));
+  }
+
+  @Test
+  @DisplayName("Running out of cooldown slots fails")
+  void testSlotExhaustion() {
+    AbilityRegistry registry = new AbilityRegistry();
+    for (int i = 0; i < AbilityRegistry.MAX_COOLDOWN_SLOTS; i++) {
+      registry.register(new TestAbility("ability" + i));
+    }
+    assertEquals(-1L, registry.getAllSlotsMask());
+    assertThrows(IllegalStateException.class, () -> registry.register(new TestAbility("overflow")));
+  }
+
+  @Test
+  @DisplayName("A reserved slot waits for the ability it was reserved for")
+  void testReservedSlots() {
+    AbilityRegistry registry = new AbilityRegistry();
+    registry.register(new TestAbility("lightning"));
+    assertEquals(3, registry.reserveSlot("ability:fire", 3));
+    assertEquals(3, registry.reserveSlot("ability:fire", 5), "A key keeps its reservation");
+    assertEquals(0, registry.reserveSlot("ability:lightning", 7), "A registered key keeps its slot");
+
+    int ice = registry.register(new TestAbility("ice"));
+    int fire = registry.register(new TestAbility("fire"));
+    assertEquals(1L << 1, registry.getCooldownMask(ice), "Reserved slots are skipped");
+    assertEquals(1L << 3, registry.getCooldownMask(fire), "The reservation is claimed by name");
+    assertEquals("ability:fire", registry.getSlotKey(3));
+    assertEquals(3, registry.getSlotByKeyHash(registry.getSlotKeyHash(3)));
+    assertEquals(-1, registry.getSlotByKeyHash("ability:unknown".hashCode()));
+    assertEquals(3, registry.getSlotKeys().get("ability:fire"));
+  }
+
+  private static final class TestAbility implements Ability {
+
+    private final String name;
+    private final List<String> groups;
+
+    TestAbility(String name, String... groups) {
+      this.name = name;
+      this.groups = List.of(groups);
+    }
+
+    @Override
+    public boolean execute(Player player) {
+      return true;
+    }
+
+    @Override
+    public boolean hasRequiredItem(Player player) {
+      return true;
+    }
+
+    @Override
+    public long getCooldownMillis() {
+      return 1000L;
+    }
+
+    @Override
+    public String getName() {
+      return name;
+    }
+
+    @Override
+    public Collection<String> getCooldownGroups() {
+      return groups;
+    }
+  }
+}
@@ -0,0 +1,81 @@
+package org.cavarest.dragonegglightning.unit;
+
+import com.destroystokyo.paper.event.entity.EntityRemoveFromWorldEvent;
+import org.cavarest.dragonegglightning.ability.ActiveCastIndex;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.LivingEntity;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for the index of casts by target.
+ */
+class ActiveCastIndexTest {
+
+  @Test
+  @DisplayName("Every cast aimed at a lost target is notified once")
+  void testLostTargetNotifiesCasts() {
+    ActiveCastIndex index = new ActiveCastIndex(null);
+    LivingEntity target = entity();
+    LivingEntity other = entity();
+    List<LivingEntity> first = new ArrayList<>();
+    List<LivingEntity> second = new ArrayList<>();
+    List<LivingEntity> bystander = new ArrayList<>();
+    index.watch(target, first::add);
+    index.watch(target, second::add);
+    index.watch(other, bystander::add);
+
+    index.targetLost(target);
+    index.targetLost(target);
+
+    assertEquals(List.of(target), first);
+    assertEquals(List.of(target), second);
+    assertTrue(bystander.isEmpty());
+    assertEquals(1, index.size());
+  }
+
+  @Test
+  @DisplayName("Removal from the world counts as a lost target")
+  void testRemovalFromWorld() {
+    ActiveCastIndex index = new ActiveCastIndex(null);
+    LivingEntity target = entity();
+    List<LivingEntity> lost = new ArrayList<>();
+    index.watch(target, lost::add);
+
+    index.onEntityRemoveFromWorld(new EntityRemoveFromWorldEvent(target, null));
+
+    assertEquals(List.of(target), lost);
+    assertEquals(0, index.size());
+  }
+
+  @Test
+  @DisplayName("Finished casts are no longer notified")
+  void testUnwatch() {
+    ActiveCastIndex index = new ActiveCastIndex(null);
+    LivingEntity target = entity();
+    List<LivingEntity> lost = new ArrayList<>();
+    ActiveCastIndex.Cast cast = lost::add;
+    index.watch(target, cast);
+
+    index.unwatch(target, cast);
+    index.targetLost(target);
+    index.targetLost(mock(Entity.class));
+
+    assertTrue(lost.isEmpty());
+    assertEquals(0, index.size());
+  }
+
+  private static LivingEntity entity() {
+    LivingEntity entity = mock(LivingEntity.class);
+    UUID id = UUID.randomUUID();
+    when(entity.getUniqueId()).thenReturn(id);
+    return entity;
+  }
+}
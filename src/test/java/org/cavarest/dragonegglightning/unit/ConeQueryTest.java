@@ -0,0 +1,133 @@
+package org.cavarest.dragonegglightning.unit;
+
+import org.cavarest.dragonegglightning.ability.ConeQuery;
+import org.bukkit.Location;
+import org.bukkit.entity.LivingEntity;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for the allocation-free viewing cone query.
+ */
+class ConeQueryTest {
+
+  private static final double RANGE = 50.0;
+  private static final double MIN_DOT = 0.9;
+
+  @Test
+  @DisplayName("The nearest entity inside the cone wins")
+  void testNearestInCone() {
+    LivingEntity far = entity(30, 0, 0, false);
+    LivingEntity near = entity(10, 1, 0, false);
+    LivingEntity wide = entity(5, 5, 0, false);
+    LivingEntity behind = entity(-3, 0, 0, false);
+    LivingEntity outOfRange = entity(60, 0, 0, false);
+
+    assertSame(near, lookingAlongX(null, Set.of()).search(List.of(far, near, wide, behind, outOfRange)));
+  }
+
+  @Test
+  @DisplayName("The caster, dead entities and exclusions are skipped")
+  void testExclusions() {
+    LivingEntity caster = entity(2, 0, 0, false);
+    LivingEntity dead = entity(4, 0, 0, true);
+    LivingEntity excluded = entity(6, 0, 0, false);
+    LivingEntity target = entity(8, 0, 0, false);
+
+    assertSame(target, lookingAlongX(caster, Set.of(excluded)).search(List.of(caster, dead, excluded, target)));
+    assertNull(lookingAlongX(caster, Set.of(excluded, target)).search(List.of(caster, dead, excluded, target)));
+  }
+
+  @Test
+  @DisplayName("Ranked candidates keep the nearest few in distance order")
+  void testRankedCandidates() {
+    LivingEntity first = entity(5, 0, 0, false);
+    LivingEntity second = entity(10, 0, 0, false);
+    LivingEntity third = entity(15, 1, 0, false);
+    LivingEntity fourth = entity(20, 0, 0, false);
+    LivingEntity wide = entity(8, 8, 0, false);
+
+    ConeQuery query = new ConeQuery(0, 0, 0, 1, 0, 0, RANGE, MIN_DOT, null, Set.of(), 3);
+    assertSame(first, query.search(List.of(fourth, wide, second, first, third)));
+    assertEquals(3, query.candidateCount());
+    assertSame(first, query.candidate(0));
+    assertSame(second, query.candidate(1));
+    assertSame(third, query.candidate(2));
+  }
+
+  @Test
+  @DisplayName("Candidates are re-validated against the cone where they stand now")
+  void testAccepts() {
+    double[] position = {10, 0, 0};
+    LivingEntity moving = mock(LivingEntity.class);
+    when(moving.isValid()).thenReturn(true);
+    when(moving.getLocation(any(Location.class))).thenAnswer(
+      invocation -> ((Location) invocation.getArgument(0)).set(position[0], position[1], position[2])
+    );
+    LivingEntity dead = entity(12, 0, 0, true);
+    LivingEntity excluded = entity(14, 0, 0, false);
+
+    ConeQuery query = lookingAlongX(null, Set.of(excluded));
+    assertTrue(query.accepts(moving));
+    assertFalse(query.accepts(dead));
+    assertFalse(query.accepts(excluded));
+    assertFalse(query.accepts(null));
+
+    position[1] = 10;
+    assertFalse(query.accepts(moving), "Stepped out of the cone");
+  }
+
+  @Test
+  @DisplayName("The bounding box hugs the cone")
+  void testBoundingBoxContainsCone() {
+    ConeQuery query = lookingAlongX(null, Set.of());
+    assertEquals(0.0, query.boxMin(0), 1e-9, "Nothing behind the apex");
+    assertEquals(RANGE, query.boxMax(0), 1e-9);
+    double sideways = RANGE * Math.sin(Math.acos(MIN_DOT));
+    assertEquals(-sideways, query.boxMin(1), 1e-9);
+    assertEquals(sideways, query.boxMax(2), 1e-9);
+
+    // Random directions: every point inside the cone lies inside the box
+    Random random = new Random(42);
+    for (int i = 0; i < 200; i++) {
+      double dx = random.nextGaussian();
+      double dy = random.nextGaussian();
+      double dz = random.nextGaussian();
+      ConeQuery cone = new ConeQuery(0, 0, 0, dx, dy, dz, RANGE, MIN_DOT, null, Set.of());
+      double length = Math.sqrt(dx * dx + dy * dy + dz * dz);
+      for (int j = 0; j < 50; j++) {
+        double px = random.nextDouble() * 2 * RANGE - RANGE;
+        double py = random.nextDouble() * 2 * RANGE - RANGE;
+        double pz = random.nextDouble() * 2 * RANGE - RANGE;
+        double distance = Math.sqrt(px * px + py * py + pz * pz);
+        double cosine = (px * dx + py * dy + pz * dz) / (distance * length);
+        if (distance < RANGE && cosine >= MIN_DOT) {
+          assertTrue(px >= cone.boxMin(0) - 1e-9 && px <= cone.boxMax(0) + 1e-9);
+          assertTrue(py >= cone.boxMin(1) - 1e-9 && py <= cone.boxMax(1) + 1e-9);
+          assertTrue(pz >= cone.boxMin(2) - 1e-9 && pz <= cone.boxMax(2) + 1e-9);
+        }
+      }
+    }
+  }
+
+  private static ConeQuery lookingAlongX(LivingEntity caster, Set<LivingEntity> excluded) {
+    return new ConeQuery(0, 0, 0, 1, 0, 0, RANGE, MIN_DOT, caster, excluded);
+  }
+
+  private static LivingEntity entity(double x, double y, double z, boolean dead) {
+    LivingEntity entity = mock(LivingEntity.class);
+    when(entity.isDead()).thenReturn(dead);
+    when(entity.isValid()).thenReturn(!dead);
+    when(entity.getLocation(any(Location.class))).thenAnswer(
+      invocation -> ((Location) invocation.getArgument(0)).set(x, y, z)
+    );
+    return entity;
+  }
+}
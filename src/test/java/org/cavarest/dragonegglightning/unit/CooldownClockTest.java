@@ -0,0 +1,45 @@
+package org.cavarest.dragonegglightning.unit;
+
+import org.cavarest.dragonegglightning.cooldown.CooldownClock;
+import org.cavarest.dragonegglightning.cooldown.ManualCooldownClock;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for cooldown clock conversions and the manual test clock.
+ */
+class CooldownClockTest {
+
+  @Test
+  @DisplayName("Millisecond durations round up to whole ticks")
+  void testMillisToTicks() {
+    assertEquals(0L, CooldownClock.millisToTicks(0L));
+    assertEquals(1L, CooldownClock.millisToTicks(1L));
+    assertEquals(1L, CooldownClock.millisToTicks(50L));
+    assertEquals(2L, CooldownClock.millisToTicks(51L));
+    assertEquals(1200L, CooldownClock.millisToTicks(60_000L));
+  }
+
+  @Test
+  @DisplayName("Tick durations round up to whole seconds")
+  void testTicksToSeconds() {
+    assertEquals(0, CooldownClock.ticksToSeconds(0L));
+    assertEquals(1, CooldownClock.ticksToSeconds(1L));
+    assertEquals(1, CooldownClock.ticksToSeconds(20L));
+    assertEquals(2, CooldownClock.ticksToSeconds(21L));
+    assertEquals(60, CooldownClock.ticksToSeconds(CooldownClock.secondsToTicks(60L)));
+  }
+
+  @Test
+  @DisplayName("Manual clock only moves when advanced")
+  void testManualClock() {
+    ManualCooldownClock clock = new ManualCooldownClock(100L);
+    assertEquals(100L, clock.currentTick());
+    clock.advance(5L);
+    assertEquals(105L, clock.currentTick());
+    clock.advanceSeconds(2L);
+    assertEquals(145L, clock.currentTick());
+  }
+}
@@ -0,0 +1,188 @@
+package org.cavarest.dragonegglightning.unit;
+
+import org.cavarest.dragonegglightning.cooldown.CooldownJournal;
+import org.cavarest.dragonegglightning.cooldown.FsyncPolicy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the memory-mapped cooldown journal.
+ */
+class CooldownJournalTest {
+
+  private static final Logger LOGGER = Logger.getLogger("CooldownJournalTest");
+  private static final long NOW = 1_700_000_000_000L;
+
+  private Path directory;
+  private Path file;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    directory = Files.createTempDirectory("cooldown-journal");
+    file = directory.resolve("cooldowns.journal");
+  }
+
+  @AfterEach
+  void tearDown() throws IOException {
+    try (Stream<Path> paths = Files.walk(directory)) {
+      paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+    }
+  }
+
+  @Test
+  @DisplayName("Cooldowns survive close and replay")
+  void testRoundTrip() throws IOException {
+    UUID first = UUID.randomUUID();
+    UUID second = UUID.randomUUID();
+
+    CooldownJournal journal = open();
+    journal.append(first.getMostSignificantBits(), first.getLeastSignificantBits(), 0, NOW + 30_000);
+    journal.append(second.getMostSignificantBits(), second.getLeastSignificantBits(), 0, NOW + 60_000);
+    journal.close();
+
+    Map<UUID, Long> restored = replay();
+    assertEquals(2, restored.size());
+    assertEquals(NOW + 30_000, restored.get(first));
+    assertEquals(NOW + 60_000, restored.get(second));
+  }
+
+  @Test
+  @DisplayName("Cooldown slots are kept apart")
+  void testSlotsRoundTrip() throws IOException {
+    UUID playerId = UUID.randomUUID();
+
+    CooldownJournal journal = open();
+    journal.append(playerId.getMostSignificantBits(), playerId.getLeastSignificantBits(), 0, NOW + 30_000);
+    journal.append(playerId.getMostSignificantBits(), playerId.getLeastSignificantBits(), 3, NOW + 60_000);
+    journal.appendClear(playerId.getMostSignificantBits(), playerId.getLeastSignificantBits(), 0);
+    journal.close();
+
+    Map<Integer, Long> restored = new HashMap<>();
+    CooldownJournal reopened = new CooldownJournal(file, FsyncPolicy.NEVER, 0L, LOGGER);
+    reopened.replay(NOW, (msb, lsb, slot, expiry) -> restored.put(slot, expiry));
+    reopened.close();
+    assertEquals(Map.of(3, NOW + 60_000), restored);
+  }
+
+  @Test
+  @DisplayName("Later records win and clears remove entries")
+  void testLastWriteWins() throws IOException {
+    UUID overwritten = UUID.randomUUID();
+    UUID cleared = UUID.randomUUID();
+
+    CooldownJournal journal = open();
+    journal.append(overwritten.getMostSignificantBits(), overwritten.getLeastSignificantBits(), 0, NOW + 10_000);
+    journal.append(overwritten.getMostSignificantBits(), overwritten.getLeastSignificantBits(), 0, NOW + 50_000);
+    journal.append(cleared.getMostSignificantBits(), cleared.getLeastSignificantBits(), 0, NOW + 50_000);
+    journal.appendClear(cleared.getMostSignificantBits(), cleared.getLeastSignificantBits(), 0);
+    journal.close();
+
+    Map<UUID, Long> restored = replay();
+    assertEquals(Map.of(overwritten, NOW + 50_000), restored);
+  }
+
+  @Test
+  @DisplayName("Expired cooldowns are not restored")
+  void testExpiredNotRestored() throws IOException {
+    UUID expired = UUID.randomUUID();
+
+    CooldownJournal journal = open();
+    journal.append(expired.getMostSignificantBits(), expired.getLeastSignificantBits(), 0, NOW - 1);
+    journal.close();
+
+    assertTrue(replay().isEmpty());
+  }
+
+  @Test
+  @DisplayName("A torn record stops replay without losing earlier records")
+  void testTornRecord() throws IOException {
+    UUID kept = UUID.randomUUID();
+    UUID torn = UUID.randomUUID();
+
+    CooldownJournal journal = open();
+    journal.append(kept.getMostSignificantBits(), kept.getLeastSignificantBits(), 0, NOW + 10_000);
+    journal.append(torn.getMostSignificantBits(), torn.getLeastSignificantBits(), 0, NOW + 10_000);
+    journal.flush();
+    int written = journal.getWrittenBytes();
+    journal.close();
+
+    // Corrupt the expiry of the last record, as a crash mid-write would
+    try (RandomAccessFile raw = new RandomAccessFile(file.toFile(), "rw")) {
+      raw.seek(written - 4);
+      raw.writeInt(0x7fffffff);
+    }
+
+    assertEquals(Map.of(kept, NOW + 10_000), replay());
+  }
+
+  @Test
+  @DisplayName("Compaction drops expired and superseded records")
+  void testCompaction() throws IOException {
+    CooldownJournal journal = open();
+    UUID live = UUID.randomUUID();
+    for (int i = 0; i < 1_000; i++) {
+      UUID expired = UUID.randomUUID();
+      journal.append(expired.getMostSignificantBits(), expired.getLeastSignificantBits(), 0, NOW + i);
+      journal.append(live.getMostSignificantBits(), live.getLeastSignificantBits(), 0, NOW + 60_000 + i);
+    }
+    journal.flush();
+    int before = journal.getWrittenBytes();
+
+    journal.compact(NOW + 5_000);
+    int after = journal.getWrittenBytes();
+    assertTrue(after < before, "Compaction should shrink the journal");
+
+    // Appends after compaction land in the new file
+    UUID late = UUID.randomUUID();
+    journal.append(late.getMostSignificantBits(), late.getLeastSignificantBits(), 0, NOW + 90_000);
+    journal.close();
+
+    assertEquals(Map.of(live, NOW + 60_999, late, NOW + 90_000), replay());
+  }
+
+  @Test
+  @DisplayName("Unreadable journals are replaced rather than failing startup")
+  void testGarbageFile() throws IOException {
+    Files.write(file, new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17});
+    assertTrue(replay().isEmpty());
+  }
+
+  @Test
+  @DisplayName("Fsync policy names parse case-insensitively")
+  void testFsyncPolicyParse() {
+    assertEquals(FsyncPolicy.ALWAYS, FsyncPolicy.parse("Always", FsyncPolicy.INTERVAL));
+    assertEquals(FsyncPolicy.NEVER, FsyncPolicy.parse(" never ", FsyncPolicy.INTERVAL));
+    assertEquals(FsyncPolicy.INTERVAL, FsyncPolicy.parse("sometimes", FsyncPolicy.INTERVAL));
+    assertEquals(FsyncPolicy.INTERVAL, FsyncPolicy.parse(null, FsyncPolicy.INTERVAL));
+  }
+
+  private CooldownJournal open() throws IOException {
+    CooldownJournal journal = new CooldownJournal(file, FsyncPolicy.ALWAYS, 0L, LOGGER);
+    journal.replay(NOW, (msb, lsb, slot, expiry) -> { });
+    journal.start(0L);
+    return journal;
+  }
+
+  private Map<UUID, Long> replay() throws IOException {
+    Map<UUID, Long> restored = new HashMap<>();
+    CooldownJournal journal = new CooldownJournal(file, FsyncPolicy.NEVER, 0L, LOGGER);
+    journal.replay(NOW, (msb, lsb, slot, expiry) -> restored.put(new UUID(msb, lsb), expiry));
+    journal.close();
+    return restored;
+  }
+}
@@ -0,0 +1,201 @@
+package org.cavarest.dragonegglightning.unit;
+
+import org.cavarest.dragonegglightning.cooldown.CooldownDelta;
+import org.cavarest.dragonegglightning.cooldown.CooldownSync;
+import org.cavarest.dragonegglightning.cooldown.CooldownSyncBackend;
+import org.cavarest.dragonegglightning.cooldown.FileCooldownSyncBackend;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for cross-server cooldown sync over the shared-directory backend.
+ */
+class CooldownSyncTest {
+
+  private static final Logger LOGGER = Logger.getLogger("CooldownSyncTest");
+
+  private Path directory;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    directory = Files.createTempDirectory("cooldown-sync");
+  }
+
+  @AfterEach
+  void tearDown() throws IOException {
+    try (Stream<Path> paths = Files.walk(directory)) {
+      paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+    }
+  }
+
+  @Test
+  @DisplayName("Changes pushed by one server are pulled by another, but not by itself")
+  void testPushPull() throws IOException {
+    long now = System.currentTimeMillis();
+    try (FileCooldownSyncBackend lobby = new FileCooldownSyncBackend(directory, "lobby");
+         FileCooldownSyncBackend survival = new FileCooldownSyncBackend(directory, "survival")) {
+      lobby.push(List.of(
+        CooldownDelta.put(1L, 2L, 0, now + 5_000L, now),
+        CooldownDelta.clear(1L, 2L, 3, now + 1_000L, now)
+      ));
+
+      assertTrue(pull(lobby).isEmpty(), "A server should not read its own changes");
+      List<CooldownDelta> received = pull(survival);
+      assertEquals(2, received.size());
+      assertEquals(CooldownDelta.put(1L, 2L, 0, now + 5_000L, now), received.get(0));
+      assertTrue(received.get(1).isClear());
+
+      assertTrue(pull(survival).isEmpty(), "Changes should only be delivered once");
+      lobby.push(List.of(CooldownDelta.put(7L, 8L, 1, now + 9_000L, now)));
+      assertEquals(List.of(CooldownDelta.put(7L, 8L, 1, now + 9_000L, now)), pull(survival));
+    }
+  }
+
+  @Test
+  @DisplayName("A server that starts later receives earlier changes")
+  void testLateJoinerCatchesUp() throws IOException {
+    long now = System.currentTimeMillis();
+    try (FileCooldownSyncBackend lobby = new FileCooldownSyncBackend(directory, "lobby")) {
+      lobby.push(List.of(CooldownDelta.put(1L, 2L, 0, now + 5_000L, now)));
+    }
+    try (FileCooldownSyncBackend survival = new FileCooldownSyncBackend(directory, "survival")) {
+      assertEquals(1, pull(survival).size());
+    }
+  }
+
+  @Test
+  @DisplayName("A restarted server hands its own latest changes to the first pull")
+  void testRestartReplaysOwnChanges() throws IOException {
+    long now = System.currentTimeMillis();
+    try (FileCooldownSyncBackend lobby = new FileCooldownSyncBackend(directory, "lobby")) {
+      lobby.push(List.of(
+        CooldownDelta.put(1L, 2L, 0, now + 5_000L, now),
+        CooldownDelta.put(1L, 2L, 0, now + 9_000L, now + 1)
+      ));
+    }
+    try (FileCooldownSyncBackend lobby = new FileCooldownSyncBackend(directory, "lobby")) {
+      assertEquals(List.of(CooldownDelta.put(1L, 2L, 0, now + 9_000L, now + 1)), pull(lobby));
+      assertTrue(pull(lobby).isEmpty(), "Own changes should only be handed over once");
+    }
+  }
+
+  @Test
+  @DisplayName("Compaction drops ended changes and readers start over on the new file")
+  void testCompaction() throws IOException {
+    long now = System.currentTimeMillis();
+    Path lobbyFile = directory.resolve("lobby" + FileCooldownSyncBackend.FILE_SUFFIX);
+    try (FileCooldownSyncBackend lobby = new FileCooldownSyncBackend(directory, "lobby");
+         FileCooldownSyncBackend survival = new FileCooldownSyncBackend(directory, "survival")) {
+      for (int i = 0; i < 100; i++) {
+        lobby.push(List.of(CooldownDelta.put(i, 2L, 0, now + 1_000L, now)));
+      }
+      lobby.push(List.of(
+        CooldownDelta.put(7L, 8L, 1, now + 60_000L, now),
+        CooldownDelta.clear(7L, 8L, 2, now + 60_000L, now)
+      ));
+      assertEquals(102, pull(survival).size());
+      long before = Files.size(lobbyFile);
+
+      lobby.compact(now + 2_000L);
+      assertTrue(Files.size(lobbyFile) < before, "Compaction should shrink the file");
+      List<CooldownDelta> reread = pull(survival);
+      assertEquals(2, reread.size(), "Only changes that have not ended should be left");
+      assertTrue(reread.contains(CooldownDelta.put(7L, 8L, 1, now + 60_000L, now)));
+      assertTrue(reread.contains(CooldownDelta.clear(7L, 8L, 2, now + 60_000L, now)));
+
+      lobby.push(List.of(CooldownDelta.put(9L, 9L, 0, now + 60_000L, now)));
+      assertEquals(List.of(CooldownDelta.put(9L, 9L, 0, now + 60_000L, now)), pull(survival),
+        "Changes appended after compaction should be read from where the reader stopped");
+    }
+  }
+
+  @Test
+  @DisplayName("Published changes are batched and delivered on sync")
+  void testSyncBatches() throws IOException {
+    long now = System.currentTimeMillis();
+    CooldownSync lobby = new CooldownSync(new FileCooldownSyncBackend(directory, "lobby"), 250L, LOGGER);
+    CooldownSync survival = new CooldownSync(new FileCooldownSyncBackend(directory, "survival"), 250L, LOGGER);
+    try {
+      lobby.publish(1L, 2L, 0, now + 5_000L, now);
+      lobby.publishClear(3L, 4L, 1, now + 3_000L, now);
+      assertEquals(0, drain(survival).size(), "Nothing should move before a sync");
+
+      lobby.syncNow();
+      survival.syncNow();
+      List<CooldownDelta> received = drain(survival);
+      assertEquals(2, received.size());
+      assertEquals(CooldownDelta.clear(3L, 4L, 1, now + 3_000L, now), received.get(1));
+    } finally {
+      lobby.close();
+      survival.close();
+    }
+  }
+
+  @Test
+  @DisplayName("A failed push is retried on the next sync")
+  void testFailedPushIsRetried() {
+    FlakyBackend backend = new FlakyBackend();
+    CooldownSync sync = new CooldownSync(backend, 250L, LOGGER);
+    sync.publish(1L, 2L, 0, 5_000L, 1_000L);
+
+    backend.failNextPush = true;
+    sync.syncNow();
+    assertTrue(backend.pushed.isEmpty());
+
+    sync.syncNow();
+    assertEquals(1, backend.pushed.size());
+    sync.close();
+    assertTrue(backend.closed);
+  }
+
+  private static List<CooldownDelta> pull(CooldownSyncBackend backend) throws IOException {
+    List<CooldownDelta> received = new ArrayList<>();
+    backend.pull(received::add);
+    return received;
+  }
+
+  private static List<CooldownDelta> drain(CooldownSync sync) {
+    List<CooldownDelta> received = new ArrayList<>();
+    sync.drainRemote(received::add);
+    return received;
+  }
+
+  private static final class FlakyBackend implements CooldownSyncBackend {
+
+    private final List<CooldownDelta> pushed = new ArrayList<>();
+    private boolean failNextPush;
+    private boolean closed;
+
+    @Override
+    public void push(List<CooldownDelta> deltas) throws IOException {
+      if (failNextPush) {
+        failNextPush = false;
+        throw new IOException("Simulated outage");
+      }
+      pushed.addAll(deltas);
+    }
+
+    @Override
+    public void pull(Consumer<CooldownDelta> sink) {
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+  }
+}
@@ -0,0 +1,102 @@
+package org.cavarest.dragonegglightning.unit;
+
+import org.cavarest.dragonegglightning.cooldown.CooldownWheel;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the hierarchical cooldown timing wheel.
+ */
+class CooldownWheelTest {
+
+  @Test
+  @DisplayName("Entries fire exactly on their deadline tick")
+  void testFiresOnDeadline() {
+    CooldownWheel wheel = new CooldownWheel(1000L);
+    wheel.schedule(1L, 1L, 0, 1005L);
+
+    List<Long> fired = new ArrayList<>();
+    wheel.advance(1004L, (msb, lsb, slot, deadline) -> fired.add(deadline));
+    assertTrue(fired.isEmpty(), "Should not fire before the deadline");
+
+    wheel.advance(1005L, (msb, lsb, slot, deadline) -> fired.add(deadline));
+    assertEquals(List.of(1005L), fired);
+    assertEquals(0, wheel.size(), "Fired entries should be released");
+  }
+
+  @Test
+  @DisplayName("Deadlines on every level fire on time after cascading")
+  void testCascadingLevels() {
+    long start = 12_345L;
+    CooldownWheel wheel = new CooldownWheel(start);
+    long[] offsets = {1, 63, 64, 65, 1200, 4095, 4096, 4097, 70_000, 262_143, 262_144, 300_000};
+    for (long offset : offsets) {
+      wheel.schedule(offset, 0L, 0, start + offset);
+    }
+
+    List<long[]> fired = new ArrayList<>();
+    long[] now = new long[1];
+    for (long tick = start + 1; tick <= start + 300_000; tick++) {
+      now[0] = tick;
+      wheel.advance(tick, (msb, lsb, slot, deadline) -> fired.add(new long[] {msb, deadline, now[0]}));
+    }
+
+    assertEquals(offsets.length, fired.size());
+    for (long[] entry : fired) {
+      assertEquals(entry[1], entry[2], "Entry " + entry[0] + " fired on the wrong tick");
+    }
+  }
+
+  @Test
+  @DisplayName("Deadlines beyond the wheel span still fire on time")
+  void testDeadlineBeyondSpan() {
+    long span = 1L << 24;
+    CooldownWheel wheel = new CooldownWheel(0L);
+    wheel.schedule(9L, 9L, 0, span + 100);
+
+    List<Long> fired = new ArrayList<>();
+    wheel.advance(span + 99, (msb, lsb, slot, deadline) -> fired.add(deadline));
+    assertTrue(fired.isEmpty());
+    wheel.advance(span + 100, (msb, lsb, slot, deadline) -> fired.add(deadline));
+    assertEquals(List.of(span + 100), fired);
+  }
+
+  @Test
+  @DisplayName("Past deadlines fire on the next advance")
+  void testPastDeadline() {
+    CooldownWheel wheel = new CooldownWheel(500L);
+    wheel.schedule(2L, 3L, 0, 10L);
+
+    List<Long> fired = new ArrayList<>();
+    wheel.advance(501L, (msb, lsb, slot, deadline) -> {
+      assertEquals(2L, msb);
+      assertEquals(3L, lsb);
+      fired.add(deadline);
+    });
+    assertEquals(List.of(10L), fired);
+  }
+
+  @Test
+  @DisplayName("Skipping ahead fires everything that became due")
+  void testCatchUp() {
+    CooldownWheel wheel = new CooldownWheel(0L);
+    Random random = new Random(7);
+    int scheduled = 0;
+    for (int i = 0; i < 5_000; i++) {
+      wheel.schedule(i, i, 0, 1 + random.nextInt(100_000));
+      scheduled++;
+    }
+
+    int[] count = new int[1];
+    wheel.advance(100_000L, (msb, lsb, slot, deadline) -> count[0]++);
+    assertEquals(scheduled, count[0]);
+    assertEquals(0, wheel.size());
+    assertEquals(100_000L, wheel.getCurrentTick());
+  }
+}
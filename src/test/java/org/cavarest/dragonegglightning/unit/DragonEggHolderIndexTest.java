@@ -0,0 +1,104 @@
+package org.cavarest.dragonegglightning.unit;
+
+import org.cavarest.dragonegglightning.ability.DragonEggHolderIndex;
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockState;
+import org.bukkit.entity.Player;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.inventory.EquipmentSlot;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for the event-driven index of Dragon Egg holders.
+ */
+class DragonEggHolderIndexTest {
+
+  @Test
+  @DisplayName("Refreshing a player indexes them while they hold the egg")
+  void testRefreshTracksOffhand() {
+    DragonEggHolderIndex index = new DragonEggHolderIndex(null);
+    ItemStack[] offhand = {item(Material.DRAGON_EGG)};
+    Player player = player(offhand);
+
+    assertFalse(index.isHolding(player), "Players are not indexed before a refresh");
+    index.refresh(player);
+    assertTrue(index.isHolding(player));
+    assertEquals(1, index.size());
+
+    offhand[0] = item(Material.AIR);
+    index.refresh(player);
+    assertFalse(index.isHolding(player));
+    assertEquals(0, index.size());
+  }
+
+  @Test
+  @DisplayName("Listeners only hear about actual changes")
+  void testListenersHearChanges() {
+    DragonEggHolderIndex index = new DragonEggHolderIndex(null);
+    List<Boolean> changes = new ArrayList<>();
+    index.addListener((player, holding) -> changes.add(holding));
+    ItemStack[] offhand = {item(Material.DRAGON_EGG)};
+    Player player = player(offhand);
+
+    index.refresh(player);
+    index.refresh(player);
+    offhand[0] = null;
+    index.refresh(player);
+    index.refresh(player);
+
+    assertEquals(List.of(true, false), changes);
+  }
+
+  @Test
+  @DisplayName("Placing a block from the offhand re-reads it")
+  void testOffhandBlockPlaceRefreshes() {
+    DragonEggHolderIndex index = new DragonEggHolderIndex(null);
+    ItemStack[] offhand = {item(Material.DRAGON_EGG)};
+    Player player = player(offhand);
+    index.refresh(player);
+
+    offhand[0] = null;
+    index.onBlockPlace(placeEvent(player, EquipmentSlot.HAND));
+    assertTrue(index.isHolding(player), "A block from the main hand leaves the offhand alone");
+    index.onBlockPlace(placeEvent(player, EquipmentSlot.OFF_HAND));
+    assertFalse(index.isHolding(player), "Placing the egg should drop the player from the index");
+  }
+
+  @Test
+  @DisplayName("Null players are never holders")
+  void testNullPlayer() {
+    assertFalse(new DragonEggHolderIndex(null).isHolding(null));
+  }
+
+  private static Player player(ItemStack[] offhand) {
+    Player player = mock(Player.class);
+    UUID id = UUID.randomUUID();
+    when(player.getUniqueId()).thenReturn(id);
+    PlayerInventory inventory = mock(PlayerInventory.class);
+    when(inventory.getItemInOffHand()).thenAnswer(invocation -> offhand[0]);
+    when(player.getInventory()).thenReturn(inventory);
+    return player;
+  }
+
+  private static BlockPlaceEvent placeEvent(Player player, EquipmentSlot hand) {
+    return new BlockPlaceEvent(
+      mock(Block.class), mock(BlockState.class), mock(Block.class), item(Material.DRAGON_EGG), player, true, hand);
+  }
+
+  private static ItemStack item(Material material) {
+    ItemStack item = mock(ItemStack.class);
+    when(item.getType()).thenReturn(material);
+    return item;
+  }
+}
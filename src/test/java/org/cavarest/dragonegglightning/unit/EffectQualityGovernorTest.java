@@ -0,0 +1,75 @@
+package org.cavarest.dragonegglightning.unit;
+
+import org.cavarest.dragonegglightning.effect.EffectDetail;
+import org.cavarest.dragonegglightning.effect.EffectQualityGovernor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the MSPT-driven effect quality governor.
+ */
+class EffectQualityGovernorTest {
+
+  @Test
+  @DisplayName("Lag steps the quality down one tier per sample")
+  void testStepsDownUnderLoad() {
+    EffectQualityGovernor governor = new EffectQualityGovernor(null, true, 40.0, 45.0, 50.0);
+    assertEquals(EffectDetail.FULL, governor.getTier());
+
+    governor.observe(80.0);
+    assertEquals(EffectDetail.REDUCED, governor.getTier());
+    governor.observe(80.0);
+    assertEquals(EffectDetail.MINIMAL, governor.getTier());
+    governor.observe(80.0);
+    assertEquals(EffectDetail.SOUND_ONLY, governor.getTier());
+    governor.observe(80.0);
+    assertEquals(EffectDetail.SOUND_ONLY, governor.getTier());
+    assertEquals(80.0, governor.getLastMspt(), 1e-9);
+  }
+
+  @Test
+  @DisplayName("Quality only recovers well below the tier's threshold")
+  void testHysteresis() {
+    EffectQualityGovernor governor = new EffectQualityGovernor(null, true, 40.0, 45.0, 50.0);
+    governor.observe(42.0);
+    assertEquals(EffectDetail.REDUCED, governor.getTier());
+
+    governor.observe(39.0);
+    assertEquals(EffectDetail.REDUCED, governor.getTier(), "Just under the threshold is not enough");
+    governor.observe(42.0);
+    assertEquals(EffectDetail.REDUCED, governor.getTier());
+    governor.observe(31.0);
+    assertEquals(EffectDetail.FULL, governor.getTier());
+  }
+
+  @Test
+  @DisplayName("A pinned tier overrides the load until unpinned")
+  void testPin() {
+    EffectQualityGovernor governor = new EffectQualityGovernor(null, true, 40.0, 45.0, 50.0);
+    governor.pin(EffectDetail.MINIMAL);
+    governor.observe(10.0);
+    assertEquals(EffectDetail.MINIMAL, governor.getTier());
+    assertEquals(EffectDetail.FULL, governor.getAdaptiveTier());
+
+    governor.observe(60.0);
+    governor.pin(null);
+    assertEquals(EffectDetail.REDUCED, governor.getTier());
+
+    EffectQualityGovernor fixed = new EffectQualityGovernor(null, false, 40.0, 45.0, 50.0);
+    fixed.observe(100.0);
+    assertEquals(EffectDetail.FULL, fixed.getTier(), "Not adaptive: load is ignored");
+  }
+
+  @Test
+  @DisplayName("Tier names parse like the config writes them")
+  void testParse() {
+    assertEquals(EffectDetail.SOUND_ONLY, EffectDetail.parse("sound-only", null));
+    assertEquals(EffectDetail.REDUCED, EffectDetail.parse("REDUCED", null));
+    assertNull(EffectDetail.parse("ultra", null));
+    assertEquals("sound-only", EffectDetail.SOUND_ONLY.configName());
+    assertEquals(EffectDetail.MINIMAL, EffectDetail.FULL.lowerOf(EffectDetail.MINIMAL));
+    assertEquals(EffectDetail.MINIMAL, EffectDetail.MINIMAL.lowerOf(EffectDetail.REDUCED));
+  }
+}
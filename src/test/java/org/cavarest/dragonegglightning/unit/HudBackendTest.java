@@ -0,0 +1,104 @@
+package org.cavarest.dragonegglightning.unit;
+
+import org.cavarest.dragonegglightning.ability.AbilityManager;
+import org.cavarest.dragonegglightning.cooldown.ManualCooldownClock;
+import org.cavarest.dragonegglightning.hud.BossBarHudBackend;
+import org.cavarest.dragonegglightning.hud.HudBackendType;
+import org.cavarest.dragonegglightning.hud.HudComponentCache;
+import org.cavarest.dragonegglightning.hud.HudState;
+import org.cavarest.dragonegglightning.hud.ItemCooldownHudBackend;
+import net.kyori.adventure.bossbar.BossBar;
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for the boss bar and item cooldown HUD backends.
+ */
+class HudBackendTest {
+
+  @Test
+  @DisplayName("Backend names are parsed leniently")
+  void testParse() {
+    assertEquals(HudBackendType.BOSS_BAR, HudBackendType.parse("bossbar", null));
+    assertEquals(HudBackendType.BOSS_BAR, HudBackendType.parse(" Boss-Bar ", null));
+    assertEquals(HudBackendType.ITEM_COOLDOWN, HudBackendType.parse("item_cooldown", null));
+    assertEquals(HudBackendType.ACTION_BAR, HudBackendType.parse("unknown", HudBackendType.ACTION_BAR));
+    assertEquals("item-cooldown", HudBackendType.ITEM_COOLDOWN.configName());
+  }
+
+  @Test
+  @DisplayName("The item cooldown is sent once per cast and once when cleared")
+  void testItemCooldownSentOncePerCast() {
+    ManualCooldownClock clock = new ManualCooldownClock(1_000L);
+    AbilityManager abilityManager = new AbilityManager(null, clock);
+    ItemCooldownHudBackend backend = new ItemCooldownHudBackend(abilityManager);
+    Player player = createMockPlayerWithDragonEgg();
+
+    abilityManager.setCooldown(player, 60);
+    backend.render(player, display(60), clock.currentTick());
+    clock.advance(20);
+    backend.render(player, display(59), clock.currentTick());
+    clock.advance(20);
+    backend.render(player, display(58), clock.currentTick());
+    verify(player, times(1)).setCooldown(Material.DRAGON_EGG, 1200);
+
+    abilityManager.clearCooldown(player);
+    backend.render(player, display(0), clock.currentTick());
+    backend.render(player, display(0), clock.currentTick());
+    verify(player, times(1)).setCooldown(Material.DRAGON_EGG, 0);
+  }
+
+  @Test
+  @DisplayName("The boss bar is created once and only updated afterwards")
+  void testBossBarReused() {
+    AbilityManager abilityManager = new AbilityManager(null, new ManualCooldownClock());
+    BossBarHudBackend backend = new BossBarHudBackend(
+      abilityManager,
+      new HudComponentCache(abilityManager)
+    );
+    Player player = createMockPlayerWithDragonEgg();
+
+    backend.render(player, display(60), 0L);
+    backend.render(player, display(30), 20L);
+    ArgumentCaptor<BossBar> shown = ArgumentCaptor.forClass(BossBar.class);
+    verify(player, times(1)).showBossBar(shown.capture());
+    assertEquals(0.5f, shown.getValue().progress(), 0.001f);
+
+    backend.hide(player);
+    verify(player, times(1)).hideBossBar(any(BossBar.class));
+    backend.render(player, display(0), 40L);
+    ArgumentCaptor<BossBar> reshown = ArgumentCaptor.forClass(BossBar.class);
+    verify(player, times(2)).showBossBar(reshown.capture());
+    assertSame(shown.getValue(), reshown.getValue(), "The same bar should be shown again");
+    assertEquals(1.0f, reshown.getValue().progress(), 0.001f, "A ready ability fills the bar");
+  }
+
+  private static HudState display(int seconds) {
+    HudState state = new HudState();
+    state.begin();
+    state.add(1, seconds);
+    return state;
+  }
+
+  private static Player createMockPlayerWithDragonEgg() {
+    Player player = mock(Player.class);
+    UUID id = UUID.randomUUID();
+    when(player.getUniqueId()).thenReturn(id);
+    PlayerInventory inventory = mock(PlayerInventory.class);
+    ItemStack dragonEgg = mock(ItemStack.class);
+    when(dragonEgg.getType()).thenReturn(Material.DRAGON_EGG);
+    when(inventory.getItemInOffHand()).thenReturn(dragonEgg);
+    when(player.getInventory()).thenReturn(inventory);
+    return player;
+  }
+}
@@ -0,0 +1,53 @@
+package org.cavarest.dragonegglightning.unit;
+
+import org.cavarest.dragonegglightning.ability.AbilityManager;
+import org.cavarest.dragonegglightning.cooldown.ManualCooldownClock;
+import org.cavarest.dragonegglightning.hud.HudComponentCache;
+import net.kyori.adventure.text.Component;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the pre-rendered HUD component cache.
+ */
+class HudComponentCacheTest {
+
+  @Test
+  @DisplayName("Segments are built once and reused")
+  void testSegmentsAreReused() {
+    AbilityManager abilityManager = new AbilityManager(null, new ManualCooldownClock());
+    HudComponentCache cache = new HudComponentCache(abilityManager);
+
+    Component ready = cache.get(1, 0, false);
+    assertNotNull(ready);
+    assertSame(ready, cache.get(1, 0, false));
+    assertSame(cache.get(1, 60, false), cache.get(1, 60, false));
+    assertNotSame(cache.get(1, 30, false), cache.get(1, 30, true), "Labelled segments differ");
+    assertSame(ready, cache.get(1, 0, true), "The ready segment is always labelled");
+  }
+
+  @Test
+  @DisplayName("Changing the cooldown configuration rebuilds the cache")
+  void testRebuildOnConfigurationChange() {
+    AbilityManager abilityManager = new AbilityManager(null, new ManualCooldownClock());
+    HudComponentCache cache = new HudComponentCache(abilityManager);
+
+    Component before = cache.get(1, 30, false);
+    assertNotSame(cache.get(1, 90, false), cache.get(1, 90, false),
+      "Seconds past the configured cooldown are rendered on demand");
+
+    abilityManager.setGlobalCooldownDuration(120);
+    assertNotSame(before, cache.get(1, 30, false));
+    assertSame(cache.get(1, 90, false), cache.get(1, 90, false),
+      "A longer global cooldown should be pre-rendered");
+  }
+
+  @Test
+  @DisplayName("Unknown abilities render as empty")
+  void testUnknownAbility() {
+    HudComponentCache cache = new HudComponentCache(new AbilityManager(null, new ManualCooldownClock()));
+    assertEquals(Component.empty(), cache.get(42, 0, false));
+  }
+}
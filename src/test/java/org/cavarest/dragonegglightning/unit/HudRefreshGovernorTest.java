@@ -0,0 +1,76 @@
+package org.cavarest.dragonegglightning.unit;
+
+import org.cavarest.dragonegglightning.hud.HudRefreshGovernor;
+import org.cavarest.dragonegglightning.hud.HudState;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for HUD refresh bucketing and MSPT-adaptive slowdown.
+ */
+class HudRefreshGovernorTest {
+
+  @Test
+  @DisplayName("Players are spread evenly over the refresh period")
+  void testBucketsAreBalanced() {
+    HudRefreshGovernor governor = new HudRefreshGovernor(4, 20, false, 45.0);
+    int[] buckets = new int[4];
+    for (int i = 0; i < 4_000; i++) {
+      long delay = governor.initialDelayTicks(UUID.randomUUID());
+      assertTrue(delay >= 1 && delay <= 4, "Delay out of range: " + delay);
+      buckets[(int) delay - 1]++;
+    }
+    for (int count : buckets) {
+      assertTrue(count > 800 && count < 1200, "Unbalanced bucket: " + count);
+    }
+  }
+
+  @Test
+  @DisplayName("High MSPT slows the HUD down and recovery speeds it up")
+  void testAdaptiveSlowdown() {
+    HudRefreshGovernor governor = new HudRefreshGovernor(2, 20, true, 45.0);
+    assertEquals(2, governor.effectivePeriodTicks());
+
+    governor.observe(60.0);
+    assertEquals(4, governor.effectivePeriodTicks());
+    for (int i = 0; i < 10; i++) {
+      governor.observe(60.0);
+    }
+    assertEquals(20, governor.effectivePeriodTicks(), "Capped at the maximum period");
+
+    governor.observe(40.0);
+    assertEquals(20, governor.effectivePeriodTicks(), "No change between recovery and target");
+    governor.observe(20.0);
+    assertEquals(10, governor.effectivePeriodTicks());
+  }
+
+  @Test
+  @DisplayName("Runs are skipped according to the stride")
+  void testSkippedRuns() {
+    HudRefreshGovernor governor = new HudRefreshGovernor(1, 20, true, 45.0);
+    HudState state = new HudState();
+    assertTrue(governor.shouldRun(state));
+
+    governor.observe(100.0);
+    governor.observe(100.0);
+    int refreshed = 0;
+    for (int run = 0; run < 40; run++) {
+      if (governor.shouldRun(state)) {
+        refreshed++;
+      }
+    }
+    assertEquals(10, refreshed);
+  }
+
+  @Test
+  @DisplayName("Fixed mode ignores MSPT")
+  void testFixedMode() {
+    HudRefreshGovernor governor = new HudRefreshGovernor(3, 20, false, 45.0);
+    governor.observe(200.0);
+    assertEquals(3, governor.effectivePeriodTicks());
+  }
+}
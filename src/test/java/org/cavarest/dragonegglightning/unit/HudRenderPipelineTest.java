@@ -0,0 +1,149 @@
+package org.cavarest.dragonegglightning.unit;
+
+import org.cavarest.dragonegglightning.hud.HudRenderPipeline;
+import org.cavarest.dragonegglightning.hud.HudState;
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for the background HUD render pipeline.
+ */
+class HudRenderPipelineTest {
+
+  private static final Logger LOGGER = Logger.getLogger("HudRenderPipelineTest");
+
+  private static final HudRenderPipeline.Collector READY = (player, frame) -> frame.add(1, 0L);
+
+  @Test
+  @DisplayName("Each frame renders the players registered when it was published")
+  void testFrameFollowsMembership() {
+    List<UUID> rendered = new ArrayList<>();
+    HudRenderPipeline pipeline = new HudRenderPipeline(
+      (playerId, audience, state, nowTick) -> rendered.add(playerId), LOGGER);
+    Player first = player();
+    Player second = player();
+
+    pipeline.add(first);
+    pipeline.add(second);
+    assertTrue(pipeline.publish(0L, READY));
+    assertEquals(2, rendered.size());
+
+    rendered.clear();
+    assertTrue(pipeline.remove(first.getUniqueId()));
+    assertFalse(pipeline.remove(first.getUniqueId()));
+    pipeline.publish(HudState.KEEP_ALIVE_TICKS, READY);
+    assertEquals(List.of(second.getUniqueId()), rendered);
+    assertEquals(1, pipeline.size());
+  }
+
+  @Test
+  @DisplayName("The render thread builds the display from the frame's ready ticks")
+  void testDisplayComesFromFrame() {
+    List<Integer> seconds = new ArrayList<>();
+    HudRenderPipeline pipeline = new HudRenderPipeline((playerId, audience, state, nowTick) -> {
+      for (int i = 0; i < state.size(); i++) {
+        seconds.add(state.abilityId(i));
+        seconds.add(state.seconds(i));
+      }
+    }, LOGGER);
+    pipeline.add(player());
+
+    // Ability 1 is ready, ability 2 is ready in 50 ticks
+    pipeline.publish(100L, (player, frame) -> frame.add(1, 100L).add(2, 150L));
+    assertEquals(List.of(1, 0, 2, 3), seconds);
+
+    // An unchanged display is not sent again
+    seconds.clear();
+    pipeline.publish(101L, (player, frame) -> frame.add(1, 100L).add(2, 150L));
+    assertTrue(seconds.isEmpty());
+  }
+
+  @Test
+  @DisplayName("Frames carry each player's rows and never change once built")
+  void testFrameRows() {
+    UUID first = UUID.randomUUID();
+    UUID second = UUID.randomUUID();
+    HudRenderPipeline.Frame.Builder builder = new HudRenderPipeline.Frame.Builder(7L, 1);
+    builder.player(first).add(1, 7L).add(2, 30L);
+    builder.player(second);
+    HudRenderPipeline.Frame frame = builder.build();
+    builder.add(3, 50L);
+
+    assertEquals(7L, frame.nowTick());
+    assertEquals(2, frame.playerCount());
+    assertEquals(first, frame.player(0));
+    assertEquals(0, frame.firstRow(0));
+    assertEquals(2, frame.endRow(0));
+    assertEquals(2, frame.abilityId(1));
+    assertEquals(30L, frame.readyTick(1));
+    assertEquals(second, frame.player(1));
+    assertEquals(frame.firstRow(1), frame.endRow(1));
+  }
+
+  @Test
+  @DisplayName("A failing player does not stop the frame")
+  void testFailuresAreIsolated() {
+    Player broken = player();
+    List<UUID> rendered = new ArrayList<>();
+    HudRenderPipeline pipeline = new HudRenderPipeline((playerId, audience, state, nowTick) -> {
+      if (playerId.equals(broken.getUniqueId())) {
+        throw new IllegalStateException("Simulated failure");
+      }
+      rendered.add(playerId);
+    }, LOGGER);
+    Player healthy = player();
+
+    pipeline.add(broken);
+    pipeline.add(healthy);
+    pipeline.publish(0L, READY);
+    assertEquals(List.of(healthy.getUniqueId()), rendered);
+  }
+
+  @Test
+  @DisplayName("Frames are dropped while the render thread is busy")
+  void testBusyFramesAreDropped() throws InterruptedException {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    String[] renderThread = new String[1];
+    HudRenderPipeline pipeline = new HudRenderPipeline((playerId, audience, state, nowTick) -> {
+      renderThread[0] = Thread.currentThread().getName();
+      started.countDown();
+      try {
+        release.await(5, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }, LOGGER);
+    pipeline.start();
+    try {
+      pipeline.add(player());
+      assertTrue(pipeline.publish(0L, READY));
+      assertTrue(started.await(5, TimeUnit.SECONDS));
+      assertEquals("DragonEggLightning-HudRender", renderThread[0]);
+
+      assertFalse(pipeline.publish(1L, READY), "A frame should be dropped while the last one renders");
+      assertEquals(1, pipeline.getDroppedFrames());
+    } finally {
+      release.countDown();
+      pipeline.close();
+    }
+  }
+
+  private static Player player() {
+    Player player = mock(Player.class);
+    UUID id = UUID.randomUUID();
+    when(player.getUniqueId()).thenReturn(id);
+    return player;
+  }
+}
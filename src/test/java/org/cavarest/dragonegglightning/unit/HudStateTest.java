@@ -0,0 +1,95 @@
+package org.cavarest.dragonegglightning.unit;
+
+import org.cavarest.dragonegglightning.hud.HudState;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the change-driven HUD state cache.
+ */
+class HudStateTest {
+
+  @Test
+  @DisplayName("An unchanged display is sent once, then only as a keep-alive")
+  void testUnchangedDisplayIsNotResent() {
+    HudState state = new HudState();
+    int sent = 0;
+    for (long tick = 0; tick < 200; tick++) {
+      state.begin();
+      state.add(1, 0);
+      if (state.needsSend(tick)) {
+        state.markSent(tick);
+        sent++;
+      }
+    }
+    // First send plus one keep-alive every 30 ticks, instead of 200 packets
+    assertEquals(7, sent);
+  }
+
+  @Test
+  @DisplayName("Keep-alives land before the fade when refreshes do not divide 40 ticks")
+  void testKeepAliveBeforeFadeWithStride() {
+    HudState state = new HudState();
+    long lastSent = -1;
+    long longestGap = 0;
+    // A 2-tick period slowed down to every 3rd run refreshes every 6 ticks
+    for (long tick = 0; tick < 400; tick += 2) {
+      if (!state.countRun(3)) {
+        continue;
+      }
+      state.begin();
+      state.add(1, 0);
+      if (state.needsSend(tick)) {
+        state.markSent(tick);
+        if (lastSent >= 0) {
+          longestGap = Math.max(longestGap, tick - lastSent);
+        }
+        lastSent = tick;
+      }
+    }
+    assertTrue(longestGap >= HudState.KEEP_ALIVE_TICKS);
+    assertTrue(longestGap < 40, "Resent after " + longestGap + " ticks, once the bar started fading");
+  }
+
+  @Test
+  @DisplayName("A change in the shown seconds is sent immediately")
+  void testChangedSecondsAreSent() {
+    HudState state = new HudState();
+    state.begin();
+    state.add(1, 10);
+    assertTrue(state.needsSend(0));
+    state.markSent(0);
+
+    state.begin();
+    state.add(1, 10);
+    assertFalse(state.needsSend(1));
+
+    state.begin();
+    state.add(1, 9);
+    assertTrue(state.needsSend(2));
+    state.markSent(2);
+
+    state.begin();
+    state.add(1, 9);
+    state.add(2, 0);
+    assertTrue(state.needsSend(3), "A newly visible ability changes the display");
+  }
+
+  @Test
+  @DisplayName("An empty display is never sent and the next one is sent at once")
+  void testHiddenDisplay() {
+    HudState state = new HudState();
+    state.begin();
+    state.add(1, 0);
+    state.markSent(0);
+
+    state.begin();
+    assertFalse(state.needsSend(1), "Nothing to show, let the bar fade");
+
+    state.begin();
+    state.add(1, 0);
+    assertTrue(state.needsSend(2), "Showing the same ability again must resend it");
+  }
+}
@@ -6,6 +6,14 @@ import org.junit.jupiter.api.DisplayName;
 import static org.junit.jupiter.api.Assertions.*;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.util.UUID;
+
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+
+import static org.mockito.Mockito.*;
 
 /**
  * Tests for LightningAbility.
@@ -57,6 +65,28 @@ class LightningAbilityTest {
     assertFalse(result, "Should return false for null player");
   }
 
+  @Test
+  @DisplayName("Casts read the offhand even when the holder index lags behind")
+  void testRequiredItemReadsOffhandDespiteIndex() throws Exception {
+    DragonEggHolderIndex index = new DragonEggHolderIndex(null);
+    Field holderIndex = LightningAbility.class.getDeclaredField("holderIndex");
+    holderIndex.setAccessible(true);
+    holderIndex.set(ability, index);
+
+    ItemStack[] offhand = {item(Material.DRAGON_EGG)};
+    Player player = mock(Player.class);
+    when(player.getUniqueId()).thenReturn(UUID.randomUUID());
+    PlayerInventory inventory = mock(PlayerInventory.class);
+    when(inventory.getItemInOffHand()).thenAnswer(invocation -> offhand[0]);
+    when(player.getInventory()).thenReturn(inventory);
+    index.refresh(player);
+
+    // The egg leaves the offhand without an event the index hears about
+    offhand[0] = item(Material.AIR);
+    assertTrue(ability.isRequiredItemShown(player), "The HUD answers from the index");
+    assertFalse(ability.hasRequiredItem(player), "Casts should see the egg is gone");
+  }
+
   @Test
   @DisplayName("Test execute with null player")
   void testExecuteWithNullPlayer() {
@@ -145,4 +175,10 @@ class LightningAbilityTest {
 
     assertEquals(10L, strikeIntervalTicks, "Strike interval should still be 10 ticks (0.5 seconds)");
   }
+
+  private static ItemStack item(Material material) {
+    ItemStack item = mock(ItemStack.class);
+    when(item.getType()).thenReturn(material);
+    return item;
+  }
 }
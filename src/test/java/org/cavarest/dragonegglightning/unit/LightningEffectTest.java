@@ -0,0 +1,142 @@
+package org.cavarest.dragonegglightning.unit;
+
+import org.cavarest.dragonegglightning.effect.BeamShape;
+import org.cavarest.dragonegglightning.effect.EffectDetail;
+import org.cavarest.dragonegglightning.effect.LightningEffect;
+import org.cavarest.dragonegglightning.effect.ParticleSink;
+import org.bukkit.Location;
+import org.bukkit.Particle;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for the pre-baked lightning particle effect.
+ */
+class LightningEffectTest {
+
+  @Test
+  @DisplayName("A vertical beam has a point every spacing up to its height")
+  void testVerticalBeam() {
+    BeamShape beam = BeamShape.vertical(10.0, 0.3);
+    assertEquals(34, beam.size(), "Same points as the old 0 to 10 step 0.3 loop");
+    assertEquals(0.0, beam.offsetY(0), 1e-9);
+    assertEquals(9.9, beam.offsetY(33), 1e-9);
+    assertEquals(0.0, beam.offsetX(10), 1e-9);
+
+    assertEquals(11, BeamShape.vertical(10.0, 1.0).size(), "Keeps the top point");
+  }
+
+  @Test
+  @DisplayName("A strike translates the beam to the impact and reuses its dust")
+  void testPlayTranslatesBeam() {
+    LightningEffect effect = new LightningEffect(LightningEffect.DEFAULT_BEAM_SPACING);
+    List<double[]> dust = new ArrayList<>();
+    Set<Object> dustOptions = new HashSet<>();
+    List<Particle> particles = new ArrayList<>();
+    ParticleSink sink = (particle, x, y, z, count, offsetX, offsetY, offsetZ, extra, data) -> {
+      particles.add(particle);
+      if (particle == Particle.DUST && count == 5) {
+        dust.add(new double[] {x, y, z});
+        dustOptions.add(data);
+      }
+    };
+
+    effect.play(sink, EffectDetail.FULL, 100.5, 64.0, -20.5);
+    effect.play(sink, EffectDetail.FULL, 100.5, 64.0, -20.5);
+
+    assertEquals(2 * (2 * 34 + 2), particles.size());
+    assertEquals(Particle.FLASH, particles.get(particles.size() - 1));
+    assertEquals(1, dustOptions.size(), "One shared DustOptions for the beam");
+    assertArrayEquals(new double[] {100.5, 64.0, -20.5}, dust.get(0), 1e-9);
+    assertArrayEquals(new double[] {100.5, 64.0 + 9.9, -20.5}, dust.get(33), 1e-9);
+  }
+
+  @Test
+  @DisplayName("Beam density follows the configured spacing")
+  void testBeamSpacingSetting() {
+    assertEquals(11, new LightningEffect(1.0).getBeamPoints());
+    assertEquals(101, new LightningEffect(0.01).getBeamPoints(), "Clamped to 0.1 blocks");
+    assertEquals(2, new LightningEffect(50.0).getBeamPoints(), "Clamped to the beam's height");
+    assertEquals(34, new LightningEffect(Double.NaN).getBeamPoints());
+  }
+
+  @Test
+  @DisplayName("Farther viewers get less of the effect")
+  void testDetailByDistance() {
+    LightningEffect effect = new LightningEffect(LightningEffect.DEFAULT_BEAM_SPACING);
+    assertEquals(EffectDetail.FULL, effect.detailAt(16 * 16));
+    assertEquals(EffectDetail.REDUCED, effect.detailAt(17 * 17));
+    assertEquals(EffectDetail.MINIMAL, effect.detailAt(40 * 40));
+    assertNull(effect.detailAt(49 * 49));
+
+    int[] calls = new int[EffectDetail.values().length];
+    for (EffectDetail detail : EffectDetail.values()) {
+      effect.play((particle, x, y, z, count, offsetX, offsetY, offsetZ, extra, data) -> calls[detail.ordinal()]++,
+        detail, 0, 64, 0);
+    }
+    assertEquals(70, calls[EffectDetail.FULL.ordinal()]);
+    assertEquals(2 * 12 + 1, calls[EffectDetail.REDUCED.ordinal()], "A beam point every 0.9 blocks and the flash");
+    assertEquals(1, calls[EffectDetail.MINIMAL.ordinal()], "Only the flash");
+  }
+
+  @Test
+  @DisplayName("Each nearby player is sent the effect at their own detail")
+  void testPerViewerSending() {
+    LightningEffect effect = new LightningEffect(LightningEffect.DEFAULT_BEAM_SPACING);
+    World world = mock(World.class);
+    Player close = viewer(5);
+    Player mid = viewer(20);
+    Player far = viewer(40);
+    when(world.getNearbyPlayers(any(Location.class), anyDouble())).thenReturn(List.of(close, mid, far));
+
+    effect.play(world, new Location(world, 0, 64, 0), EffectDetail.FULL);
+
+    verifyParticles(close, 70);
+    verifyParticles(mid, 25);
+    verifyParticles(far, 1);
+    verify(close, times(2)).playSound(any(Location.class), any(), anyFloat(), anyFloat());
+    verify(far, times(1)).playSound(any(Location.class), any(), anyFloat(), anyFloat());
+    verify(world, never()).spawnParticle(any(Particle.class), anyDouble(), anyDouble(), anyDouble(), anyInt(),
+      anyDouble(), anyDouble(), anyDouble(), anyDouble(), any());
+  }
+
+  @Test
+  @DisplayName("A quality cap lowers everyone's detail")
+  void testQualityCap() {
+    LightningEffect effect = new LightningEffect(LightningEffect.DEFAULT_BEAM_SPACING);
+    World world = mock(World.class);
+    Player close = viewer(5);
+    Player far = viewer(40);
+    when(world.getNearbyPlayers(any(Location.class), anyDouble())).thenReturn(List.of(close, far));
+
+    effect.play(world, new Location(world, 0, 64, 0), EffectDetail.SOUND_ONLY);
+
+    verifyParticles(close, 0);
+    verifyParticles(far, 0);
+    verify(close, times(1)).playSound(any(Location.class), any(), anyFloat(), anyFloat());
+    verify(far, times(1)).playSound(any(Location.class), any(), anyFloat(), anyFloat());
+  }
+
+  private static void verifyParticles(Player viewer, int calls) {
+    verify(viewer, times(calls)).spawnParticle(any(Particle.class), anyDouble(), anyDouble(), anyDouble(), anyInt(),
+      anyDouble(), anyDouble(), anyDouble(), anyDouble(), any());
+  }
+
+  private static Player viewer(double distance) {
+    Player viewer = mock(Player.class);
+    when(viewer.getLocation(any(Location.class))).thenAnswer(
+      invocation -> ((Location) invocation.getArgument(0)).set(distance, 64, 0)
+    );
+    return viewer;
+  }
+}
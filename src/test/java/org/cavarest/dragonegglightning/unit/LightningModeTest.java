@@ -0,0 +1,45 @@
+package org.cavarest.dragonegglightning.unit;
+
+import org.cavarest.dragonegglightning.effect.LightningMode;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.EntityType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for the vanilla bolt modes of a lightning strike.
+ */
+class LightningModeTest {
+
+  @Test
+  @DisplayName("Each mode lands its own kind of bolt")
+  void testStrike() {
+    World world = mock(World.class);
+    Location target = new Location(world, 1, 64, 2);
+
+    LightningMode.ENTITY.strike(world, target);
+    verify(world, times(1)).spawnEntity(target, EntityType.LIGHTNING_BOLT);
+    verify(world, never()).strikeLightningEffect(any(Location.class));
+
+    LightningMode.EFFECT.strike(world, target);
+    verify(world, times(1)).strikeLightningEffect(target);
+
+    LightningMode.PARTICLES.strike(world, target);
+    verify(world, times(1)).spawnEntity(any(Location.class), any());
+    verify(world, times(1)).strikeLightningEffect(any(Location.class));
+  }
+
+  @Test
+  @DisplayName("Modes parse like the config writes them")
+  void testParse() {
+    assertEquals(LightningMode.EFFECT, LightningMode.parse("effect", null));
+    assertEquals(LightningMode.PARTICLES, LightningMode.parse(" Particles ", null));
+    assertNull(LightningMode.parse("thunder", null));
+    assertEquals(LightningMode.ENTITY, LightningMode.fromConfig(null));
+    assertEquals("particles", LightningMode.PARTICLES.configName());
+  }
+}
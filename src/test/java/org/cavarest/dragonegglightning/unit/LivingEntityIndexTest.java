@@ -0,0 +1,152 @@
+package org.cavarest.dragonegglightning.unit;
+
+import org.cavarest.dragonegglightning.ability.LivingEntityIndex;
+import io.papermc.paper.event.entity.EntityMoveEvent;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.LivingEntity;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for the section-bucketed index of living entities.
+ */
+class LivingEntityIndexTest {
+
+  @Test
+  @DisplayName("Queries only return entities inside the box")
+  void testQueryReturnsEntitiesInBox() {
+    World world = world(List.of());
+    LivingEntityIndex index = new LivingEntityIndex(null);
+    coverAround(index, world);
+    LivingEntity near = entity(world, new double[] {5, 64, 5});
+    LivingEntity edge = entity(world, new double[] {17, 64, 5});
+    LivingEntity far = entity(world, new double[] {200, 64, 5});
+    index.track(near);
+    index.track(edge);
+    index.track(far);
+
+    assertEquals(List.of(near), query(index, world, 0, 60, 0, 16, 70, 16));
+    assertEquals(2, query(index, world, 0, 60, 0, 20, 70, 16).size());
+    assertEquals(3, index.size(world));
+    verify(world, never()).getNearbyEntities(any(Location.class), anyDouble(), anyDouble(), anyDouble());
+  }
+
+  @Test
+  @DisplayName("Moving entities change bucket and removed ones disappear")
+  void testMoveAndUntrack() {
+    World world = world(List.of());
+    LivingEntityIndex index = new LivingEntityIndex(null);
+    coverAround(index, world);
+    double[] position = {5, 64, 5};
+    LivingEntity entity = entity(world, position);
+    index.track(entity);
+
+    position[0] = 40;
+    index.track(entity);
+    assertTrue(query(index, world, 0, 60, 0, 16, 70, 16).isEmpty());
+    assertEquals(List.of(entity), query(index, world, 32, 60, 0, 48, 70, 16));
+
+    index.untrack(entity);
+    assertTrue(query(index, world, 32, 60, 0, 48, 70, 16).isEmpty());
+    assertEquals(0, index.size(world));
+  }
+
+  @Test
+  @DisplayName("Move events only rebucket entities that cross into another section")
+  void testMoveEventsWithinSectionLeaveIndexAlone() {
+    World world = world(List.of());
+    LivingEntityIndex index = new LivingEntityIndex(null);
+    coverAround(index, world);
+    LivingEntity tracked = entity(world, new double[] {5, 64, 5});
+    LivingEntity untracked = entity(world, new double[] {6, 64, 6});
+    index.track(tracked);
+
+    index.onEntityMove(new EntityMoveEvent(untracked,
+      new Location(world, 6, 64, 6), new Location(world, 9, 64, 6)));
+    assertEquals(1, index.size(world), "A move within a section should not touch the index");
+
+    index.onEntityMove(new EntityMoveEvent(tracked,
+      new Location(world, 15, 64, 5), new Location(world, 40, 64, 5)));
+    assertTrue(query(index, world, 0, 60, 0, 15, 70, 16).isEmpty());
+    assertEquals(1, index.size(world));
+  }
+
+  @Test
+  @DisplayName("Sections loaded before the index started are scanned once")
+  void testUncoveredSectionsAreScannedOnce() {
+    List<Entity> loaded = new ArrayList<>();
+    World world = world(loaded);
+    LivingEntityIndex index = new LivingEntityIndex(null);
+    LivingEntity existing = entity(world, new double[] {8, 64, 8});
+    loaded.add(existing);
+
+    assertEquals(List.of(existing), query(index, world, 0, 60, 0, 16, 70, 16));
+    assertEquals(List.of(existing), query(index, world, 0, 60, 0, 16, 70, 16));
+    verify(world, times(1)).getNearbyEntities(any(Location.class), anyDouble(), anyDouble(), anyDouble());
+  }
+
+  @Test
+  @DisplayName("Section keys keep negative coordinates apart")
+  void testSectionKeys() {
+    assertNotEquals(LivingEntityIndex.sectionKey(-1, 4, 0), LivingEntityIndex.sectionKey(1, 4, 0));
+    assertNotEquals(LivingEntityIndex.sectionKey(0, -1, 0), LivingEntityIndex.sectionKey(0, 1, 0));
+    assertNotEquals(LivingEntityIndex.sectionKey(0, 4, -1), LivingEntityIndex.sectionKey(0, 4, 1));
+  }
+
+  private static List<LivingEntity> query(
+    LivingEntityIndex index,
+    World world,
+    double minX,
+    double minY,
+    double minZ,
+    double maxX,
+    double maxY,
+    double maxZ
+  ) {
+    List<LivingEntity> found = new ArrayList<>();
+    index.forEachInBox(world, minX, minY, minZ, maxX, maxY, maxZ, (entity, x, y, z) -> found.add(entity));
+    return found;
+  }
+
+  private static void coverAround(LivingEntityIndex index, World world) {
+    for (int chunkX = -2; chunkX <= 15; chunkX++) {
+      for (int chunkZ = -2; chunkZ <= 2; chunkZ++) {
+        index.coverChunk(world, chunkX, chunkZ);
+      }
+    }
+  }
+
+  private static World world(List<Entity> loaded) {
+    World world = mock(World.class);
+    UUID id = UUID.randomUUID();
+    when(world.getUID()).thenReturn(id);
+    when(world.getMinHeight()).thenReturn(-64);
+    when(world.getMaxHeight()).thenReturn(320);
+    when(world.getNearbyEntities(any(Location.class), anyDouble(), anyDouble(), anyDouble()))
+      .thenAnswer(invocation -> loaded);
+    return world;
+  }
+
+  private static LivingEntity entity(World world, double[] position) {
+    LivingEntity entity = mock(LivingEntity.class);
+    UUID id = UUID.randomUUID();
+    when(entity.getUniqueId()).thenReturn(id);
+    when(entity.getWorld()).thenReturn(world);
+    when(entity.getLocation()).thenAnswer(
+      invocation -> new Location(world, position[0], position[1], position[2])
+    );
+    when(entity.getLocation(any(Location.class))).thenAnswer(
+      invocation -> ((Location) invocation.getArgument(0)).set(position[0], position[1], position[2])
+    );
+    return entity;
+  }
+}
@@ -0,0 +1,134 @@
+package org.cavarest.dragonegglightning.unit;
+
+import org.cavarest.dragonegglightning.cooldown.CooldownStore;
+import org.cavarest.dragonegglightning.cooldown.PrimitiveCooldownStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the open-addressing cooldown table.
+ */
+class PrimitiveCooldownStoreTest {
+
+  private PrimitiveCooldownStore store;
+
+  @BeforeEach
+  void setUp() {
+    store = new PrimitiveCooldownStore();
+  }
+
+  @Test
+  @DisplayName("Missing entries read as NONE")
+  void testMissingEntryReadsAsNone() {
+    assertEquals(CooldownStore.NONE, store.get(UUID.randomUUID(), 0));
+    assertEquals(0, store.size());
+  }
+
+  @Test
+  @DisplayName("Put, overwrite and remove a single entry")
+  void testPutOverwriteRemove() {
+    UUID playerId = UUID.randomUUID();
+
+    store.put(playerId, 0, 1000L);
+    assertEquals(1000L, store.get(playerId, 0));
+
+    store.put(playerId, 0, 2000L);
+    assertEquals(2000L, store.get(playerId, 0), "Put should overwrite the expiry");
+    assertEquals(1, store.size(), "Overwrite should not add an entry");
+
+    assertTrue(store.remove(playerId, 0));
+    assertFalse(store.remove(playerId, 0), "Second remove should report nothing removed");
+    assertEquals(CooldownStore.NONE, store.get(playerId, 0));
+    assertEquals(0, store.size());
+  }
+
+  @Test
+  @DisplayName("Cooldown slots of the same player are independent")
+  void testSlotsAreIndependent() {
+    UUID playerId = UUID.randomUUID();
+    store.put(playerId, 0, 1000L);
+    store.put(playerId, 1, 2000L);
+
+    assertEquals(1000L, store.get(playerId, 0));
+    assertEquals(2000L, store.get(playerId, 1));
+    assertEquals(CooldownStore.NONE, store.get(playerId, 2));
+
+    assertTrue(store.remove(playerId, 0));
+    assertEquals(2000L, store.get(playerId, 1), "Removing one slot should keep the others");
+    assertEquals(1, store.size());
+  }
+
+  @Test
+  @DisplayName("Putting NONE removes the entry")
+  void testPutNoneRemoves() {
+    UUID playerId = UUID.randomUUID();
+    store.put(playerId, 0, 1000L);
+    store.put(playerId, 0, CooldownStore.NONE);
+    assertEquals(0, store.size());
+  }
+
+  @Test
+  @DisplayName("Table grows and keeps every entry")
+  void testGrowth() {
+    List<UUID> ids = new ArrayList<>();
+    for (int i = 0; i < 10_000; i++) {
+      UUID id = UUID.randomUUID();
+      ids.add(id);
+      store.put(id, 0, i + 1L);
+    }
+
+    assertEquals(10_000, store.size());
+    assertTrue(store.size() <= store.capacity() * 3 / 4,
+      "Load factor should stay at or below three quarters");
+    for (int i = 0; i < ids.size(); i++) {
+      assertEquals(i + 1L, store.get(ids.get(i), 0));
+    }
+  }
+
+  @Test
+  @DisplayName("Removals keep colliding probe runs reachable")
+  void testRemovalWithCollisions() {
+    // Sequential ids with a shared high half exercise long probe runs
+    // in a deliberately small table.
+    PrimitiveCooldownStore small = new PrimitiveCooldownStore(1);
+    Map<UUID, Long> reference = new HashMap<>();
+    Random random = new Random(42);
+
+    for (int i = 0; i < 50_000; i++) {
+      UUID id = new UUID(7L, random.nextInt(512));
+      if (random.nextBoolean()) {
+        long expiry = random.nextInt(1_000_000) + 1L;
+        small.put(id, 0, expiry);
+        reference.put(id, expiry);
+      } else {
+        assertEquals(reference.remove(id) != null, small.remove(id, 0));
+      }
+    }
+
+    assertEquals(reference.size(), small.size());
+    for (int i = 0; i < 512; i++) {
+      UUID id = new UUID(7L, i);
+      assertEquals((long) reference.getOrDefault(id, CooldownStore.NONE), small.get(id, 0));
+    }
+  }
+
+  @Test
+  @DisplayName("Clear removes all entries")
+  void testClear() {
+    for (int i = 0; i < 100; i++) {
+      store.put(UUID.randomUUID(), 0, 1000L);
+    }
+    store.clear();
+    assertEquals(0, store.size());
+  }
+}
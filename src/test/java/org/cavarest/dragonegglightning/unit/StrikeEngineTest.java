@@ -0,0 +1,155 @@
+package org.cavarest.dragonegglightning.unit;
+
+import org.cavarest.dragonegglightning.ability.StrikeEngine;
+import org.bukkit.Server;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for the single-task strike engine.
+ */
+class StrikeEngineTest {
+
+  private Server server;
+  private StrikeEngine engine;
+
+  /**
+   * A cast that counts its strikes and ends after a fixed number.
+   */
+  private static final class CountingCast implements StrikeEngine.Cast {
+    private final int strikesLeft;
+    private final List<Player> strikes = new ArrayList<>();
+    private boolean finished;
+    private boolean cancelled;
+
+    CountingCast(int strikesLeft) {
+      this.strikesLeft = strikesLeft;
+    }
+
+    @Override
+    public boolean strike(Player caster) {
+      strikes.add(caster);
+      finished = strikes.size() >= strikesLeft;
+      return !finished;
+    }
+
+    @Override
+    public boolean isFinished() {
+      return finished;
+    }
+
+    @Override
+    public void cancel() {
+      cancelled = true;
+      finished = true;
+    }
+  }
+
+  @BeforeEach
+  void setUp() {
+    server = mock(Server.class);
+    Plugin plugin = mock(Plugin.class);
+    when(plugin.getServer()).thenReturn(server);
+    engine = new StrikeEngine(plugin);
+  }
+
+  @Test
+  @DisplayName("Casts strike once per interval until they finish")
+  void testStrikesAtInterval() {
+    Player caster = player();
+    CountingCast cast = new CountingCast(2);
+    engine.schedule(caster, cast, 10L);
+
+    tick(9);
+    assertTrue(cast.strikes.isEmpty(), "Nothing is due before one interval");
+    assertEquals(1, engine.getActiveCasts());
+
+    tick(1);
+    assertEquals(List.of(caster), cast.strikes);
+    tick(10);
+    assertEquals(List.of(caster, caster), cast.strikes);
+    assertEquals(0, engine.getActiveCasts(), "Finished casts are dropped");
+
+    tick(20);
+    assertEquals(2, cast.strikes.size());
+  }
+
+  @Test
+  @DisplayName("A cast with no delay strikes at the next tick, then once per interval")
+  void testFirstStrikeWithoutDelay() {
+    Player caster = player();
+    CountingCast cast = new CountingCast(2);
+    engine.schedule(caster, cast, 0L, 10L);
+    assertTrue(cast.strikes.isEmpty(), "Scheduling never strikes inline");
+
+    tick(1);
+    assertEquals(1, cast.strikes.size());
+    tick(9);
+    assertEquals(1, cast.strikes.size());
+    tick(1);
+    assertEquals(2, cast.strikes.size());
+  }
+
+  @Test
+  @DisplayName("Casts whose caster quit are cancelled")
+  void testCasterQuit() {
+    Player caster = player();
+    CountingCast cast = new CountingCast(3);
+    engine.schedule(caster, cast, 10L);
+    tick(1);
+    when(server.getPlayer(caster.getUniqueId())).thenReturn(null);
+
+    tick(9);
+    assertTrue(cast.cancelled);
+    assertTrue(cast.strikes.isEmpty());
+    assertEquals(0, engine.getActiveCasts());
+  }
+
+  @Test
+  @DisplayName("Many casts are advanced in one pass")
+  void testManyCasts() {
+    List<CountingCast> casts = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      CountingCast cast = new CountingCast(3);
+      casts.add(cast);
+      engine.schedule(player(), cast, 10L);
+    }
+    tick(1);
+    assertEquals(100, engine.getActiveCasts());
+
+    tick(29);
+    for (CountingCast cast : casts) {
+      assertEquals(3, cast.strikes.size());
+    }
+    assertEquals(0, engine.getActiveCasts());
+
+    CountingCast late = new CountingCast(3);
+    engine.schedule(player(), late, 10L);
+    engine.stop();
+    assertTrue(late.cancelled, "Stopping cancels queued casts too");
+  }
+
+  private void tick(int ticks) {
+    for (int i = 0; i < ticks; i++) {
+      engine.tick();
+    }
+  }
+
+  private Player player() {
+    Player player = mock(Player.class);
+    UUID id = UUID.randomUUID();
+    when(player.getUniqueId()).thenReturn(id);
+    when(server.getPlayer(id)).thenReturn(player);
+    return player;
+  }
+}
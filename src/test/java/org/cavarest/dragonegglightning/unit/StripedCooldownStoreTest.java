@@ -0,0 +1,115 @@
+package org.cavarest.dragonegglightning.unit;
+
+import org.cavarest.dragonegglightning.cooldown.CooldownStore;
+import org.cavarest.dragonegglightning.cooldown.StripedCooldownStore;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the lock-striped cooldown store.
+ */
+class StripedCooldownStoreTest {
+
+  @Test
+  @DisplayName("Stripe count is rounded up to a power of two")
+  void testStripeCount() {
+    assertEquals(16, new StripedCooldownStore(1).stripeCount());
+    assertEquals(64, new StripedCooldownStore(33).stripeCount());
+  }
+
+  @Test
+  @DisplayName("Entries are spread across stripes and all remain visible")
+  void testPutGetAcrossStripes() {
+    StripedCooldownStore store = new StripedCooldownStore(16);
+    List<UUID> ids = new ArrayList<>();
+    for (int i = 0; i < 1_000; i++) {
+      UUID id = UUID.randomUUID();
+      ids.add(id);
+      store.put(id, i % 3, i + 1L);
+    }
+
+    assertEquals(1_000, store.size());
+    for (int i = 0; i < ids.size(); i++) {
+      assertEquals(i + 1L, store.get(ids.get(i), i % 3));
+    }
+
+    AtomicInteger visited = new AtomicInteger();
+    store.forEach((msb, lsb, slot, expiry) -> visited.incrementAndGet());
+    assertEquals(1_000, visited.get());
+
+    store.clear();
+    assertEquals(0, store.size());
+  }
+
+  @Test
+  @DisplayName("A conditional remove keeps an entry replaced since it was read")
+  void testRemoveIfEquals() {
+    StripedCooldownStore store = new StripedCooldownStore(16);
+    UUID id = UUID.randomUUID();
+    long msb = id.getMostSignificantBits();
+    long lsb = id.getLeastSignificantBits();
+    store.put(id, 0, 100L);
+
+    long read = store.get(id, 0);
+    // A recast on another thread lands between the read and the remove
+    store.put(id, 0, 500L);
+    assertFalse(store.removeIfEquals(msb, lsb, 0, read));
+    assertEquals(500L, store.get(id, 0), "The newer cooldown must survive");
+
+    assertTrue(store.removeIfEquals(msb, lsb, 0, 500L));
+    assertEquals(CooldownStore.NONE, store.get(id, 0));
+    assertFalse(store.removeIfEquals(msb, lsb, 0, 500L), "Nothing left to remove");
+  }
+
+  @Test
+  @DisplayName("Concurrent writers on different players do not lose updates")
+  void testConcurrentWriters() throws InterruptedException {
+    StripedCooldownStore store = new StripedCooldownStore(16);
+    int threads = 8;
+    int perThread = 5_000;
+    CountDownLatch start = new CountDownLatch(1);
+    List<Thread> workers = new ArrayList<>();
+    List<Throwable> failures = new ArrayList<>();
+
+    for (int t = 0; t < threads; t++) {
+      long msb = t + 1L;
+      Thread worker = new Thread(() -> {
+        try {
+          start.await();
+          for (int i = 0; i < perThread; i++) {
+            store.put(msb, i, 0, i + 1L);
+            store.put(msb, i, 1, i + 1L);
+            store.remove(msb, i, 1);
+          }
+        } catch (Throwable e) {
+          synchronized (failures) {
+            failures.add(e);
+          }
+        }
+      });
+      workers.add(worker);
+      worker.start();
+    }
+    start.countDown();
+    for (Thread worker : workers) {
+      worker.join();
+    }
+
+    assertTrue(failures.isEmpty(), () -> "Worker failed: " + failures);
+    assertEquals(threads * perThread, store.size());
+    for (int t = 0; t < threads; t++) {
+      for (int i = 0; i < perThread; i++) {
+        assertEquals(i + 1L, store.get(t + 1L, i, 0));
+        assertEquals(CooldownStore.NONE, store.get(t + 1L, i, 1));
+      }
+    }
+  }
+}